@@ -0,0 +1,72 @@
+package com.example.benchmarks;
+
+import com.example.api.dto.ProductDto;
+import com.example.api.dto.UserDto;
+import com.example.common.util.CommonUtils;
+import com.example.product.entity.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkData {
+
+    static final String[] CATEGORIES = {"Electronics", "Books", "Garden", "Toys", "Kitchen"};
+
+    private BenchmarkData() {
+        // Utility class, no instantiation
+    }
+
+    static Product product(int i) {
+        LocalDateTime now = LocalDateTime.now();
+        return Product.builder()
+                .id(CommonUtils.generateUniqueId())
+                .name("Product " + i)
+                .description("Description of product " + i)
+                .price(BigDecimal.valueOf(1000 + i, 2))
+                .stockQuantity(i % 500)
+                .category(CATEGORIES[i % CATEGORIES.length])
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+
+    static List<ProductDto> productDtos(int count) {
+        List<ProductDto> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = product(i);
+            products.add(ProductDto.builder()
+                    .id(product.getId())
+                    .name(product.getName())
+                    .description(product.getDescription())
+                    .price(product.getPrice())
+                    .stockQuantity(product.getStockQuantity())
+                    .category(product.getCategory())
+                    .createdAt(product.getCreatedAt())
+                    .updatedAt(product.getUpdatedAt())
+                    .version(0L)
+                    .build());
+        }
+        return products;
+    }
+
+    static UserDto userDto(int i) {
+        return UserDto.builder()
+                .id(CommonUtils.generateUniqueId())
+                .username("user" + i)
+                .email("user" + i + "@example.com")
+                .firstName("First" + i)
+                .lastName("Last" + i)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    static List<UserDto> userDtos(int count) {
+        List<UserDto> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(userDto(i));
+        }
+        return users;
+    }
+}
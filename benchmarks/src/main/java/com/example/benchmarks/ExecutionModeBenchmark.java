@@ -0,0 +1,111 @@
+package com.example.benchmarks;
+
+import com.example.product.repository.ProductRepository;
+import com.example.webapp.WebApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the platform and virtual request execution modes. Each request
+ * waits on a simulated downstream call, then does one repository lookup, so
+ * throughput is bound by how many requests can be in flight rather than CPU.
+ * Tomcat's platform pool is held at its default of 200 workers against 400
+ * concurrent clients. The virtual mode needs Java 21 or newer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(400)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ExecutionModeBenchmark {
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    @Param({"20"})
+    private int downstreamMillis;
+
+    // Registered next to the real controllers; stands in for an endpoint that calls another service
+    @RestController
+    static class DownstreamEndpoint {
+
+        private final ProductRepository productRepository;
+
+        DownstreamEndpoint(ProductRepository productRepository) {
+            this.productRepository = productRepository;
+        }
+
+        @GetMapping("/bench/downstream/{id}")
+        ResponseEntity<String> downstream(@PathVariable String id, @RequestParam int millis) throws InterruptedException {
+            Thread.sleep(millis);
+            return productRepository.findById(id)
+                    .map(product -> ResponseEntity.ok(product.getName()))
+                    .orElse(ResponseEntity.notFound().build());
+        }
+    }
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(WebApplication.class, DownstreamEndpoint.class)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "server.port=0",
+                        "server.tomcat.threads.max=200",
+                        "spring.jpa.show-sql=false",
+                        "app.execution.mode=" + mode)
+                .run();
+        int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        String id = context.getBean(ProductRepository.class).findAll().get(0).getId();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/bench/downstream/" + id
+                + "?millis=" + downstreamMillis)).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int request() throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
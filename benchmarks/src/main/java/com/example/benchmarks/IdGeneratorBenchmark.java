@@ -0,0 +1,49 @@
+package com.example.benchmarks;
+
+import com.example.common.id.CompactIds;
+import com.example.common.id.IdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Id generation under concurrent callers, plus the cost of the compact column encoding
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    @Param({"random", "time-ordered"})
+    private String generator;
+
+    private IdGenerator idGenerator;
+
+    @Setup
+    public void setup() {
+        idGenerator = IdGenerator.of(generator);
+    }
+
+    @Benchmark
+    public String newId() {
+        return idGenerator.newId();
+    }
+
+    @Benchmark
+    public byte[] newIdEncoded() {
+        return CompactIds.encode(idGenerator.newId());
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.benchmarks;
+
+import com.example.api.dto.ProductDto;
+import com.example.api.dto.UserDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serializes DTO lists with the same ObjectMapper settings Spring MVC uses for each wire format
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"10", "1000"})
+    private int size;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectWriter productWriter;
+    private ObjectWriter userWriter;
+    private List<ProductDto> products;
+    private List<UserDto> users;
+
+    @Setup
+    public void setup() {
+        ObjectMapper objectMapper = objectMapper(format);
+        productWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, ProductDto.class));
+        userWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, UserDto.class));
+        products = BenchmarkData.productDtos(size);
+        users = BenchmarkData.userDtos(size);
+    }
+
+    // Mirrors BinaryFormatConfig in the web app
+    private static ObjectMapper objectMapper(String format) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        switch (format) {
+            case "cbor":
+                return builder.factory(new CBORFactory())
+                        .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                        .build();
+            case "smile":
+                SmileFactory smileFactory = new SmileFactory();
+                smileFactory.enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+                return builder.factory(smileFactory)
+                        .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                        .build();
+            default:
+                return builder.build();
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeProducts() throws Exception {
+        return productWriter.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] serializeUsers() throws Exception {
+        return userWriter.writeValueAsBytes(users);
+    }
+}
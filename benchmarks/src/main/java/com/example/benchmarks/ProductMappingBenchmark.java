@@ -0,0 +1,74 @@
+package com.example.benchmarks;
+
+import com.example.api.dto.ProductDto;
+import com.example.product.entity.Product;
+import com.example.product.mapper.ProductMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// The generated ProductMapper against the builder-based mapping it replaced
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductMappingBenchmark {
+
+    private Product product;
+    private ProductDto productDto;
+
+    @Setup
+    public void setup() {
+        LocalDateTime now = LocalDateTime.now();
+        product = Product.builder()
+                .id("5f0c6d5e-8f43-4b77-9a53-0d6b1f1b7c11")
+                .name("Laptop")
+                .description("High-performance laptop")
+                .price(new BigDecimal("999.99"))
+                .stockQuantity(50)
+                .category("Electronics")
+                .createdAt(now)
+                .updatedAt(now)
+                .version(3L)
+                .build();
+        productDto = ProductMapper.INSTANCE.toDto(product);
+    }
+
+    @Benchmark
+    public ProductDto toDto() {
+        return ProductMapper.INSTANCE.toDto(product);
+    }
+
+    @Benchmark
+    public ProductDto toDtoWithBuilder() {
+        return ProductDto.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .description(product.getDescription())
+                .price(product.getPrice())
+                .stockQuantity(product.getStockQuantity())
+                .category(product.getCategory())
+                .createdAt(product.getCreatedAt())
+                .updatedAt(product.getUpdatedAt())
+                .version(product.getVersion())
+                .build();
+    }
+
+    @Benchmark
+    public Product toEntity() {
+        return ProductMapper.INSTANCE.toEntity(productDto);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.benchmarks;
+
+import com.example.api.dto.ProductDto;
+import com.example.product.entity.Product;
+import com.example.product.mapper.ProductMapper;
+import com.example.product.repository.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// ProductRepository CRUD against in-memory H2 with a preloaded catalog
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductRepositoryBenchmark {
+
+    private static final int CATALOG_SIZE = 10_000;
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackages = "com.example.product.entity")
+    @EnableJpaRepositories(basePackages = "com.example.product.repository")
+    static class RepositoryConfig {
+    }
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private TransactionTemplate transactionTemplate;
+    private List<String> ids;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(RepositoryConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.datasource.url=jdbc:h2:mem:benchmarks;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.open-in-view=false",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+                        "spring.jpa.properties.hibernate.order_inserts=true")
+                .run();
+        productRepository = context.getBean(ProductRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        List<Product> catalog = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            catalog.add(BenchmarkData.product(i));
+        }
+        productRepository.saveAll(catalog);
+        ids = new ArrayList<>(CATALOG_SIZE);
+        catalog.forEach(product -> ids.add(product.getId()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private String randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    @Benchmark
+    public Optional<Product> findById() {
+        return productRepository.findById(randomId());
+    }
+
+    @Benchmark
+    public List<Product> findFirstPage() {
+        return productRepository.findAllByOrderByIdAsc(PageRequest.of(0, 100));
+    }
+
+    // The listing path before projections: load managed entities, then map
+    @Benchmark
+    public List<ProductDto> findFirstPageAsMappedEntities() {
+        return transactionTemplate.execute(status ->
+                ProductMapper.INSTANCE.toDtos(productRepository.findAllByOrderByIdAsc(PageRequest.of(0, 100))));
+    }
+
+    @Benchmark
+    public List<ProductDto> findFirstPageAsProjection() {
+        return productRepository.findDtoPage(PageRequest.of(0, 100));
+    }
+
+    @Benchmark
+    public List<Product> findCategoryPage() {
+        return productRepository.findByCategoryOrderByIdAsc(BenchmarkData.CATEGORIES[0], PageRequest.of(0, 100));
+    }
+
+    @Benchmark
+    public Product insert() {
+        return productRepository.save(BenchmarkData.product(CATALOG_SIZE + counter++));
+    }
+
+    @Benchmark
+    public Integer updatePrice() {
+        return transactionTemplate.execute(status ->
+                productRepository.updatePrice(randomId(), BigDecimal.valueOf(counter++ % 10_000, 2), LocalDateTime.now(), null));
+    }
+
+    @Benchmark
+    public void insertAndDelete() {
+        Product product = productRepository.save(BenchmarkData.product(CATALOG_SIZE + counter++));
+        productRepository.deleteById(product.getId());
+    }
+}
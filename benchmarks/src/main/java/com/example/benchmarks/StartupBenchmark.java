@@ -0,0 +1,71 @@
+package com.example.benchmarks;
+
+import com.example.webapp.WebApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold start of {@link WebApplication}: from a fresh JVM to the first product
+ * listing served over HTTP, then shutdown. Each fork measures one start, so
+ * nothing is warmed up or cached between samples. The C1-only variant shows the
+ * effect of {@code -XX:TieredStopAtLevel=1}, which keeps C2 compilation from
+ * competing with startup for CPU.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class StartupBenchmark {
+
+    @Param({"default", "fast-start"})
+    private String profile;
+
+    @Benchmark
+    public int startAndServeFirstRequest() throws IOException, InterruptedException {
+        return startAndServe();
+    }
+
+    @Benchmark
+    @Fork(value = 5, jvmArgsAppend = "-XX:TieredStopAtLevel=1")
+    public int startAndServeFirstRequestC1Only() throws IOException, InterruptedException {
+        return startAndServe();
+    }
+
+    private int startAndServe() throws IOException, InterruptedException {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(WebApplication.class);
+        if (!"default".equals(profile)) {
+            builder.profiles(profile);
+        }
+        // As arguments, so they take precedence over application.yml
+        try (ConfigurableApplicationContext context = builder.run("--spring.main.banner-mode=off", "--server.port=0")) {
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            HttpResponse<Void> response = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/products")).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Unexpected status " + response.statusCode());
+            }
+            return response.statusCode();
+        }
+    }
+}
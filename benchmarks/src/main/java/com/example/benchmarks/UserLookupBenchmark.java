@@ -0,0 +1,69 @@
+package com.example.benchmarks;
+
+import com.example.api.dto.UserDto;
+import com.example.webapp.cache.UserCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// UserController's lookup path: the read-through UserCache, sized to hold every user
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class UserLookupBenchmark {
+
+    private static final Function<String, Optional<UserDto>> MISS = key -> {
+        throw new IllegalStateException("Benchmark lookups must hit the cache: " + key);
+    };
+
+    @Param({"10", "10000", "1000000"})
+    private int size;
+
+    private UserCache userCache;
+    private List<UserDto> users;
+
+    @Setup
+    public void setup() {
+        // Head-room so size-based eviction never kicks in during the run
+        userCache = new UserCache(size * 2L, Duration.ofHours(1));
+        users = BenchmarkData.userDtos(size);
+        users.forEach(userCache::put);
+    }
+
+    private UserDto randomUser() {
+        return users.get(ThreadLocalRandom.current().nextInt(users.size()));
+    }
+
+    @Benchmark
+    public Optional<UserDto> findById() {
+        return userCache.findById(randomUser().getId(), MISS);
+    }
+
+    @Benchmark
+    public Optional<UserDto> findByUsername() {
+        return userCache.findByUsername(randomUser().getUsername(), MISS);
+    }
+
+    @Benchmark
+    public Optional<UserDto> findByEmail() {
+        return userCache.findByEmail(randomUser().getEmail(), MISS);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.common.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.usertype.UserType;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Objects;
+
+/**
+ * Hibernate type that keeps a {@code String} id in the domain model but stores
+ * it in a VARBINARY column using {@link CompactIds}: 16 bytes for a UUID instead
+ * of 36 characters. Use with {@code @Type(type = CompactIdType.NAME)}.
+ */
+public class CompactIdType implements UserType {
+
+    public static final String NAME = "com.example.common.id.CompactIdType";
+
+    @Override
+    public int[] sqlTypes() {
+        return new int[]{Types.VARBINARY};
+    }
+
+    @Override
+    public Class<String> returnedClass() {
+        return String.class;
+    }
+
+    @Override
+    public boolean equals(Object x, Object y) {
+        return Objects.equals(x, y);
+    }
+
+    @Override
+    public int hashCode(Object x) {
+        return Objects.hashCode(x);
+    }
+
+    @Override
+    public Object nullSafeGet(ResultSet rs, String[] names, SharedSessionContractImplementor session, Object owner)
+            throws SQLException {
+        byte[] bytes = rs.getBytes(names[0]);
+        return bytes == null ? null : CompactIds.decode(bytes);
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, Object value, int index, SharedSessionContractImplementor session)
+            throws SQLException {
+        if (value == null) {
+            st.setNull(index, Types.VARBINARY);
+        } else {
+            st.setBytes(index, CompactIds.encode((String) value));
+        }
+    }
+
+    @Override
+    public Object deepCopy(Object value) {
+        return value;
+    }
+
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+    @Override
+    public Serializable disassemble(Object value) {
+        return (Serializable) value;
+    }
+
+    @Override
+    public Object assemble(Serializable cached, Object owner) {
+        return cached;
+    }
+
+    @Override
+    public Object replace(Object original, Object target, Object owner) {
+        return original;
+    }
+}
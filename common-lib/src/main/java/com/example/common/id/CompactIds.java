@@ -0,0 +1,71 @@
+package com.example.common.id;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Binary encoding for string ids. Canonical lowercase UUID strings become their
+ * 16 raw bytes; any other id is stored as UTF-8 behind one or two 0xFF marker
+ * bytes (never 16 bytes long, and 0xFF never starts UTF-8). Encoded UUIDs
+ * compare bytewise in the same order as their strings.
+ */
+public final class CompactIds {
+
+    private static final int UUID_BYTES = 16;
+    private static final byte MARKER = (byte) 0xFF;
+    private static final int[] DASHES = {8, 13, 18, 23};
+
+    private CompactIds() {
+        // Utility class, no instantiation
+    }
+
+    public static byte[] encode(String id) {
+        if (isCanonicalUuid(id)) {
+            UUID uuid = UUID.fromString(id);
+            return ByteBuffer.allocate(UUID_BYTES)
+                    .putLong(uuid.getMostSignificantBits())
+                    .putLong(uuid.getLeastSignificantBits())
+                    .array();
+        }
+        byte[] text = id.getBytes(StandardCharsets.UTF_8);
+        int markers = text.length + 1 == UUID_BYTES ? 2 : 1;
+        byte[] encoded = new byte[text.length + markers];
+        Arrays.fill(encoded, 0, markers, MARKER);
+        System.arraycopy(text, 0, encoded, markers, text.length);
+        return encoded;
+    }
+
+    public static String decode(byte[] bytes) {
+        if (bytes.length == UUID_BYTES) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            return new UUID(buffer.getLong(), buffer.getLong()).toString();
+        }
+        int start = 0;
+        while (start < bytes.length && bytes[start] == MARKER) {
+            start++;
+        }
+        return new String(bytes, start, bytes.length - start, StandardCharsets.UTF_8);
+    }
+
+    // Only the form UUID.toString() produces, so decoding gives back the same string
+    static boolean isCanonicalUuid(String id) {
+        if (id.length() != 36) {
+            return false;
+        }
+        int dash = 0;
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (dash < DASHES.length && i == DASHES[dash]) {
+                if (c != '-') {
+                    return false;
+                }
+                dash++;
+            } else if (!(c >= '0' && c <= '9') && !(c >= 'a' && c <= 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.common.id;
+
+/**
+ * Source of new entity ids. Implementations must be thread-safe.
+ */
+public interface IdGenerator {
+
+    String newId();
+
+    static IdGenerator of(String name) {
+        switch (name) {
+            case RandomIdGenerator.NAME:
+                return new RandomIdGenerator();
+            case TimeOrderedIdGenerator.NAME:
+                return new TimeOrderedIdGenerator();
+            default:
+                throw new IllegalArgumentException("Unknown id generator: " + name);
+        }
+    }
+}
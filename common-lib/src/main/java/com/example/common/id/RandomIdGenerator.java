@@ -0,0 +1,17 @@
+package com.example.common.id;
+
+import java.util.UUID;
+
+/**
+ * Random (version 4) UUIDs. Unguessable, but every call goes through the shared
+ * {@link java.security.SecureRandom} and the ids scatter index inserts.
+ */
+public class RandomIdGenerator implements IdGenerator {
+
+    public static final String NAME = "random";
+
+    @Override
+    public String newId() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.common.id;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Version 7 UUIDs: a 48-bit millisecond timestamp, a 12-bit counter and 62
+ * random bits. Ids from one generator are strictly increasing, both as UUIDs
+ * and as strings, so new rows append to the end of the primary key index.
+ * The counter starts at a random point each millisecond and carries into the
+ * timestamp if it overflows. Random bits come from {@link ThreadLocalRandom},
+ * so ids are unique but not unguessable; use {@link RandomIdGenerator} for that.
+ */
+public class TimeOrderedIdGenerator implements IdGenerator {
+
+    public static final String NAME = "time-ordered";
+
+    private static final int COUNTER_BITS = 12;
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000_0000_0000_0000L;
+    private static final long RANDOM_MASK = 0x3FFF_FFFF_FFFF_FFFFL;
+
+    private final LongSupplier clock;
+    // Timestamp and counter of the last id, packed as (millis << 12) | counter
+    private final AtomicLong last = new AtomicLong();
+
+    public TimeOrderedIdGenerator() {
+        this(System::currentTimeMillis);
+    }
+
+    TimeOrderedIdGenerator(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public String newId() {
+        return newUuid().toString();
+    }
+
+    public UUID newUuid() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // Start in the lower half of the counter range to leave room for ids in the same millisecond
+        long floor = (clock.getAsLong() << COUNTER_BITS) | random.nextInt(1 << (COUNTER_BITS - 1));
+        long stamp = last.accumulateAndGet(floor, (previous, candidate) -> Math.max(previous + 1, candidate));
+        long millis = stamp >>> COUNTER_BITS;
+        long counter = stamp & ((1 << COUNTER_BITS) - 1);
+        long mostSignificant = (millis << 16) | VERSION | counter;
+        long leastSignificant = VARIANT | (random.nextLong() & RANDOM_MASK);
+        return new UUID(mostSignificant, leastSignificant);
+    }
+}
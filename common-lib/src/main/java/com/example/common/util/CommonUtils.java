@@ -1,19 +1,22 @@
 package com.example.common.util;
 
+import com.example.common.id.IdGenerator;
+import com.example.common.id.TimeOrderedIdGenerator;
+
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.UUID;
 
 public class CommonUtils {
     
     private static final DateTimeFormatter DEFAULT_FORMATTER = DateTimeFormatter.ISO_DATE_TIME;
+    private static final IdGenerator ID_GENERATOR = new TimeOrderedIdGenerator();
     
     private CommonUtils() {
         // Utility class, no instantiation
     }
     
     public static String generateUniqueId() {
-        return UUID.randomUUID().toString();
+        return ID_GENERATOR.newId();
     }
     
     public static String formatDateTime(LocalDateTime dateTime) {
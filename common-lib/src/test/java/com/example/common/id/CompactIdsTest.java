@@ -0,0 +1,32 @@
+package com.example.common.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactIdsTest {
+
+    @Test
+    void testUuidsTakeSixteenBytesAndKeepTheirOrder() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator();
+        String first = generator.newId();
+        String second = generator.newId();
+        byte[] firstBytes = CompactIds.encode(first);
+        byte[] secondBytes = CompactIds.encode(second);
+
+        assertEquals(16, firstBytes.length);
+        assertEquals(first, CompactIds.decode(firstBytes));
+        assertTrue(Arrays.compareUnsigned(firstBytes, secondBytes) < 0);
+    }
+
+    @Test
+    void testOtherIdsRoundTrip() {
+        for (String id : new String[]{"", "missing", "fifteen-chars!!", "C0FFEE00-0000-7000-8000-000000000000", "pröduct-1"}) {
+            byte[] encoded = CompactIds.encode(id);
+            assertNotEquals(16, encoded.length, id);
+            assertEquals(id, CompactIds.decode(encoded));
+        }
+    }
+}
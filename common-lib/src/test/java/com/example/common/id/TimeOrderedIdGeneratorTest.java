@@ -0,0 +1,34 @@
+package com.example.common.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedIdGeneratorTest {
+
+    @Test
+    void testIdsIncreaseWithinAndAcrossMilliseconds() {
+        long[] now = {1_700_000_000_000L};
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(() -> now[0]);
+        String previous = generator.newId();
+        for (int i = 0; i < 10_000; i++) {
+            if (i % 1000 == 0) {
+                now[0]++;
+            }
+            String next = generator.newId();
+            assertTrue(next.compareTo(previous) > 0, next + " should sort after " + previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void testLayoutIsVersion7() {
+        long now = 1_700_000_000_000L;
+        UUID uuid = new TimeOrderedIdGenerator(() -> now).newUuid();
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertEquals(now, uuid.getMostSignificantBits() >>> 16);
+    }
+}
@@ -1,14 +1,19 @@
 package com.example.product.entity;
 
+import com.example.common.id.CompactIdType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.Type;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -17,10 +22,17 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "products")
+@DynamicUpdate
+@Table(name = "products", indexes = {
+    // Serves category lookups and keyset pagination within a category
+    @Index(name = "idx_products_category_id", columnList = "category, id"),
+    @Index(name = "idx_products_name", columnList = "name")
+})
 public class Product {
     
+    // Stored as 16 bytes when the id is a UUID
     @Id
+    @Type(type = CompactIdType.NAME)
     private String id;
     
     @Column(nullable = false)
@@ -37,4 +49,8 @@ public class Product {
     private String category;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    
+    // Optimistic lock; bumped on every update, including single-statement ones
+    @Version
+    private Long version;
 }
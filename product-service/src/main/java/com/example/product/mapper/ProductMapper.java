@@ -0,0 +1,32 @@
+package com.example.product.mapper;
+
+import com.example.api.dto.ProductDto;
+import com.example.product.entity.Product;
+import org.mapstruct.Builder;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.factory.Mappers;
+
+import java.util.List;
+
+/**
+ * Compile-time generated {@link Product} / {@link ProductDto} mapping. The
+ * generated code copies fields through setters on a plain instance; Lombok
+ * builders are deliberately bypassed to save an allocation per row.
+ */
+@Mapper(builder = @Builder(disableBuilder = true))
+public interface ProductMapper {
+
+    ProductMapper INSTANCE = Mappers.getMapper(ProductMapper.class);
+
+    ProductDto toDto(Product product);
+
+    List<ProductDto> toDtos(List<Product> products);
+
+    // New entities get an id and creation time if the client sent none; the version is never taken from a client
+    @Mapping(target = "id", defaultExpression = "java(com.example.common.util.CommonUtils.generateUniqueId())")
+    @Mapping(target = "createdAt", defaultExpression = "java(java.time.LocalDateTime.now())")
+    @Mapping(target = "updatedAt", expression = "java(java.time.LocalDateTime.now())")
+    @Mapping(target = "version", ignore = true)
+    Product toEntity(ProductDto productDto);
+}
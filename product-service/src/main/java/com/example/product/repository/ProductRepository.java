@@ -1,15 +1,95 @@
 package com.example.product.repository;
 
+import com.example.api.dto.ProductDto;
 import com.example.product.entity.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, String> {
-    
+
+    // Constructor expression reading rows straight into ProductDto, in its field order
+    String SELECT_DTO = "select new com.example.api.dto.ProductDto(p.id, p.name, p.description, p.price, "
+            + "p.stockQuantity, p.category, p.createdAt, p.updatedAt, p.version) from Product p ";
+
     List<Product> findByCategory(String category);
-    
+
     List<Product> findByNameContainingIgnoreCase(String name);
+
+    // First keyset page as managed entities
+    List<Product> findAllByOrderByIdAsc(Pageable pageable);
+
+    List<Product> findByCategoryOrderByIdAsc(String category, Pageable pageable);
+
+    // Keyset pages as DTO projections, no managed entities and no dirty checking.
+    // Callers pass the last id of the previous page as the cursor
+    @Query(SELECT_DTO + "order by p.id")
+    List<ProductDto> findDtoPage(Pageable pageable);
+
+    @Query(SELECT_DTO + "where p.id > :after order by p.id")
+    List<ProductDto> findDtoPageAfter(@Param("after") String after, Pageable pageable);
+
+    @Query(SELECT_DTO + "where p.category = :category order by p.id")
+    List<ProductDto> findDtoPageByCategory(@Param("category") String category, Pageable pageable);
+
+    @Query(SELECT_DTO + "where p.category = :category and p.id > :after order by p.id")
+    List<ProductDto> findDtoPageByCategoryAfter(@Param("category") String category, @Param("after") String after,
+                                                Pageable pageable);
+
+    // Locks the row until the surrounding transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Product p where p.id = :id")
+    Optional<Product> findByIdForUpdate(@Param("id") String id);
+
+    // Forward-only streams; must be consumed inside a transaction and closed by the caller
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select p from Product p order by p.id")
+    Stream<Product> streamAll();
+
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select p from Product p where p.category = :category order by p.id")
+    Stream<Product> streamByCategory(@Param("category") String category);
+
+    // Single-statement updates of hot fields; a null version skips the optimistic check
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.price = :price, p.updatedAt = :updatedAt, p.version = p.version + 1 "
+            + "where p.id = :id and (:version is null or p.version = :version)")
+    int updatePrice(@Param("id") String id, @Param("price") BigDecimal price,
+                    @Param("updatedAt") LocalDateTime updatedAt, @Param("version") Long version);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.stockQuantity = :stockQuantity, p.updatedAt = :updatedAt, p.version = p.version + 1 "
+            + "where p.id = :id and (:version is null or p.version = :version)")
+    int updateStockQuantity(@Param("id") String id, @Param("stockQuantity") Integer stockQuantity,
+                            @Param("updatedAt") LocalDateTime updatedAt, @Param("version") Long version);
+
+    // Atomic relative change guarded against going negative; returns 0 if missing or insufficient
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.stockQuantity = p.stockQuantity + :delta, p.updatedAt = :updatedAt, p.version = p.version + 1 "
+            + "where p.id = :id and p.stockQuantity + :delta >= 0")
+    int adjustStockQuantity(@Param("id") String id, @Param("delta") int delta,
+                            @Param("updatedAt") LocalDateTime updatedAt);
 }
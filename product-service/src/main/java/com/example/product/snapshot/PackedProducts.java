@@ -0,0 +1,375 @@
+package com.example.product.snapshot;
+
+import com.example.common.id.CompactIds;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, off-heap columnar store of products sorted by stored id. Each
+ * product is a fixed 64-byte row of primitives in one direct buffer; ids
+ * (in their compact binary form), names and descriptions are byte ranges in a
+ * second direct buffer, and categories are indexes into a small interned
+ * table. An open-addressing table of row numbers maps ids to rows. Nothing is
+ * allocated per product on the heap apart from that table.
+ */
+final class PackedProducts {
+
+    static final int ROW_BYTES = 64;
+    private static final int PRICE = 0;
+    private static final int CREATED_AT = 8;
+    private static final int UPDATED_AT = 16;
+    private static final int VERSION = 24;
+    private static final int STOCK = 32;
+    private static final int CATEGORY = 36;
+    private static final int ID_OFFSET = 40;
+    private static final int ID_LENGTH = 44;
+    private static final int NAME_OFFSET = 48;
+    private static final int NAME_LENGTH = 52;
+    private static final int DESCRIPTION_OFFSET = 56;
+    private static final int DESCRIPTION_LENGTH = 60;
+    private static final int UUID_BYTES = 16;
+
+    static final PackedProducts EMPTY = new Builder().build();
+
+    private final ByteBuffer rows;
+    private final ByteBuffer text;
+    private final String[] categories;
+    // Row number plus one per slot, zero for an empty slot
+    private final int[] index;
+    private final int size;
+
+    private PackedProducts(ByteBuffer rows, ByteBuffer text, String[] categories, int[] index, int size) {
+        this.rows = rows;
+        this.text = text;
+        this.categories = categories;
+        this.index = index;
+        this.size = size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long offHeapBytes() {
+        return rows.capacity() + (long) text.capacity();
+    }
+
+    // Row number of the id, or -1
+    int find(byte[] key) {
+        int mask = index.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int entry = index[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            if (compare(entry - 1, key) == 0) {
+                return entry - 1;
+            }
+        }
+    }
+
+    // First row whose id sorts after the key
+    int firstAfter(byte[] key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(middle, key) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Unsigned bytewise comparison of the row's stored id with the key, the order of the id column
+    int compare(int row, byte[] key) {
+        int offset = rows.getInt(row * ROW_BYTES + ID_OFFSET);
+        int length = rows.getInt(row * ROW_BYTES + ID_LENGTH);
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int difference = (text.get(offset + i) & 0xFF) - (key[i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - key.length;
+    }
+
+    ProductView view(int row) {
+        return new View(row);
+    }
+
+    // Absolute bulk transfers without touching the shared buffers' positions; the JDK only has them from 13 and 16
+    private static void read(ByteBuffer source, int offset, byte[] target) {
+        ByteBuffer view = source.duplicate();
+        view.position(offset);
+        view.get(target);
+    }
+
+    private static void copyBytes(ByteBuffer source, int offset, ByteBuffer target, int at, int length) {
+        ByteBuffer from = source.duplicate();
+        from.position(offset);
+        from.limit(offset + length);
+        ByteBuffer to = target.duplicate();
+        to.position(at);
+        to.put(from);
+    }
+
+    private static int hash(byte[] key) {
+        int hash = 1;
+        for (byte b : key) {
+            hash = 31 * hash + b;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private final class View implements ProductView {
+
+        private final int base;
+
+        View(int row) {
+            this.base = row * ROW_BYTES;
+        }
+
+        @Override
+        public String id() {
+            return CompactIds.decode(bytes(ID_OFFSET, ID_LENGTH));
+        }
+
+        @Override
+        public String name() {
+            return string(NAME_OFFSET, NAME_LENGTH);
+        }
+
+        @Override
+        public String description() {
+            return string(DESCRIPTION_OFFSET, DESCRIPTION_LENGTH);
+        }
+
+        @Override
+        public String category() {
+            int category = rows.getInt(base + CATEGORY);
+            return category < 0 ? null : categories[category];
+        }
+
+        @Override
+        public long priceCents() {
+            return rows.getLong(base + PRICE);
+        }
+
+        @Override
+        public int stockQuantity() {
+            return rows.getInt(base + STOCK);
+        }
+
+        @Override
+        public long createdAtMicros() {
+            return rows.getLong(base + CREATED_AT);
+        }
+
+        @Override
+        public long updatedAtMicros() {
+            return rows.getLong(base + UPDATED_AT);
+        }
+
+        @Override
+        public long version() {
+            return rows.getLong(base + VERSION);
+        }
+
+        @Override
+        public void writeId(JsonGenerator generator, SnapshotText text) throws IOException {
+            int offset = rows.getInt(base + ID_OFFSET);
+            if (rows.getInt(base + ID_LENGTH) == UUID_BYTES) {
+                text.writeUuid(generator, PackedProducts.this.text.getLong(offset),
+                        PackedProducts.this.text.getLong(offset + 8));
+            } else {
+                generator.writeString(id());
+            }
+        }
+
+        @Override
+        public void writeName(JsonGenerator generator, SnapshotText text) throws IOException {
+            writeText(generator, text, NAME_OFFSET, NAME_LENGTH);
+        }
+
+        @Override
+        public void writeDescription(JsonGenerator generator, SnapshotText text) throws IOException {
+            writeText(generator, text, DESCRIPTION_OFFSET, DESCRIPTION_LENGTH);
+        }
+
+        private void writeText(JsonGenerator generator, SnapshotText text, int offsetField, int lengthField)
+                throws IOException {
+            int length = rows.getInt(base + lengthField);
+            if (length < 0) {
+                generator.writeNull();
+            } else {
+                text.writeUtf8(generator, PackedProducts.this.text, rows.getInt(base + offsetField), length);
+            }
+        }
+
+        private String string(int offsetField, int lengthField) {
+            byte[] bytes = bytes(offsetField, lengthField);
+            return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private byte[] bytes(int offsetField, int lengthField) {
+            int length = rows.getInt(base + lengthField);
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            read(text, rows.getInt(base + offsetField), bytes);
+            return bytes;
+        }
+    }
+
+    /**
+     * Appends products in ascending id order, growing its direct buffers by
+     * doubling. Rows can be copied from another {@link PackedProducts} without
+     * decoding their text.
+     */
+    static final class Builder {
+
+        private ByteBuffer rows = ByteBuffer.allocateDirect(ROW_BYTES * 1024);
+        private ByteBuffer text = ByteBuffer.allocateDirect(64 * 1024);
+        private final Map<String, Integer> categoryIndex = new HashMap<>();
+        private final List<String> categories = new ArrayList<>();
+        private byte[] lastKey;
+        private int size;
+
+        void add(ProductRow row) {
+            checkOrder(row.key);
+            int base = nextRow();
+            rows.putLong(base + PRICE, row.priceCents());
+            rows.putLong(base + CREATED_AT, row.createdAtMicros());
+            rows.putLong(base + UPDATED_AT, row.updatedAtMicros());
+            rows.putLong(base + VERSION, row.version());
+            rows.putInt(base + STOCK, row.stockQuantity());
+            rows.putInt(base + CATEGORY, categoryIndex(row.category()));
+            putText(base + ID_OFFSET, base + ID_LENGTH, row.key);
+            putText(base + NAME_OFFSET, base + NAME_LENGTH,
+                    row.name() == null ? null : row.name().getBytes(StandardCharsets.UTF_8));
+            putText(base + DESCRIPTION_OFFSET, base + DESCRIPTION_LENGTH,
+                    row.description() == null ? null : row.description().getBytes(StandardCharsets.UTF_8));
+        }
+
+        void copy(PackedProducts from, int row) {
+            int source = row * ROW_BYTES;
+            byte[] key = new byte[from.rows.getInt(source + ID_LENGTH)];
+            read(from.text, from.rows.getInt(source + ID_OFFSET), key);
+            checkOrder(key);
+            int base = nextRow();
+            copyBytes(from.rows, source, rows, base, ROW_BYTES);
+            int category = from.rows.getInt(source + CATEGORY);
+            rows.putInt(base + CATEGORY, category < 0 ? -1 : categoryIndex(from.categories[category]));
+            putText(base + ID_OFFSET, base + ID_LENGTH, key);
+            copyText(from, source, base, NAME_OFFSET, NAME_LENGTH);
+            copyText(from, source, base, DESCRIPTION_OFFSET, DESCRIPTION_LENGTH);
+        }
+
+        PackedProducts build() {
+            int capacity = Integer.highestOneBit(Math.max(2, size) * 2 - 1) << 1;
+            int[] index = new int[capacity];
+            int mask = capacity - 1;
+            byte[] key = new byte[0];
+            for (int row = 0; row < size; row++) {
+                int length = rows.getInt(row * ROW_BYTES + ID_LENGTH);
+                if (key.length != length) {
+                    key = new byte[length];
+                }
+                read(text, rows.getInt(row * ROW_BYTES + ID_OFFSET), key);
+                int slot = hash(key) & mask;
+                while (index[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                index[slot] = row + 1;
+            }
+            return new PackedProducts(rows, text, categories.toArray(new String[0]), index, size);
+        }
+
+        private void checkOrder(byte[] key) {
+            if (lastKey != null && Arrays.compareUnsigned(lastKey, key) >= 0) {
+                throw new IllegalArgumentException("Products must be added in ascending, unique id order");
+            }
+            lastKey = key;
+        }
+
+        private int nextRow() {
+            int base = size * ROW_BYTES;
+            if (base + ROW_BYTES > rows.capacity()) {
+                rows = grow(rows, base + ROW_BYTES);
+            }
+            size++;
+            return base;
+        }
+
+        private int categoryIndex(String category) {
+            if (category == null) {
+                return -1;
+            }
+            return categoryIndex.computeIfAbsent(category, key -> {
+                categories.add(key.intern());
+                return categories.size() - 1;
+            });
+        }
+
+        private void putText(int offsetField, int lengthField, byte[] bytes) {
+            if (bytes == null) {
+                rows.putInt(offsetField, 0);
+                rows.putInt(lengthField, -1);
+                return;
+            }
+            int offset = reserveText(bytes.length);
+            ByteBuffer target = text.duplicate();
+            target.position(offset);
+            target.put(bytes);
+            rows.putInt(offsetField, offset);
+            rows.putInt(lengthField, bytes.length);
+        }
+
+        private void copyText(PackedProducts from, int source, int base, int offsetField, int lengthField) {
+            int length = from.rows.getInt(source + lengthField);
+            if (length < 0) {
+                rows.putInt(base + offsetField, 0);
+                rows.putInt(base + lengthField, -1);
+                return;
+            }
+            int offset = reserveText(length);
+            copyBytes(from.text, from.rows.getInt(source + offsetField), text, offset, length);
+            rows.putInt(base + offsetField, offset);
+            rows.putInt(base + lengthField, length);
+        }
+
+        // Text is appended at the buffer's position
+        private int reserveText(int length) {
+            if (text.position() + length > text.capacity()) {
+                text = grow(text, text.position() + length);
+            }
+            int offset = text.position();
+            text.position(offset + length);
+            return offset;
+        }
+
+        private static ByteBuffer grow(ByteBuffer buffer, int required) {
+            long capacity = Math.max((long) buffer.capacity() * 2, required);
+            if (capacity > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Product snapshot exceeds 2 GB");
+            }
+            ByteBuffer grown = ByteBuffer.allocateDirect((int) capacity);
+            copyBytes(buffer, 0, grown, 0, buffer.capacity());
+            grown.position(buffer.position());
+            return grown;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.product.snapshot;
+
+import com.example.common.id.CompactIds;
+import com.example.product.entity.Product;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+// A product changed since the packed base was built, held on heap until the next compaction
+final class ProductRow implements ProductView {
+
+    final byte[] key;
+    private final String id;
+    private final String name;
+    private final String description;
+    private final String category;
+    private final long priceCents;
+    private final int stockQuantity;
+    private final long createdAtMicros;
+    private final long updatedAtMicros;
+    private final long version;
+
+    ProductRow(Product product, String category) {
+        this.key = CompactIds.encode(product.getId());
+        this.id = product.getId();
+        this.name = product.getName();
+        this.description = product.getDescription();
+        this.category = category;
+        this.priceCents = SnapshotText.toCents(product.getPrice());
+        this.stockQuantity = product.getStockQuantity() == null ? NO_INT : product.getStockQuantity();
+        this.createdAtMicros = SnapshotText.toMicros(product.getCreatedAt());
+        this.updatedAtMicros = SnapshotText.toMicros(product.getUpdatedAt());
+        this.version = product.getVersion() == null ? NO_VALUE : product.getVersion();
+    }
+
+    // A tombstone: the product was deleted since the base was built
+    ProductRow(byte[] key) {
+        this.key = key;
+        this.id = null;
+        this.name = null;
+        this.description = null;
+        this.category = null;
+        this.priceCents = NO_VALUE;
+        this.stockQuantity = NO_INT;
+        this.createdAtMicros = NO_VALUE;
+        this.updatedAtMicros = NO_VALUE;
+        this.version = NO_VALUE;
+    }
+
+    boolean removed() {
+        return id == null;
+    }
+
+    @Override
+    public String id() {
+        return id;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public String description() {
+        return description;
+    }
+
+    @Override
+    public String category() {
+        return category;
+    }
+
+    @Override
+    public long priceCents() {
+        return priceCents;
+    }
+
+    @Override
+    public int stockQuantity() {
+        return stockQuantity;
+    }
+
+    @Override
+    public long createdAtMicros() {
+        return createdAtMicros;
+    }
+
+    @Override
+    public long updatedAtMicros() {
+        return updatedAtMicros;
+    }
+
+    @Override
+    public long version() {
+        return version;
+    }
+
+    @Override
+    public void writeId(JsonGenerator generator, SnapshotText text) throws IOException {
+        generator.writeString(id);
+    }
+
+    @Override
+    public void writeName(JsonGenerator generator, SnapshotText text) throws IOException {
+        generator.writeString(name);
+    }
+
+    @Override
+    public void writeDescription(JsonGenerator generator, SnapshotText text) throws IOException {
+        generator.writeString(description);
+    }
+}
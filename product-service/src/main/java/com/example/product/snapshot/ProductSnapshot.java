@@ -0,0 +1,260 @@
+package com.example.product.snapshot;
+
+import com.example.common.id.CompactIds;
+import com.example.product.entity.Product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Read-only copy of the catalog for serving reads without entities. The bulk
+ * of it is an immutable {@link PackedProducts} base held off heap; products
+ * written since the base was built sit in a small on-heap overlay, sorted the
+ * same way, and are folded into a fresh base once the overlay grows past a
+ * sixteenth of it. Readers take the current base and overlay from one volatile
+ * field and never lock; writers are serialized.
+ */
+public class ProductSnapshot {
+
+    private static final int MIN_COMPACTION_THRESHOLD = 1024;
+    private static final int BASE_TO_OVERLAY_RATIO = 16;
+
+    private static final class State {
+        final PackedProducts base;
+        final ConcurrentSkipListMap<byte[], ProductRow> overlay = new ConcurrentSkipListMap<>(Arrays::compareUnsigned);
+
+        State(PackedProducts base) {
+            this.base = base;
+        }
+    }
+
+    private final Map<String, String> categories = new ConcurrentHashMap<>();
+    // Held from beginRebuild until the rebuild is closed
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile State state = new State(PackedProducts.EMPTY);
+    private volatile int size;
+    private volatile boolean ready;
+    // Writes made while a rebuild reads the table, replayed onto the rebuilt base
+    private List<Consumer<ProductSnapshot>> pendingWrites;
+
+    public ProductView find(String id) {
+        return current(state, CompactIds.encode(id));
+    }
+
+    // Up to limit products after the given id, in the same order as the id column
+    public List<ProductView> page(String after, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        State current = state;
+        PackedProducts base = current.base;
+        Iterator<ProductRow> changes;
+        int row;
+        if (after == null) {
+            changes = current.overlay.values().iterator();
+            row = 0;
+        } else {
+            byte[] key = CompactIds.encode(after);
+            changes = current.overlay.tailMap(key, false).values().iterator();
+            row = base.firstAfter(key);
+        }
+        List<ProductView> page = new ArrayList<>(Math.min(limit, size + 1));
+        ProductRow change = changes.hasNext() ? changes.next() : null;
+        while (page.size() < limit && (row < base.size() || change != null)) {
+            int order = change == null ? -1 : row < base.size() ? base.compare(row, change.key) : 1;
+            if (order < 0) {
+                page.add(base.view(row++));
+                continue;
+            }
+            if (order == 0) {
+                row++;
+            }
+            if (!change.removed()) {
+                page.add(change);
+            }
+            change = changes.hasNext() ? changes.next() : null;
+        }
+        return page;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long offHeapBytes() {
+        return state.base.offHeapBytes();
+    }
+
+    // False until the first rebuild completes
+    public boolean ready() {
+        return ready;
+    }
+
+    /**
+     * Applies a committed product. A copy older than the one held, by version,
+     * is ignored, so events delivered out of order cannot roll a product back.
+     */
+    public synchronized void put(Product product) {
+        if (pendingWrites != null) {
+            pendingWrites.add(snapshot -> snapshot.put(product));
+        }
+        ProductRow row = new ProductRow(product, intern(product.getCategory()));
+        State current = state;
+        ProductView existing = current(current, row.key);
+        if (existing != null && existing.version() != ProductView.NO_VALUE
+                && row.version() != ProductView.NO_VALUE && row.version() < existing.version()) {
+            return;
+        }
+        current.overlay.put(row.key, row);
+        if (existing == null) {
+            size++;
+        }
+        compactIfNeeded(current);
+    }
+
+    public synchronized void remove(String id) {
+        if (pendingWrites != null) {
+            pendingWrites.add(snapshot -> snapshot.remove(id));
+        }
+        byte[] key = CompactIds.encode(id);
+        State current = state;
+        if (current(current, key) == null) {
+            return;
+        }
+        if (current.base.find(key) < 0) {
+            current.overlay.remove(key);
+        } else {
+            current.overlay.put(key, new ProductRow(key));
+        }
+        size--;
+        compactIfNeeded(current);
+    }
+
+    /**
+     * Replaces the contents with the given products, which must come in id
+     * column order ({@code order by p.id}). Only safe for products read after
+     * the call; a caller reading from the database should use
+     * {@link #beginRebuild()} before running its query.
+     */
+    public void rebuild(Stream<Product> products) {
+        try (Rebuild rebuild = beginRebuild()) {
+            rebuild.build(products);
+        }
+    }
+
+    /**
+     * Starts capturing writes for a rebuild. Call it before the query that
+     * reads the products, so a write committed while the query is opened is
+     * replayed onto the new base rather than lost, then pass the products to
+     * {@link Rebuild#build}. Rebuilds run one at a time.
+     */
+    public Rebuild beginRebuild() {
+        rebuildLock.lock();
+        synchronized (this) {
+            pendingWrites = new ArrayList<>();
+        }
+        return new Rebuild();
+    }
+
+    public final class Rebuild implements AutoCloseable {
+
+        private boolean closed;
+
+        private Rebuild() {
+        }
+
+        /**
+         * Builds the new base from the products, in id column order. Reads keep
+         * using the previous contents until it is complete, and writes made
+         * since {@link #beginRebuild()} are applied to it afterwards.
+         */
+        public void build(Stream<Product> products) {
+            if (closed) {
+                throw new IllegalStateException("Rebuild is closed");
+            }
+            PackedProducts.Builder builder = new PackedProducts.Builder();
+            int[] count = new int[1];
+            products.forEach(product -> {
+                builder.add(new ProductRow(product, intern(product.getCategory())));
+                count[0]++;
+            });
+            PackedProducts base = builder.build();
+            synchronized (ProductSnapshot.this) {
+                List<Consumer<ProductSnapshot>> writes = pendingWrites;
+                pendingWrites = null;
+                state = new State(base);
+                size = count[0];
+                writes.forEach(write -> write.accept(ProductSnapshot.this));
+                ready = true;
+            }
+        }
+
+        // Stops capturing writes, whether or not the build completed
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            synchronized (ProductSnapshot.this) {
+                pendingWrites = null;
+            }
+            rebuildLock.unlock();
+        }
+    }
+
+    // Folds the overlay into a new base
+    synchronized void compact() {
+        State current = state;
+        PackedProducts base = current.base;
+        PackedProducts.Builder builder = new PackedProducts.Builder();
+        int row = 0;
+        for (ProductRow change : current.overlay.values()) {
+            while (row < base.size() && base.compare(row, change.key) < 0) {
+                builder.copy(base, row++);
+            }
+            if (row < base.size() && base.compare(row, change.key) == 0) {
+                row++;
+            }
+            if (!change.removed()) {
+                builder.add(change);
+            }
+        }
+        while (row < base.size()) {
+            builder.copy(base, row++);
+        }
+        state = new State(builder.build());
+    }
+
+    int overlaySize() {
+        return state.overlay.size();
+    }
+
+    private void compactIfNeeded(State current) {
+        if (current.overlay.size() > Math.max(MIN_COMPACTION_THRESHOLD, current.base.size() / BASE_TO_OVERLAY_RATIO)) {
+            compact();
+        }
+    }
+
+    private static ProductView current(State state, byte[] key) {
+        ProductRow changed = state.overlay.get(key);
+        if (changed != null) {
+            return changed.removed() ? null : changed;
+        }
+        int row = state.base.find(key);
+        return row < 0 ? null : state.base.view(row);
+    }
+
+    private String intern(String category) {
+        return category == null ? null : categories.computeIfAbsent(category, key -> key);
+    }
+}
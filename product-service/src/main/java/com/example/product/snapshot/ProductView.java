@@ -0,0 +1,62 @@
+package com.example.product.snapshot;
+
+import com.example.api.dto.ProductDto;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * One product as held by a {@link ProductSnapshot}. Serializes to the same
+ * JSON as {@link ProductDto}, writing straight from the packed columns rather
+ * than through a DTO, {@code BigDecimal} and {@code LocalDateTime} per read.
+ * Missing values are reported as {@link #NO_VALUE} ({@link #NO_INT} for stock).
+ */
+@JsonSerialize(using = ProductViewSerializer.class)
+public interface ProductView {
+
+    long NO_VALUE = Long.MIN_VALUE;
+    int NO_INT = Integer.MIN_VALUE;
+
+    String id();
+
+    String name();
+
+    String description();
+
+    // Interned, so reading it never allocates
+    String category();
+
+    // Price in hundredths
+    long priceCents();
+
+    int stockQuantity();
+
+    // UTC-less local date-times as microseconds since 1970-01-01T00:00
+    long createdAtMicros();
+
+    long updatedAtMicros();
+
+    long version();
+
+    void writeId(JsonGenerator generator, SnapshotText text) throws IOException;
+
+    void writeName(JsonGenerator generator, SnapshotText text) throws IOException;
+
+    void writeDescription(JsonGenerator generator, SnapshotText text) throws IOException;
+
+    default ProductDto toDto() {
+        return ProductDto.builder()
+                .id(id())
+                .name(name())
+                .description(description())
+                .price(priceCents() == NO_VALUE ? null : BigDecimal.valueOf(priceCents(), SnapshotText.PRICE_SCALE))
+                .stockQuantity(stockQuantity() == NO_INT ? null : stockQuantity())
+                .category(category())
+                .createdAt(SnapshotText.toLocalDateTime(createdAtMicros()))
+                .updatedAt(SnapshotText.toLocalDateTime(updatedAtMicros()))
+                .version(version() == NO_VALUE ? null : version())
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.product.snapshot;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link ProductView} field by field in {@code ProductDto} order.
+ * Text JSON with ISO dates is written from reusable per-thread buffers; other
+ * formats and date settings go through the DTO so they match exactly.
+ */
+public class ProductViewSerializer extends StdSerializer<ProductView> {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+    private static final SerializedString PRICE = new SerializedString("price");
+    private static final SerializedString STOCK_QUANTITY = new SerializedString("stockQuantity");
+    private static final SerializedString CATEGORY = new SerializedString("category");
+    private static final SerializedString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializedString UPDATED_AT = new SerializedString("updatedAt");
+    private static final SerializedString VERSION = new SerializedString("version");
+
+    public ProductViewSerializer() {
+        super(ProductView.class);
+    }
+
+    @Override
+    public void serialize(ProductView view, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        if (!generator.canWriteFormattedNumbers() || provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            provider.defaultSerializeValue(view.toDto(), generator);
+            return;
+        }
+        SnapshotText text = SnapshotText.current();
+        generator.writeStartObject(view);
+        generator.writeFieldName(ID);
+        view.writeId(generator, text);
+        generator.writeFieldName(NAME);
+        view.writeName(generator, text);
+        generator.writeFieldName(DESCRIPTION);
+        view.writeDescription(generator, text);
+        generator.writeFieldName(PRICE);
+        if (view.priceCents() == ProductView.NO_VALUE) {
+            generator.writeNull();
+        } else {
+            text.writePrice(generator, view.priceCents());
+        }
+        generator.writeFieldName(STOCK_QUANTITY);
+        if (view.stockQuantity() == ProductView.NO_INT) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(view.stockQuantity());
+        }
+        generator.writeFieldName(CATEGORY);
+        generator.writeString(view.category());
+        generator.writeFieldName(CREATED_AT);
+        text.writeDateTime(generator, view.createdAtMicros());
+        generator.writeFieldName(UPDATED_AT);
+        text.writeDateTime(generator, view.updatedAtMicros());
+        generator.writeFieldName(VERSION);
+        if (view.version() == ProductView.NO_VALUE) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(view.version());
+        }
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.product.snapshot;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Per-thread character buffer used to write snapshot values as JSON without
+ * intermediate objects, plus conversions between the packed representation
+ * and the entity types. Dates are written as {@code ISO_LOCAL_DATE_TIME}, the
+ * format Jackson uses for {@code LocalDateTime}.
+ */
+public final class SnapshotText {
+
+    public static final int PRICE_SCALE = 2;
+
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+    private static final long MICROS_PER_DAY = 86_400L * MICROS_PER_SECOND;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final ThreadLocal<SnapshotText> CURRENT = ThreadLocal.withInitial(SnapshotText::new);
+
+    private char[] chars = new char[64];
+
+    private SnapshotText() {
+    }
+
+    public static SnapshotText current() {
+        return CURRENT.get();
+    }
+
+    // Prices are kept in hundredths, rounded the way a numeric(19,2) column stores them
+    static long toCents(BigDecimal price) {
+        return price == null ? ProductView.NO_VALUE
+                : price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    // Timestamp columns keep microseconds
+    static long toMicros(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return ProductView.NO_VALUE;
+        }
+        LocalDateTime truncated = dateTime.plusNanos(500).truncatedTo(ChronoUnit.MICROS);
+        return truncated.toEpochSecond(ZoneOffset.UTC) * MICROS_PER_SECOND + truncated.getNano() / 1000;
+    }
+
+    static LocalDateTime toLocalDateTime(long micros) {
+        if (micros == ProductView.NO_VALUE) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, MICROS_PER_SECOND),
+                (int) Math.floorMod(micros, MICROS_PER_SECOND) * 1000, ZoneOffset.UTC);
+    }
+
+    void writePrice(JsonGenerator generator, long cents) throws IOException {
+        int length = 0;
+        long magnitude = Math.abs(cents);
+        if (cents < 0) {
+            chars[length++] = '-';
+        }
+        length = appendDigits(magnitude / 100, length);
+        chars[length++] = '.';
+        chars[length++] = (char) ('0' + magnitude / 10 % 10);
+        chars[length++] = (char) ('0' + magnitude % 10);
+        generator.writeNumber(chars, 0, length);
+    }
+
+    void writeDateTime(JsonGenerator generator, long micros) throws IOException {
+        if (micros == ProductView.NO_VALUE) {
+            generator.writeNull();
+            return;
+        }
+        long days = Math.floorDiv(micros, MICROS_PER_DAY);
+        long microOfDay = Math.floorMod(micros, MICROS_PER_DAY);
+        // Days to civil date (proleptic Gregorian), after Howard Hinnant's algorithm
+        long z = days + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        if (year < 0 || year > 9999) {
+            generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(toLocalDateTime(micros)));
+            return;
+        }
+        int length = appendPadded(year, 4, 0);
+        chars[length++] = '-';
+        length = appendPadded(month, 2, length);
+        chars[length++] = '-';
+        length = appendPadded(day, 2, length);
+        chars[length++] = 'T';
+        long seconds = microOfDay / MICROS_PER_SECOND;
+        length = appendPadded(seconds / 3600, 2, length);
+        chars[length++] = ':';
+        length = appendPadded(seconds / 60 % 60, 2, length);
+        chars[length++] = ':';
+        length = appendPadded(seconds % 60, 2, length);
+        long fraction = microOfDay % MICROS_PER_SECOND;
+        if (fraction != 0) {
+            chars[length++] = '.';
+            int digits = 6;
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                digits--;
+            }
+            length = appendPadded(fraction, digits, length);
+        }
+        generator.writeString(chars, 0, length);
+    }
+
+    void writeUuid(JsonGenerator generator, long mostSignificant, long leastSignificant) throws IOException {
+        appendHex(mostSignificant >>> 32, 8, 0);
+        chars[8] = '-';
+        appendHex(mostSignificant >>> 16, 4, 9);
+        chars[13] = '-';
+        appendHex(mostSignificant, 4, 14);
+        chars[18] = '-';
+        appendHex(leastSignificant >>> 48, 4, 19);
+        chars[23] = '-';
+        appendHex(leastSignificant, 12, 24);
+        generator.writeString(chars, 0, 36);
+    }
+
+    // Decodes UTF-8 written by String.getBytes, so every sequence is well formed
+    void writeUtf8(JsonGenerator generator, ByteBuffer bytes, int offset, int length) throws IOException {
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        int count = 0;
+        int end = offset + length;
+        for (int i = offset; i < end; ) {
+            int b = bytes.get(i++) & 0xFF;
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+            } else if (b < 0xE0) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | (bytes.get(i++) & 0x3F));
+            } else if (b < 0xF0) {
+                chars[count++] = (char) (((b & 0x0F) << 12) | ((bytes.get(i++) & 0x3F) << 6) | (bytes.get(i++) & 0x3F));
+            } else {
+                int codePoint = ((b & 0x07) << 18) | ((bytes.get(i++) & 0x3F) << 12)
+                        | ((bytes.get(i++) & 0x3F) << 6) | (bytes.get(i++) & 0x3F);
+                chars[count++] = Character.highSurrogate(codePoint);
+                chars[count++] = Character.lowSurrogate(codePoint);
+            }
+        }
+        generator.writeString(chars, 0, count);
+    }
+
+    private int appendDigits(long value, int at) {
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        return appendPadded(value, digits, at);
+    }
+
+    private int appendPadded(long value, int digits, int at) {
+        for (int i = at + digits - 1; i >= at; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return at + digits;
+    }
+
+    private void appendHex(long value, int digits, int at) {
+        for (int i = at + digits - 1; i >= at; i--) {
+            chars[i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
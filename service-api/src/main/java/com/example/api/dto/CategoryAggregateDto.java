@@ -0,0 +1,25 @@
+package com.example.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryAggregateDto {
+    private String category;
+    private long productCount;
+    private long totalStock;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private BigDecimal avgPrice;
+    // Sum of price times stock; only reported by the full-table analytics scan
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal stockValue;
+}
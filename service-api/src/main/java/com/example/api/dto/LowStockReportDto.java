@@ -0,0 +1,22 @@
+package com.example.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+// Products at or below a stock threshold: counts per category and the lowest-stocked products
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LowStockReportDto {
+    private int threshold;
+    private long productCount;
+    private Map<String, Long> countByCategory;
+    // Ordered by stock quantity, then id
+    private List<ProductDto> products;
+}
@@ -0,0 +1,35 @@
+package com.example.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Product counts per fixed-width price bucket; buckets without products are omitted
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceHistogramDto {
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        // Inclusive lower and exclusive upper price
+        private BigDecimal lower;
+        private BigDecimal upper;
+        private long productCount;
+        private long totalStock;
+    }
+
+    // Null when the histogram covers every category
+    private String category;
+    private BigDecimal bucketWidth;
+    private long productCount;
+    private List<Bucket> buckets;
+}
@@ -0,0 +1,25 @@
+package com.example.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchOperation {
+
+    public enum Action { UPSERT, DELETE }
+
+    @NotNull(message = "Action is required")
+    private Action action;
+    
+    // Target of a DELETE; UPSERTs take their id from the product, generating one when absent
+    private String id;
+    
+    private ProductDto product;
+}
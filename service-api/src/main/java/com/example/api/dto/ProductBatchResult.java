@@ -0,0 +1,21 @@
+package com.example.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchResult {
+
+    public enum Status { CREATED, UPDATED, DELETED, NOT_FOUND, FAILED }
+
+    // Position of the operation in the submitted batch
+    private int index;
+    private String id;
+    private Status status;
+    private String error;
+}
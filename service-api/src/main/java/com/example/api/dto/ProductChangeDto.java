@@ -0,0 +1,35 @@
+package com.example.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One entry of the product change feed. Whole-entity writes carry the resulting product;
+// single-field writes carry only the changed price, stock quantity or stock delta. A GAP
+// entry means changes were lost before it and the consumer must rescan the products.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductChangeDto {
+
+    public enum Type { CREATED, UPDATED, DELETED, GAP }
+
+    // Position in the change log; a consumer resumes from the last offset it processed plus one
+    private long offset;
+    private Type type;
+    private String productId;
+    private LocalDateTime changedAt;
+    private ProductDto product;
+    private BigDecimal price;
+    private Integer stockQuantity;
+    private Integer stockDelta;
+    // GAP only: changes lost since the previous gap
+    private Long dropped;
+}
@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -28,10 +29,13 @@ public class ProductDto {
     private BigDecimal price;
     
     @NotNull(message = "Stock quantity is required")
-    @Positive(message = "Stock quantity must be positive")
+    @PositiveOrZero(message = "Stock quantity must not be negative")
     private Integer stockQuantity;
     
     private String category;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    
+    // Version the client last saw; when sent on an update, a mismatch is rejected
+    private Long version;
 }
@@ -0,0 +1,18 @@
+package com.example.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStockChange {
+    // Units to reserve or release (positive), or a signed delta for an adjustment
+    @NotNull(message = "Quantity is required")
+    private Integer quantity;
+}
@@ -0,0 +1,21 @@
+package com.example.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.PositiveOrZero;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStockUpdate {
+    @NotNull(message = "Stock quantity is required")
+    @PositiveOrZero(message = "Stock quantity must not be negative")
+    private Integer stockQuantity;
+    
+    private Long version;
+}
@@ -0,0 +1,46 @@
+package com.example.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Progress of a background catalog export or import
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductTransferJobDto {
+
+    public enum Type { EXPORT, IMPORT }
+
+    public enum Format { NDJSON, CSV }
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private String id;
+    private Type type;
+    private Format format;
+    private Status status;
+    // Rows exported or records read so far
+    private long processed;
+    private long created;
+    private long updated;
+    private long failed;
+    // Rows to export, counted when the job starts
+    private Long totalRows;
+    // File bytes written by an export, or read by an import
+    private long bytes;
+    private Long totalBytes;
+    private double rowsPerSecond;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    // The first few per-record failures, or why the job failed
+    private List<String> errors;
+}
@@ -0,0 +1,23 @@
+package com.example.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.validation.constraints.NotBlank;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserCredentials {
+    // Username or email
+    @NotBlank(message = "Login is required")
+    private String login;
+
+    @NotBlank(message = "Password is required")
+    @ToString.Exclude
+    private String password;
+}
@@ -0,0 +1,163 @@
+package com.example.user.credential;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Hashes and verifies passwords with bcrypt on its own small pool of threads,
+ * so a burst of logins or registrations costs at most that many cores and
+ * never holds a request thread while it waits. Work beyond the pool waits in a
+ * bounded queue; past that, {@link #hash} and {@link #verify} throw
+ * {@link RejectedExecutionException} straight away and the caller should shed
+ * the request.
+ * <p>
+ * Stored values that are not bcrypt hashes are taken to be plaintext written
+ * before passwords were hashed. They still verify, compared in constant time,
+ * and are reported as {@link Verification#OUTDATED} so the caller can replace
+ * them, as are hashes made with a lower cost than the current one.
+ */
+public class CredentialService {
+
+    public enum Verification {
+        INVALID,
+        VALID,
+        // Valid, but stored as plaintext or with a lower cost; should be rehashed
+        OUTDATED;
+
+        public boolean valid() {
+            return this != INVALID;
+        }
+    }
+
+    // bcrypt's own limits on the cost (log2 of the rounds)
+    public static final int MIN_COST = 4;
+    public static final int MAX_COST = 31;
+    private static final Pattern BCRYPT_HASH = Pattern.compile("\\A\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}\\z");
+
+    private final BCryptPasswordEncoder encoder;
+    private final int cost;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong rejected = new AtomicLong();
+    // Checked when there is no stored hash, so unknown users take as long as known ones
+    private final String absentHash;
+
+    public CredentialService(int cost, int threads, int queueCapacity) {
+        if (cost < MIN_COST || cost > MAX_COST) {
+            throw new IllegalArgumentException("bcrypt cost must be between " + MIN_COST + " and " + MAX_COST);
+        }
+        this.cost = cost;
+        this.encoder = new BCryptPasswordEncoder(cost);
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "credential-hasher-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.absentHash = encoder.encode(UUID.randomUUID().toString());
+    }
+
+    /**
+     * The highest cost from {@code minCost} up to {@code maxCost} whose hash
+     * takes no longer than the budget on this machine, measured once per cost.
+     * Each step doubles the time, so calibrating takes about one budget.
+     * Returns {@code minCost} even when that is already over the budget.
+     */
+    public static int calibrate(Duration budget, int minCost, int maxCost) {
+        String sample = "Calibrati0n-" + UUID.randomUUID();
+        for (int i = 0; i < 5; i++) {
+            BCrypt.hashpw(sample, BCrypt.gensalt(MIN_COST));
+        }
+        int chosen = minCost;
+        for (int candidate = minCost; candidate <= maxCost; candidate++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw(sample, BCrypt.gensalt(candidate));
+            long elapsed = System.nanoTime() - start;
+            if (elapsed > budget.toNanos()) {
+                break;
+            }
+            chosen = candidate;
+            if (elapsed * 2 > budget.toNanos()) {
+                break;
+            }
+        }
+        return chosen;
+    }
+
+    public CompletableFuture<String> hash(String password) {
+        return submit(() -> encoder.encode(password));
+    }
+
+    // Costs one hash whatever is stored, including nothing
+    public CompletableFuture<Verification> verify(String password, String stored) {
+        return submit(() -> check(password, stored));
+    }
+
+    public int cost() {
+        return cost;
+    }
+
+    public int queued() {
+        return executor.getQueue().size();
+    }
+
+    public int active() {
+        return executor.getActiveCount();
+    }
+
+    public long rejected() {
+        return rejected.get();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Verification check(String password, String stored) {
+        if (stored == null) {
+            encoder.matches(password, absentHash);
+            return Verification.INVALID;
+        }
+        if (!BCRYPT_HASH.matcher(stored).matches()) {
+            encoder.matches(password, absentHash);
+            boolean matches = MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+                    stored.getBytes(StandardCharsets.UTF_8));
+            return matches ? Verification.OUTDATED : Verification.INVALID;
+        }
+        if (!encoder.matches(password, stored)) {
+            return Verification.INVALID;
+        }
+        return encoder.upgradeEncoding(stored) ? Verification.OUTDATED : Verification.VALID;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    result.complete(work.get());
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw e;
+        }
+        return result;
+    }
+}
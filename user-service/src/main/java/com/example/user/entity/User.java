@@ -1,9 +1,11 @@
 package com.example.user.entity;
 
+import com.example.common.id.CompactIdType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Type;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -19,7 +21,9 @@ import java.time.LocalDateTime;
 @Table(name = "users")
 public class User {
     
+    // Stored as 16 bytes when the id is a UUID
     @Id
+    @Type(type = CompactIdType.NAME)
     private String id;
     
     @Column(unique = true, nullable = false)
@@ -0,0 +1,27 @@
+package com.example.user.mapper;
+
+import com.example.api.dto.UserDto;
+import com.example.user.entity.User;
+import org.mapstruct.Builder;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.factory.Mappers;
+
+/**
+ * Compile-time generated {@link User} / {@link UserDto} mapping with direct
+ * setter copies. The stored password is never copied into a DTO.
+ */
+@Mapper(builder = @Builder(disableBuilder = true))
+public interface UserMapper {
+
+    UserMapper INSTANCE = Mappers.getMapper(UserMapper.class);
+
+    @Mapping(target = "password", ignore = true)
+    UserDto toDto(User user);
+
+    // Identity and timestamps are assigned by the caller, never taken from a client
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    User toEntity(UserDto userDto);
+}
@@ -2,7 +2,11 @@ package com.example.user.repository;
 
 import com.example.user.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -16,4 +20,11 @@ public interface UserRepository extends JpaRepository<User, String> {
     boolean existsByUsername(String username);
     
     boolean existsByEmail(String email);
+
+    // Only while the stored value is still the one that was checked, so a concurrent password change wins
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.password = :replacement where u.id = :id and u.password = :current")
+    int replacePassword(@Param("id") String id, @Param("current") String current,
+                        @Param("replacement") String replacement);
 }
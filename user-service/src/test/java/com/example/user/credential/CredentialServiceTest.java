@@ -0,0 +1,62 @@
+package com.example.user.credential;
+
+import com.example.user.credential.CredentialService.Verification;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CredentialServiceTest {
+
+    @Test
+    void testHashVerifiesAndFlagsOutdatedValues() {
+        CredentialService service = new CredentialService(5, 1, 10);
+        try {
+            String hash = service.hash("Secret123").join();
+            assertTrue(hash.startsWith("$2a$05$"));
+            assertEquals(Verification.VALID, service.verify("Secret123", hash).join());
+            assertEquals(Verification.INVALID, service.verify("Secret124", hash).join());
+            assertEquals(Verification.INVALID, service.verify("Secret123", null).join());
+
+            // Lower cost and plaintext still match, but should be replaced
+            CredentialService cheaper = new CredentialService(4, 1, 1);
+            String weaker = cheaper.hash("Secret123").join();
+            cheaper.shutdown();
+            assertEquals(Verification.OUTDATED, service.verify("Secret123", weaker).join());
+            assertEquals(Verification.OUTDATED, service.verify("Secret123", "Secret123").join());
+            assertEquals(Verification.INVALID, service.verify("Secret123", "Secret12").join());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void testFullQueueRejectsStraightAway() {
+        // Slow enough that the first hash is still running when the third is submitted
+        CredentialService service = new CredentialService(12, 1, 1);
+        try {
+            CompletableFuture<String> running = service.hash("Secret123");
+            CompletableFuture<String> queued = service.hash("Secret123");
+            assertThrows(RejectedExecutionException.class, () -> service.hash("Secret123"));
+            assertEquals(1, service.rejected());
+            assertFalse(queued.isDone());
+            assertTrue(queued.join().startsWith("$2a$12$"));
+            assertTrue(running.isDone());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void testCalibrationStaysWithinBounds() {
+        assertEquals(4, CredentialService.calibrate(Duration.ZERO, 4, 10));
+        int cost = CredentialService.calibrate(Duration.ofMillis(50), 4, 6);
+        assertTrue(cost >= 4 && cost <= 6);
+    }
+}
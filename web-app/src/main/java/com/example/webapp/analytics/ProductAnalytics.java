@@ -0,0 +1,242 @@
+package com.example.webapp.analytics;
+
+import com.example.api.dto.CategoryAggregateDto;
+import com.example.api.dto.LowStockReportDto;
+import com.example.api.dto.PriceHistogramDto;
+import com.example.api.dto.ProductDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Whole-catalog reports computed from the products table by
+ * {@link ProductRangeScanner}. Unlike the incrementally maintained category
+ * aggregates these read the database directly, so they also see rows written
+ * by other instances, at the cost of a full scan per call.
+ */
+@Service
+public class ProductAnalytics {
+
+    private static final int AVERAGE_SCALE = 2;
+    private static final Comparator<String> CATEGORY_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+    private static final Comparator<ProductDto> LOWEST_STOCK_FIRST = Comparator
+            .comparing(ProductDto::getStockQuantity)
+            .thenComparing(ProductDto::getId);
+
+    private final ProductRangeScanner scanner;
+
+    @Autowired
+    public ProductAnalytics(ProductRangeScanner scanner) {
+        this.scanner = scanner;
+    }
+
+    private static final class CategoryTotals {
+        long productCount;
+        long totalStock;
+        long pricedCount;
+        BigDecimal priceSum = BigDecimal.ZERO;
+        BigDecimal minPrice;
+        BigDecimal maxPrice;
+        BigDecimal stockValue = BigDecimal.ZERO;
+
+        void add(BigDecimal price, int stock) {
+            productCount++;
+            totalStock += stock;
+            if (price != null) {
+                pricedCount++;
+                priceSum = priceSum.add(price);
+                minPrice = minPrice == null || price.compareTo(minPrice) < 0 ? price : minPrice;
+                maxPrice = maxPrice == null || price.compareTo(maxPrice) > 0 ? price : maxPrice;
+                stockValue = stockValue.add(price.multiply(BigDecimal.valueOf(stock)));
+            }
+        }
+
+        CategoryTotals merge(CategoryTotals other) {
+            productCount += other.productCount;
+            totalStock += other.totalStock;
+            pricedCount += other.pricedCount;
+            priceSum = priceSum.add(other.priceSum);
+            if (other.minPrice != null && (minPrice == null || other.minPrice.compareTo(minPrice) < 0)) {
+                minPrice = other.minPrice;
+            }
+            if (other.maxPrice != null && (maxPrice == null || other.maxPrice.compareTo(maxPrice) > 0)) {
+                maxPrice = other.maxPrice;
+            }
+            stockValue = stockValue.add(other.stockValue);
+            return this;
+        }
+    }
+
+    // Count, stock, price range and stock value per category; products without a category are grouped under null
+    public List<CategoryAggregateDto> categories() {
+        Map<String, CategoryTotals> totals = scanner.scan("p.category, p.price, p.stockQuantity", null, Collections.emptyMap(),
+                new ProductRangeScanner.Aggregation<Map<String, CategoryTotals>>() {
+                    @Override
+                    public Map<String, CategoryTotals> identity() {
+                        return new HashMap<>();
+                    }
+
+                    @Override
+                    public void accumulate(Map<String, CategoryTotals> partial, Object[] row) {
+                        partial.computeIfAbsent((String) row[0], category -> new CategoryTotals())
+                                .add((BigDecimal) row[1], stock(row[2]));
+                    }
+
+                    @Override
+                    public Map<String, CategoryTotals> combine(Map<String, CategoryTotals> left, Map<String, CategoryTotals> right) {
+                        right.forEach((category, partial) -> left.merge(category, partial, CategoryTotals::merge));
+                        return left;
+                    }
+                });
+        return totals.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(CATEGORY_ORDER))
+                .map(entry -> toDto(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    // Bucket i holds prices in [i * width, (i + 1) * width)
+    public PriceHistogramDto priceHistogram(BigDecimal bucketWidth, String category) {
+        Map<String, Object> parameters = new HashMap<>();
+        String condition = "p.price is not null";
+        if (category != null) {
+            condition += " and p.category = :category";
+            parameters.put("category", category);
+        }
+        Map<Long, long[]> buckets = scanner.scan("p.price, p.stockQuantity", condition, parameters,
+                new ProductRangeScanner.Aggregation<Map<Long, long[]>>() {
+                    @Override
+                    public Map<Long, long[]> identity() {
+                        return new HashMap<>();
+                    }
+
+                    @Override
+                    public void accumulate(Map<Long, long[]> partial, Object[] row) {
+                        long bucket = ((BigDecimal) row[0]).divide(bucketWidth, 0, RoundingMode.FLOOR).longValueExact();
+                        long[] counts = partial.computeIfAbsent(bucket, key -> new long[2]);
+                        counts[0]++;
+                        counts[1] += stock(row[1]);
+                    }
+
+                    @Override
+                    public Map<Long, long[]> combine(Map<Long, long[]> left, Map<Long, long[]> right) {
+                        right.forEach((bucket, counts) -> left.merge(bucket, counts, (a, b) -> {
+                            a[0] += b[0];
+                            a[1] += b[1];
+                            return a;
+                        }));
+                        return left;
+                    }
+                });
+        List<PriceHistogramDto.Bucket> histogram = new ArrayList<>(buckets.size());
+        long productCount = 0;
+        for (Map.Entry<Long, long[]> entry : new TreeMap<>(buckets).entrySet()) {
+            BigDecimal lower = bucketWidth.multiply(BigDecimal.valueOf(entry.getKey()));
+            histogram.add(PriceHistogramDto.Bucket.builder()
+                    .lower(lower)
+                    .upper(lower.add(bucketWidth))
+                    .productCount(entry.getValue()[0])
+                    .totalStock(entry.getValue()[1])
+                    .build());
+            productCount += entry.getValue()[0];
+        }
+        return PriceHistogramDto.builder()
+                .category(category)
+                .bucketWidth(bucketWidth)
+                .productCount(productCount)
+                .buckets(histogram)
+                .build();
+    }
+
+    private static final class LowStock {
+        long productCount;
+        final Map<String, Long> countByCategory = new HashMap<>();
+        // Highest stock on top, so the head is evicted when over the limit
+        final PriorityQueue<ProductDto> lowest = new PriorityQueue<>(LOWEST_STOCK_FIRST.reversed());
+    }
+
+    // Products with stock at or below the threshold, keeping the lowest-stocked up to the limit
+    public LowStockReportDto lowStock(int threshold, int limit) {
+        LowStock report = scanner.scan("p.id, p.name, p.category, p.price, p.stockQuantity",
+                "p.stockQuantity <= :threshold", Collections.singletonMap("threshold", threshold),
+                new ProductRangeScanner.Aggregation<LowStock>() {
+                    @Override
+                    public LowStock identity() {
+                        return new LowStock();
+                    }
+
+                    @Override
+                    public void accumulate(LowStock partial, Object[] row) {
+                        partial.productCount++;
+                        partial.countByCategory.merge((String) row[2], 1L, Long::sum);
+                        offer(partial, ProductDto.builder()
+                                .id((String) row[0])
+                                .name((String) row[1])
+                                .category((String) row[2])
+                                .price((BigDecimal) row[3])
+                                .stockQuantity(stock(row[4]))
+                                .build(), limit);
+                    }
+
+                    @Override
+                    public LowStock combine(LowStock left, LowStock right) {
+                        left.productCount += right.productCount;
+                        right.countByCategory.forEach((category, count) -> left.countByCategory.merge(category, count, Long::sum));
+                        right.lowest.forEach(product -> offer(left, product, limit));
+                        return left;
+                    }
+                });
+        List<ProductDto> products = new ArrayList<>(report.lowest);
+        products.sort(LOWEST_STOCK_FIRST);
+        Map<String, Long> countByCategory = new LinkedHashMap<>();
+        report.countByCategory.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(CATEGORY_ORDER))
+                .forEach(entry -> countByCategory.put(entry.getKey(), entry.getValue()));
+        return LowStockReportDto.builder()
+                .threshold(threshold)
+                .productCount(report.productCount)
+                .countByCategory(countByCategory)
+                .products(products)
+                .build();
+    }
+
+    private static void offer(LowStock partial, ProductDto product, int limit) {
+        if (limit <= 0) {
+            return;
+        }
+        if (partial.lowest.size() < limit) {
+            partial.lowest.add(product);
+        } else if (LOWEST_STOCK_FIRST.compare(product, partial.lowest.peek()) < 0) {
+            partial.lowest.poll();
+            partial.lowest.add(product);
+        }
+    }
+
+    private static int stock(Object value) {
+        return value == null ? 0 : (Integer) value;
+    }
+
+    private static CategoryAggregateDto toDto(String category, CategoryTotals totals) {
+        return CategoryAggregateDto.builder()
+                .category(category)
+                .productCount(totals.productCount)
+                .totalStock(totals.totalStock)
+                .minPrice(totals.minPrice)
+                .maxPrice(totals.maxPrice)
+                .avgPrice(totals.pricedCount == 0 ? null
+                        : totals.priceSum.divide(BigDecimal.valueOf(totals.pricedCount), AVERAGE_SCALE, RoundingMode.HALF_UP))
+                .stockValue(totals.stockValue)
+                .build();
+    }
+}
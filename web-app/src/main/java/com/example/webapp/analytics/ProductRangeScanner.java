@@ -0,0 +1,208 @@
+package com.example.webapp.analytics;
+
+import com.example.common.id.CompactIds;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+/**
+ * Runs an aggregation over the whole products table as parallel range scans.
+ * The id space between the lowest and highest id is cut into equal key ranges
+ * by the leading eight bytes of the stored id, each range is read with its own
+ * forward-only cursor and transaction on a bounded fork/join pool, and partial
+ * results are combined pairwise as the tasks join. There are several ranges
+ * per thread so skewed ranges are evened out by work stealing. Small tables
+ * are scanned as a single range.
+ */
+@Slf4j
+@Component
+public class ProductRangeScanner {
+
+    private static final int FETCH_SIZE = 500;
+
+    // Partial results for one key range, combined into the result for the whole table
+    public interface Aggregation<A> {
+
+        A identity();
+
+        void accumulate(A partial, Object[] row);
+
+        A combine(A left, A right);
+    }
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ForkJoinPool pool;
+    private final int maxPartitions;
+    private final long minPartitionRows;
+
+    @Autowired
+    public ProductRangeScanner(EntityManager entityManager,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.analytics.parallelism:0}") int parallelism,
+                               @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize,
+                               @Value("${app.analytics.partitions-per-thread:4}") int partitionsPerThread,
+                               @Value("${app.analytics.min-partition-rows:10000}") long minPartitionRows) {
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Every running range holds a connection, so stay below the pool size
+        int threads = parallelism > 0 ? parallelism
+                : Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), connectionPoolSize / 2));
+        this.pool = new ForkJoinPool(threads, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("product-analytics-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        this.maxPartitions = threads * Math.max(1, partitionsPerThread);
+        this.minPartitionRows = Math.max(1, minPartitionRows);
+    }
+
+    @PreDestroy
+    void stop() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Aggregates {@code select <columns> from Product p [where <condition>]}
+     * over every key range. At least two columns must be selected so each row
+     * is an array.
+     */
+    public <A> A scan(String columns, String condition, Map<String, ?> parameters, Aggregation<A> aggregation) {
+        List<String> boundaries = boundaries();
+        return pool.invoke(new RangeTask<>(new Scan<>(columns, condition, parameters, aggregation, boundaries),
+                0, boundaries.size() + 1));
+    }
+
+    // Ascending ids splitting the table into boundaries.size() + 1 ranges; empty for a single range
+    List<String> boundaries() {
+        return readOnlyTransaction.execute(status -> {
+            long rows = entityManager.createQuery("select count(p) from Product p", Long.class).getSingleResult();
+            int partitions = (int) Math.min(maxPartitions, rows / minPartitionRows);
+            if (partitions < 2) {
+                return Collections.<String>emptyList();
+            }
+            long low = prefix(edgeId("asc"));
+            long high = prefix(edgeId("desc"));
+            long step = Long.divideUnsigned(high - low, partitions);
+            if (Long.compareUnsigned(low, high) >= 0 || step == 0) {
+                return Collections.<String>emptyList();
+            }
+            List<String> boundaries = new ArrayList<>(partitions - 1);
+            for (int i = 1; i < partitions; i++) {
+                byte[] bound = ByteBuffer.allocate(16).putLong(low + step * i).putLong(0).array();
+                boundaries.add(CompactIds.decode(bound));
+            }
+            return boundaries;
+        });
+    }
+
+    private String edgeId(String direction) {
+        return entityManager.createQuery("select p.id from Product p order by p.id " + direction, String.class)
+                .setMaxResults(1)
+                .getSingleResult();
+    }
+
+    // Leading eight bytes of the stored id as an unsigned number, which orders like the id column
+    private static long prefix(String id) {
+        byte[] bytes = CompactIds.encode(id);
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.put(bytes, 0, Math.min(8, bytes.length));
+        return buffer.getLong(0);
+    }
+
+    private final class Scan<A> {
+
+        final String columns;
+        final String condition;
+        final Map<String, ?> parameters;
+        final Aggregation<A> aggregation;
+        final List<String> boundaries;
+
+        Scan(String columns, String condition, Map<String, ?> parameters, Aggregation<A> aggregation,
+             List<String> boundaries) {
+            this.columns = columns;
+            this.condition = condition;
+            this.parameters = parameters;
+            this.aggregation = aggregation;
+            this.boundaries = boundaries;
+        }
+
+        // Range i covers ids in (boundaries[i - 1], boundaries[i]], open at either end of the table
+        A range(int index) {
+            String lower = index == 0 ? null : boundaries.get(index - 1);
+            String upper = index == boundaries.size() ? null : boundaries.get(index);
+            List<String> predicates = new ArrayList<>(3);
+            if (lower != null) {
+                predicates.add("p.id > :rangeLower");
+            }
+            if (upper != null) {
+                predicates.add("p.id <= :rangeUpper");
+            }
+            if (condition != null) {
+                predicates.add("(" + condition + ")");
+            }
+            String jpql = "select " + columns + " from Product p"
+                    + (predicates.isEmpty() ? "" : " where " + String.join(" and ", predicates));
+            return readOnlyTransaction.execute(status -> {
+                TypedQuery<Object[]> query = entityManager.createQuery(jpql, Object[].class)
+                        .setHint(HINT_FETCH_SIZE, FETCH_SIZE);
+                if (lower != null) {
+                    query.setParameter("rangeLower", lower);
+                }
+                if (upper != null) {
+                    query.setParameter("rangeUpper", upper);
+                }
+                parameters.forEach(query::setParameter);
+                A partial = aggregation.identity();
+                try (Stream<Object[]> rows = query.getResultStream()) {
+                    rows.forEach(row -> aggregation.accumulate(partial, row));
+                }
+                return partial;
+            });
+        }
+    }
+
+    private static final class RangeTask<A> extends RecursiveTask<A> {
+
+        private final ProductRangeScanner.Scan<A> scan;
+        private final int from;
+        private final int to;
+
+        RangeTask(ProductRangeScanner.Scan<A> scan, int from, int to) {
+            this.scan = scan;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected A compute() {
+            if (to - from == 1) {
+                return scan.range(from);
+            }
+            int middle = (from + to) >>> 1;
+            RangeTask<A> left = new RangeTask<>(scan, from, middle);
+            left.fork();
+            A right = new RangeTask<>(scan, middle, to).compute();
+            return scan.aggregation.combine(left.join(), right);
+        }
+    }
+}
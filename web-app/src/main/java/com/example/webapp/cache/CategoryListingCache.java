@@ -0,0 +1,113 @@
+package com.example.webapp.cache;
+
+import com.example.api.dto.ProductDto;
+import com.example.webapp.category.CategoryAggregates;
+import com.example.webapp.event.PeerInvalidationEvent;
+import com.example.webapp.event.ProductChangedEvent;
+import com.example.webapp.event.ProductFieldsChangedEvent;
+import com.example.webapp.invalidation.Invalidation;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of category listing pages, grouped by category so a
+ * product write drops every cached page of the categories it touched. A
+ * per-category generation guards against a load that raced an invalidation
+ * putting stale rows back; a global generation does the same for writes
+ * whose categories are unknown.
+ */
+@Component
+public class CategoryListingCache {
+
+    private static final int MAX_PAGES_PER_CATEGORY = 64;
+
+    private final Cache<String, ConcurrentMap<String, List<ProductDto>>> pagesByCategory;
+    private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final AtomicLong allGeneration = new AtomicLong();
+    private final CategoryAggregates categoryAggregates;
+
+    public CategoryListingCache(CategoryAggregates categoryAggregates,
+                                @Value("${app.cache.category-listings.maximum-size:1000}") long maximumSize,
+                                @Value("${app.cache.category-listings.expire-after-write:PT5M}") Duration expireAfterWrite) {
+        this.categoryAggregates = categoryAggregates;
+        this.pagesByCategory = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    public List<ProductDto> getPage(String category, String after, int limit, Supplier<List<ProductDto>> loader) {
+        String pageKey = (after == null ? "" : after) + '\u0000' + limit;
+        ConcurrentMap<String, List<ProductDto>> pages = pagesByCategory.getIfPresent(category);
+        List<ProductDto> cached = pages == null ? null : pages.get(pageKey);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = generation(category);
+        List<ProductDto> loaded = Collections.unmodifiableList(loader.get());
+        if (generation(category) == generation) {
+            pages = pagesByCategory.get(category, key -> new ConcurrentHashMap<>());
+            if (pages.size() < MAX_PAGES_PER_CATEGORY) {
+                pages.put(pageKey, loaded);
+                // An invalidation that slipped in after the check above must not leave this page behind
+                if (generation(category) != generation) {
+                    pages.remove(pageKey);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    public void invalidate(String category) {
+        if (category == null) {
+            return;
+        }
+        generations.computeIfAbsent(category, key -> new AtomicLong()).incrementAndGet();
+        pagesByCategory.invalidate(category);
+    }
+
+    public void invalidateAll() {
+        allGeneration.incrementAndGet();
+        pagesByCategory.invalidateAll();
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getPrevious() != null) {
+            invalidate(event.getPrevious().getCategory());
+        }
+        if (event.getCurrent() != null) {
+            invalidate(event.getCurrent().getCategory());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductFieldsChanged(ProductFieldsChangedEvent event) {
+        categoryAggregates.categoryOf(event.getProductId()).ifPresent(this::invalidate);
+    }
+
+    // A peer's write does not say which category the product left, so every listing goes
+    @EventListener
+    public void onPeerInvalidation(PeerInvalidationEvent event) {
+        if (event.concerns(Invalidation.Topic.PRODUCT)) {
+            invalidateAll();
+        }
+    }
+
+    private long generation(String category) {
+        AtomicLong generation = generations.get(category);
+        return allGeneration.get() + (generation == null ? 0 : generation.get());
+    }
+}
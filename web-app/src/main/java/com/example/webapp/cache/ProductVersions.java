@@ -0,0 +1,87 @@
+package com.example.webapp.cache;
+
+import com.example.webapp.event.PeerInvalidationEvent;
+import com.example.webapp.event.ProductChangedEvent;
+import com.example.webapp.event.ProductFieldsChangedEvent;
+import com.example.webapp.invalidation.Invalidation;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Last known version of recently read products, plus a generation that moves
+ * on every committed product write, so conditional GETs can be answered
+ * without touching the database. The generation is prefixed with the startup
+ * time so collection tags from a previous run never match.
+ */
+@Component
+public class ProductVersions {
+
+    private final Cache<String, Long> versions;
+    private final AtomicLong generation = new AtomicLong();
+    private final long epoch = System.currentTimeMillis();
+
+    public ProductVersions(@Value("${app.cache.product-versions.maximum-size:100000}") long maximumSize) {
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    public Long get(String id) {
+        return versions.getIfPresent(id);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    // Tag for any listing of products; changes whenever any product does
+    public String collectionTag() {
+        return epoch + "-" + generation.get();
+    }
+
+    // Records a version read at the given generation, unless a write has landed since
+    public void remember(String id, Long version, long readGeneration) {
+        if (version == null || generation.get() != readGeneration) {
+            return;
+        }
+        versions.asMap().merge(id, version, Math::max);
+        if (generation.get() != readGeneration) {
+            versions.asMap().remove(id, version);
+        }
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        generation.incrementAndGet();
+        if (event.getCurrent() == null || event.getCurrent().getVersion() == null) {
+            versions.invalidate(event.getProductId());
+        } else {
+            versions.put(event.getProductId(), event.getCurrent().getVersion());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductFieldsChanged(ProductFieldsChangedEvent event) {
+        generation.incrementAndGet();
+        versions.invalidate(event.getProductId());
+    }
+
+    @EventListener
+    public void onPeerInvalidation(PeerInvalidationEvent event) {
+        if (!event.concerns(Invalidation.Topic.PRODUCT)) {
+            return;
+        }
+        generation.incrementAndGet();
+        if (event.getInvalidation().getTopic() == Invalidation.Topic.ALL) {
+            versions.invalidateAll();
+        } else {
+            versions.invalidate(event.getInvalidation().getKey());
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.webapp.cache;
+
+import com.example.api.dto.UserDto;
+import com.example.webapp.event.PeerInvalidationEvent;
+import com.example.webapp.invalidation.Invalidation;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache of users by id, with username and email indexes
+ * that resolve to ids. Index hits are verified against the cached user, so a
+ * stale index entry left behind by a rename simply falls through to the loader.
+ * Every invalidation also moves the collection tag used for conditional GETs of
+ * the user list.
+ */
+@Component
+public class UserCache {
+
+    private final Cache<String, UserDto> usersById;
+    private final Cache<String, String> idsByUsername;
+    private final Cache<String, String> idsByEmail;
+    private final AtomicLong generation = new AtomicLong();
+    private final long epoch = System.currentTimeMillis();
+
+    public UserCache(@Value("${app.cache.users.maximum-size:10000}") long maximumSize,
+                     @Value("${app.cache.users.expire-after-write:PT5M}") Duration expireAfterWrite) {
+        this.usersById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+        this.idsByUsername = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+        this.idsByEmail = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    public Optional<UserDto> findById(String id, Function<String, Optional<UserDto>> loader) {
+        UserDto cached = usersById.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return load(() -> loader.apply(id));
+    }
+
+    public Optional<UserDto> findByUsername(String username, Function<String, Optional<UserDto>> loader) {
+        return lookup(idsByUsername, username, UserDto::getUsername)
+                .or(() -> load(() -> loader.apply(username)));
+    }
+
+    public Optional<UserDto> findByEmail(String email, Function<String, Optional<UserDto>> loader) {
+        return lookup(idsByEmail, email, UserDto::getEmail)
+                .or(() -> load(() -> loader.apply(email)));
+    }
+
+    public void put(UserDto user) {
+        usersById.put(user.getId(), user);
+        if (user.getUsername() != null) {
+            idsByUsername.put(user.getUsername(), user.getId());
+        }
+        if (user.getEmail() != null) {
+            idsByEmail.put(user.getEmail(), user.getId());
+        }
+    }
+
+    public String collectionTag() {
+        return epoch + "-" + generation.get();
+    }
+
+    public void invalidate(String id) {
+        generation.incrementAndGet();
+        UserDto cached = usersById.getIfPresent(id);
+        usersById.invalidate(id);
+        if (cached != null) {
+            if (cached.getUsername() != null) {
+                idsByUsername.invalidate(cached.getUsername());
+            }
+            if (cached.getEmail() != null) {
+                idsByEmail.invalidate(cached.getEmail());
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        usersById.invalidateAll();
+        idsByUsername.invalidateAll();
+        idsByEmail.invalidateAll();
+    }
+
+    @EventListener
+    public void onPeerInvalidation(PeerInvalidationEvent event) {
+        if (event.getInvalidation().getTopic() == Invalidation.Topic.ALL) {
+            invalidateAll();
+        } else if (event.getInvalidation().getTopic() == Invalidation.Topic.USER) {
+            invalidate(event.getInvalidation().getKey());
+        }
+    }
+
+    private Optional<UserDto> lookup(Cache<String, String> index, String key, Function<UserDto, String> attribute) {
+        String id = index.getIfPresent(key);
+        if (id == null) {
+            return Optional.empty();
+        }
+        UserDto cached = usersById.getIfPresent(id);
+        if (cached == null || !Objects.equals(attribute.apply(cached), key)) {
+            index.invalidate(key);
+            return Optional.empty();
+        }
+        return Optional.of(cached);
+    }
+
+    // Caches what was read only if no invalidation landed meanwhile; the read may predate that write
+    private Optional<UserDto> load(Supplier<Optional<UserDto>> loader) {
+        long readGeneration = generation.get();
+        Optional<UserDto> loaded = loader.get();
+        if (loaded.isEmpty() || generation.get() != readGeneration) {
+            return loaded;
+        }
+        UserDto user = loaded.get();
+        put(user);
+        if (generation.get() != readGeneration) {
+            usersById.asMap().remove(user.getId(), user);
+            if (user.getUsername() != null) {
+                idsByUsername.asMap().remove(user.getUsername(), user.getId());
+            }
+            if (user.getEmail() != null) {
+                idsByEmail.asMap().remove(user.getEmail(), user.getId());
+            }
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.webapp.category;
+
+import com.example.api.dto.CategoryAggregateDto;
+import com.example.product.entity.Product;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Per-category product count, total stock and price statistics, maintained
+ * incrementally from the price, stock and category of every product. Prices are
+ * kept as a sorted multiset per category so min and max survive deletes without
+ * a rescan. All access is serialized; each change is O(log n). A rebuild fills
+ * fresh aggregates while reads keep using the current ones, then swaps them in.
+ */
+@Component
+public class CategoryAggregates {
+
+    private static final int AVERAGE_SCALE = 2;
+
+    private static final class Facts {
+        final String category;
+        final BigDecimal price;
+        final int stockQuantity;
+
+        Facts(String category, BigDecimal price, int stockQuantity) {
+            this.category = category;
+            this.price = price;
+            this.stockQuantity = stockQuantity;
+        }
+    }
+
+    private static final class Bucket {
+        long productCount;
+        long totalStock;
+        long pricedCount;
+        BigDecimal priceSum = BigDecimal.ZERO;
+        final TreeMap<BigDecimal, Integer> prices = new TreeMap<>();
+
+        boolean isEmpty() {
+            return productCount == 0;
+        }
+    }
+
+    private static final class State {
+        final Map<String, Facts> products = new HashMap<>();
+        final Map<String, Bucket> categories = new HashMap<>();
+
+        void replace(String id, Facts next) {
+            Facts previous = next == null ? products.remove(id) : products.put(id, next);
+            if (previous != null) {
+                retract(previous);
+            }
+            if (next != null) {
+                apply(next);
+            }
+        }
+
+        private void apply(Facts facts) {
+            if (facts.category == null) {
+                return;
+            }
+            Bucket bucket = categories.computeIfAbsent(facts.category, key -> new Bucket());
+            bucket.productCount++;
+            bucket.totalStock += facts.stockQuantity;
+            if (facts.price != null) {
+                bucket.pricedCount++;
+                bucket.priceSum = bucket.priceSum.add(facts.price);
+                bucket.prices.merge(facts.price, 1, Integer::sum);
+            }
+        }
+
+        private void retract(Facts facts) {
+            Bucket bucket = facts.category == null ? null : categories.get(facts.category);
+            if (bucket == null) {
+                return;
+            }
+            bucket.productCount--;
+            bucket.totalStock -= facts.stockQuantity;
+            if (facts.price != null) {
+                bucket.pricedCount--;
+                bucket.priceSum = bucket.priceSum.subtract(facts.price);
+                bucket.prices.computeIfPresent(facts.price, (price, count) -> count == 1 ? null : count - 1);
+            }
+            if (bucket.isEmpty()) {
+                categories.remove(facts.category);
+            }
+        }
+    }
+
+    // Held from beginRebuild until the rebuild is closed
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private State state = new State();
+    // Writes made while a rebuild reads the table, replayed onto the rebuilt aggregates
+    private List<Consumer<CategoryAggregates>> pendingWrites;
+
+    public synchronized void put(Product product) {
+        capture(aggregates -> aggregates.put(product));
+        state.replace(product.getId(), facts(product));
+    }
+
+    public synchronized void remove(String id) {
+        capture(aggregates -> aggregates.remove(id));
+        state.replace(id, null);
+    }
+
+    public synchronized void updatePrice(String id, BigDecimal price) {
+        capture(aggregates -> aggregates.updatePrice(id, price));
+        Facts facts = state.products.get(id);
+        if (facts != null) {
+            state.replace(id, new Facts(facts.category, price, facts.stockQuantity));
+        }
+    }
+
+    public synchronized void updateStockQuantity(String id, int stockQuantity) {
+        capture(aggregates -> aggregates.updateStockQuantity(id, stockQuantity));
+        Facts facts = state.products.get(id);
+        if (facts != null) {
+            state.replace(id, new Facts(facts.category, facts.price, stockQuantity));
+        }
+    }
+
+    public synchronized void adjustStockQuantity(String id, int delta) {
+        capture(aggregates -> aggregates.adjustStockQuantity(id, delta));
+        Facts facts = state.products.get(id);
+        if (facts != null) {
+            state.replace(id, new Facts(facts.category, facts.price, facts.stockQuantity + delta));
+        }
+    }
+
+    public synchronized Optional<String> categoryOf(String id) {
+        Facts facts = state.products.get(id);
+        return facts == null ? Optional.empty() : Optional.ofNullable(facts.category);
+    }
+
+    public synchronized Optional<CategoryAggregateDto> get(String category) {
+        Bucket bucket = state.categories.get(category);
+        return bucket == null ? Optional.empty() : Optional.of(toDto(category, bucket));
+    }
+
+    public synchronized List<CategoryAggregateDto> all() {
+        List<CategoryAggregateDto> aggregates = new ArrayList<>(state.categories.size());
+        state.categories.forEach((category, bucket) -> aggregates.add(toDto(category, bucket)));
+        return aggregates;
+    }
+
+    public synchronized int size() {
+        return state.products.size();
+    }
+
+    /**
+     * Starts capturing writes for a rebuild. Call it before the query that
+     * reads the products, so a write committed meanwhile is replayed onto the
+     * new aggregates rather than lost or overwritten by a stale row, then pass
+     * the products to {@link Rebuild#build}. Rebuilds run one at a time.
+     */
+    public Rebuild beginRebuild() {
+        rebuildLock.lock();
+        synchronized (this) {
+            pendingWrites = new ArrayList<>();
+        }
+        return new Rebuild();
+    }
+
+    public final class Rebuild implements AutoCloseable {
+
+        private boolean closed;
+
+        private Rebuild() {
+        }
+
+        // Reads keep using the current aggregates until the new ones are complete
+        public void build(Stream<Product> products) {
+            if (closed) {
+                throw new IllegalStateException("Rebuild is closed");
+            }
+            State next = new State();
+            products.forEach(product -> next.replace(product.getId(), facts(product)));
+            synchronized (CategoryAggregates.this) {
+                List<Consumer<CategoryAggregates>> writes = pendingWrites;
+                pendingWrites = null;
+                state = next;
+                writes.forEach(write -> write.accept(CategoryAggregates.this));
+            }
+        }
+
+        // Stops capturing writes, whether or not the build completed
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            synchronized (CategoryAggregates.this) {
+                pendingWrites = null;
+            }
+            rebuildLock.unlock();
+        }
+    }
+
+    private void capture(Consumer<CategoryAggregates> write) {
+        if (pendingWrites != null) {
+            pendingWrites.add(write);
+        }
+    }
+
+    private static Facts facts(Product product) {
+        return new Facts(product.getCategory(), product.getPrice(),
+                product.getStockQuantity() == null ? 0 : product.getStockQuantity());
+    }
+
+    private static CategoryAggregateDto toDto(String category, Bucket bucket) {
+        return CategoryAggregateDto.builder()
+                .category(category)
+                .productCount(bucket.productCount)
+                .totalStock(bucket.totalStock)
+                .minPrice(bucket.prices.isEmpty() ? null : bucket.prices.firstKey())
+                .maxPrice(bucket.prices.isEmpty() ? null : bucket.prices.lastKey())
+                .avgPrice(bucket.pricedCount == 0 ? null
+                        : bucket.priceSum.divide(BigDecimal.valueOf(bucket.pricedCount), AVERAGE_SCALE, RoundingMode.HALF_UP))
+                .build();
+    }
+}
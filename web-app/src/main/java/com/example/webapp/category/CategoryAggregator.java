@@ -0,0 +1,94 @@
+package com.example.webapp.category;
+
+import com.example.product.entity.Product;
+import com.example.product.repository.ProductRepository;
+import com.example.webapp.event.PeerInvalidationEvent;
+import com.example.webapp.event.ProductChangedEvent;
+import com.example.webapp.event.ProductFieldsChangedEvent;
+import com.example.webapp.invalidation.Invalidation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.stream.Stream;
+
+/**
+ * Keeps {@link CategoryAggregates} in step with the products table: a full
+ * build at startup and on a peer's invalidate-all, then entity changes and
+ * committed single-statement price and stock writes applied as they happen.
+ */
+@Slf4j
+@Component
+public class CategoryAggregator {
+
+    private final CategoryAggregates aggregates;
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Autowired
+    public CategoryAggregator(CategoryAggregates aggregates, ProductRepository productRepository,
+                              EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.aggregates = aggregates;
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        // Writes are captured from before the query opens, so none is lost or overwritten by a stale row
+        try (CategoryAggregates.Rebuild rebuild = aggregates.beginRebuild()) {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Product> products = productRepository.streamAll()) {
+                    rebuild.build(products.peek(entityManager::detach));
+                }
+            });
+        }
+        log.info("Aggregated {} products by category in {} ms", aggregates.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() == ProductChangedEvent.Type.DELETED) {
+            aggregates.remove(event.getProductId());
+        } else if (event.getCurrent() != null) {
+            aggregates.put(event.getCurrent());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductFieldsChanged(ProductFieldsChangedEvent event) {
+        if (event.getPrice() != null) {
+            aggregates.updatePrice(event.getProductId(), event.getPrice());
+        }
+        if (event.getStockQuantity() != null) {
+            aggregates.updateStockQuantity(event.getProductId(), event.getStockQuantity());
+        }
+        if (event.getStockDelta() != null) {
+            aggregates.adjustStockQuantity(event.getProductId(), event.getStockDelta());
+        }
+    }
+
+    @EventListener
+    public void onPeerInvalidation(PeerInvalidationEvent event) {
+        Invalidation invalidation = event.getInvalidation();
+        if (invalidation.getTopic() == Invalidation.Topic.ALL) {
+            rebuild();
+        } else if (invalidation.getTopic() == Invalidation.Topic.PRODUCT) {
+            if (event.getCurrent() == null) {
+                aggregates.remove(invalidation.getKey());
+            } else {
+                aggregates.put(event.getCurrent());
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.webapp.changelog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.CRC32;
+
+/**
+ * One file of the change log, named after the offset of its first record.
+ * Records are framed as length, offset and CRC32 followed by the payload.
+ * A single writer appends; readers use positional reads on the same channel,
+ * bounded by the size of fully written records.
+ */
+final class ChangeLogSegment implements Closeable {
+
+    static final String SUFFIX = ".log";
+
+    private static final int HEADER_BYTES = 16;
+    // Every Nth record's file position is remembered, so a read seeks close to its start offset
+    private static final int INDEX_INTERVAL = 256;
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+
+    private final long baseOffset;
+    private final FileChannel channel;
+    private final ConcurrentSkipListMap<Long, Long> index = new ConcurrentSkipListMap<>();
+    // Written only by the writer; size is volatile so readers never step past complete records
+    private volatile long size;
+    private long nextOffset;
+
+    private ChangeLogSegment(long baseOffset, FileChannel channel) {
+        this.baseOffset = baseOffset;
+        this.channel = channel;
+        this.nextOffset = baseOffset;
+    }
+
+    static ChangeLogSegment create(Path directory, long baseOffset) throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(fileName(baseOffset)),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new ChangeLogSegment(baseOffset, channel);
+    }
+
+    // Rebuilds the index and cuts off a torn or corrupt tail left by a crash mid-write
+    static ChangeLogSegment open(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        long baseOffset = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+        ChangeLogSegment segment = new ChangeLogSegment(baseOffset,
+                FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        segment.recover();
+        return segment;
+    }
+
+    static String fileName(long baseOffset) {
+        return String.format("%020d%s", baseOffset, SUFFIX);
+    }
+
+    long baseOffset() {
+        return baseOffset;
+    }
+
+    long nextOffset() {
+        return nextOffset;
+    }
+
+    long size() {
+        return size;
+    }
+
+    // Writes the payloads as consecutive records starting at nextOffset(), all or nothing
+    void append(List<byte[]> payloads) throws IOException {
+        long startSize = size;
+        long startOffset = nextOffset;
+        ByteBuffer[] buffers = new ByteBuffer[payloads.size() * 2];
+        long position = size;
+        long offset = nextOffset;
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < payloads.size(); i++, offset++) {
+            byte[] payload = payloads.get(i);
+            crc.reset();
+            crc.update(payload);
+            buffers[2 * i] = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(payload.length).putLong(offset).putInt((int) crc.getValue()).flip();
+            buffers[2 * i + 1] = ByteBuffer.wrap(payload);
+            if ((offset - baseOffset) % INDEX_INTERVAL == 0) {
+                index.put(offset, position);
+            }
+            position += HEADER_BYTES + payload.length;
+        }
+        try {
+            channel.position(startSize);
+            long remaining = position - startSize;
+            while (remaining > 0) {
+                remaining -= channel.write(buffers);
+            }
+        } catch (IOException e) {
+            channel.truncate(startSize);
+            index.tailMap(startOffset).clear();
+            throw e;
+        }
+        size = position;
+        nextOffset = offset;
+    }
+
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    // Copies the payloads of records in [from, to) to out, one per line; returns the number copied
+    long copyTo(long from, long to, OutputStream out) throws IOException {
+        Map.Entry<Long, Long> start = index.floorEntry(from);
+        long position = start == null ? 0 : start.getValue();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        ByteBuffer payload = ByteBuffer.allocate(READ_BUFFER_BYTES);
+        long limit = size;
+        long copied = 0;
+        while (position < limit) {
+            header.clear();
+            if (!readFully(header, position)) {
+                break;
+            }
+            int length = header.getInt(0);
+            long offset = header.getLong(4);
+            if (offset >= to) {
+                break;
+            }
+            if (offset >= from) {
+                if (payload.capacity() < length) {
+                    payload = ByteBuffer.allocate(length);
+                }
+                payload.clear().limit(length);
+                if (!readFully(payload, position + HEADER_BYTES)) {
+                    break;
+                }
+                out.write(payload.array(), 0, length);
+                out.write('\n');
+                copied++;
+            }
+            position += HEADER_BYTES + length;
+        }
+        return copied;
+    }
+
+    private void recover() throws IOException {
+        long fileSize = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        CRC32 crc = new CRC32();
+        long position = 0;
+        long offset = baseOffset;
+        while (position < fileSize) {
+            header.clear();
+            if (!readFully(header, position)) {
+                break;
+            }
+            int length = header.getInt(0);
+            if (length < 0 || header.getLong(4) != offset || position + HEADER_BYTES + length > fileSize) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            if (!readFully(payload, position + HEADER_BYTES)) {
+                break;
+            }
+            crc.reset();
+            crc.update(payload.array());
+            if ((int) crc.getValue() != header.getInt(12)) {
+                break;
+            }
+            if ((offset - baseOffset) % INDEX_INTERVAL == 0) {
+                index.put(offset, position);
+            }
+            position += HEADER_BYTES + length;
+            offset++;
+        }
+        if (position < fileSize) {
+            channel.truncate(position);
+        }
+        size = position;
+        nextOffset = offset;
+    }
+
+    private boolean readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
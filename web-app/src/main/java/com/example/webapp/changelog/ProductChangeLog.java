@@ -0,0 +1,268 @@
+package com.example.webapp.changelog;
+
+import com.example.api.dto.ProductChangeDto;
+import com.example.product.mapper.ProductMapper;
+import com.example.webapp.event.ProductChangedEvent;
+import com.example.webapp.event.ProductFieldsChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of committed product changes, kept as segment files in
+ * {@code app.changelog.directory}. Changes are queued after commit and a
+ * single writer thread appends them in batches, one gathering write (and one
+ * fsync) per batch, rolling to a new segment past {@code segment-size}.
+ * Each change gets a sequential offset; readers see a change once its batch is
+ * written. Changes still queued when the process dies are lost, and so are
+ * changes arriving while the queue is full: committing threads never wait on
+ * the log, they drop the change and count it in {@code product.changelog.dropped}.
+ * The writer then appends a {@link ProductChangeDto.Type#GAP} entry so feed
+ * consumers know to rescan instead of silently missing the change.
+ */
+@Slf4j
+@Component
+public class ProductChangeLog {
+
+    private static final ProductMapper MAPPER = ProductMapper.INSTANCE;
+    private static final int QUEUE_CAPACITY = 65_536;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final int maxBatch;
+    private final boolean fsync;
+    private final ObjectWriter writer;
+    private final BlockingQueue<ProductChangeDto> pending = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+    private final ConcurrentSkipListMap<Long, ChangeLogSegment> segments = new ConcurrentSkipListMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+    // Changes below this offset are on disk and readable
+    private volatile long endOffset;
+    private volatile boolean running;
+    private Thread writerThread;
+
+    @Autowired
+    public ProductChangeLog(ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.changelog.directory:}") String directory,
+                            @Value("${app.changelog.segment-size:64MB}") DataSize segmentSize,
+                            @Value("${app.changelog.max-batch:1000}") int maxBatch,
+                            @Value("${app.changelog.fsync:true}") boolean fsync) throws IOException {
+        this(directory.isEmpty() ? Files.createTempDirectory("product-changes") : Paths.get(directory),
+                segmentSize.toBytes(), maxBatch, fsync, objectMapper);
+        FunctionCounter.builder("product.changelog.dropped", this, ProductChangeLog::dropped)
+                .description("Product changes not logged because the write queue was full")
+                .register(meterRegistry);
+    }
+
+    ProductChangeLog(Path directory, long segmentBytes, int maxBatch, boolean fsync, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxBatch = maxBatch;
+        this.fsync = fsync;
+        this.writer = objectMapper.writerFor(ProductChangeDto.class);
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(file -> file.getFileName().toString().endsWith(ChangeLogSegment.SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            ChangeLogSegment segment = ChangeLogSegment.open(file);
+            segments.put(segment.baseOffset(), segment);
+        }
+        endOffset = segments.isEmpty() ? 0 : segments.lastEntry().getValue().nextOffset();
+        log.info("Product change log in {} opened at offset {} with {} segments", directory, endOffset, segments.size());
+        running = true;
+        writerThread = new Thread(this::writeLoop, "product-change-log");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    // Writes out everything already queued before closing the files
+    @PreDestroy
+    void stop() throws InterruptedException, IOException {
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        for (ChangeLogSegment segment : segments.values()) {
+            segment.close();
+        }
+    }
+
+    public long endOffset() {
+        return endOffset;
+    }
+
+    // Copies the changes with offsets in [from, to) to out as newline-delimited JSON
+    public long copyTo(long from, long to, OutputStream out) throws IOException {
+        long end = Math.min(to, endOffset);
+        if (from >= end) {
+            return 0;
+        }
+        Long first = segments.floorKey(from);
+        long copied = 0;
+        for (ChangeLogSegment segment : segments.tailMap(first == null ? from : first).values()) {
+            if (segment.baseOffset() >= end) {
+                break;
+            }
+            copied += segment.copyTo(from, end, out);
+        }
+        return copied;
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    // Runs on the committing thread, so it never waits for room in the queue
+    public void append(ProductChangeDto change) {
+        if (pending.offer(change)) {
+            return;
+        }
+        long count = dropped.incrementAndGet();
+        // Logged at 1, 2, 4, 8... drops so a stalled writer does not flood the log
+        if (Long.bitCount(count) == 1) {
+            log.warn("Product change log queue is full; change of product {} is not logged ({} dropped so far)",
+                    change.getProductId(), count);
+        }
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        append(ProductChangeDto.builder()
+                .type(ProductChangeDto.Type.valueOf(event.getType().name()))
+                .productId(event.getProductId())
+                .changedAt(LocalDateTime.now())
+                .product(event.getCurrent() == null ? null : MAPPER.toDto(event.getCurrent()))
+                .build());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductFieldsChanged(ProductFieldsChangedEvent event) {
+        append(ProductChangeDto.builder()
+                .type(ProductChangeDto.Type.UPDATED)
+                .productId(event.getProductId())
+                .changedAt(LocalDateTime.now())
+                .price(event.getPrice())
+                .stockQuantity(event.getStockQuantity())
+                .stockDelta(event.getStockDelta())
+                .build());
+    }
+
+    private void writeLoop() {
+        List<ProductChangeDto> batch = new ArrayList<>(maxBatch);
+        // Holds an appended batch until it is synced to disk
+        ChangeLogSegment unsynced = null;
+        // Drops already reported by a gap entry
+        long reported = 0;
+        while (running || !pending.isEmpty() || !batch.isEmpty() || unsynced != null) {
+            try {
+                if (unsynced == null) {
+                    if (batch.isEmpty()) {
+                        ProductChangeDto first = pending.poll(100, TimeUnit.MILLISECONDS);
+                        if (first != null) {
+                            batch.add(first);
+                            pending.drainTo(batch, maxBatch - 1);
+                        }
+                        // Last in the batch, so the rescan it triggers also covers the changes before it
+                        long lost = dropped.get() - reported;
+                        if (lost > 0) {
+                            batch.add(gap(lost));
+                            reported += lost;
+                        }
+                        if (batch.isEmpty()) {
+                            continue;
+                        }
+                    }
+                    unsynced = append(batch);
+                    batch.clear();
+                }
+                sync(unsynced);
+                unsynced = null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                // A failed append is rolled back, so the batch is kept and written again;
+                // a failed fsync comes after the append, so only the fsync is retried
+                log.error(unsynced == null ? "Writing {} product changes failed; retrying"
+                        : "Syncing product changes to disk failed; retrying", batch.size(), e);
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static ProductChangeDto gap(long lost) {
+        return ProductChangeDto.builder()
+                .type(ProductChangeDto.Type.GAP)
+                .changedAt(LocalDateTime.now())
+                .dropped(lost)
+                .build();
+    }
+
+    private ChangeLogSegment append(List<ProductChangeDto> batch) throws IOException {
+        ChangeLogSegment segment = activeSegment();
+        long offset = segment.nextOffset();
+        List<byte[]> payloads = new ArrayList<>(batch.size());
+        for (ProductChangeDto change : batch) {
+            change.setOffset(offset++);
+            payloads.add(writer.writeValueAsBytes(change));
+        }
+        segment.append(payloads);
+        return segment;
+    }
+
+    // Readers see the appended changes only once they are on disk
+    private void sync(ChangeLogSegment segment) throws IOException {
+        if (fsync) {
+            segment.force();
+        }
+        endOffset = segment.nextOffset();
+    }
+
+    private ChangeLogSegment activeSegment() throws IOException {
+        Map.Entry<Long, ChangeLogSegment> last = segments.lastEntry();
+        if (last != null && last.getValue().size() < segmentBytes) {
+            return last.getValue();
+        }
+        ChangeLogSegment segment = ChangeLogSegment.create(directory, endOffset);
+        segments.put(segment.baseOffset(), segment);
+        return segment;
+    }
+}
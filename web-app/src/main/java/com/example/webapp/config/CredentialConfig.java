@@ -0,0 +1,54 @@
+package com.example.webapp.config;
+
+import com.example.user.credential.CredentialService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Password hashing. The bcrypt cost is {@code app.credentials.cost}, or when
+ * that is 0, the highest cost from {@code min-cost} whose hash fits in
+ * {@code hash-time-budget} on this machine, measured at startup. Hashing runs
+ * on {@code threads} threads, half the cores by default, so the rest stay free
+ * for other requests.
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+public class CredentialConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public CredentialService credentialService(@Value("${app.credentials.cost:0}") int cost,
+                                               @Value("${app.credentials.min-cost:10}") int minCost,
+                                               @Value("${app.credentials.max-cost:16}") int maxCost,
+                                               @Value("${app.credentials.hash-time-budget:100ms}") Duration budget,
+                                               @Value("${app.credentials.threads:0}") int threads,
+                                               @Value("${app.credentials.queue-capacity:50}") int queueCapacity,
+                                               MeterRegistry meterRegistry) {
+        if (cost == 0) {
+            long start = System.nanoTime();
+            cost = CredentialService.calibrate(budget, minCost, maxCost);
+            log.info("Calibrated bcrypt cost {} for a {} ms budget in {} ms", cost, budget.toMillis(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+        if (threads <= 0) {
+            threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        }
+        CredentialService service = new CredentialService(cost, threads, queueCapacity);
+        Gauge.builder("credentials.queued", service, CredentialService::queued)
+                .description("Password hashes and checks waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("credentials.active", service, CredentialService::active)
+                .description("Password hashes and checks running")
+                .register(meterRegistry);
+        FunctionCounter.builder("credentials.rejected", service, CredentialService::rejected)
+                .description("Password hashes and checks refused because the queue was full")
+                .register(meterRegistry);
+        return service;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.webapp.config;
+
+import com.example.webapp.execution.ConnectionLimitingDataSource;
+import com.example.webapp.execution.VirtualThreadExecutorCustomizer;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Request execution mode. {@code app.execution.mode=platform} (the default)
+ * keeps Tomcat's bounded worker pool. {@code virtual} runs requests on virtual
+ * threads and, because thread count no longer bounds concurrent JDBC work,
+ * gates connections with a semaphore of {@code app.execution.connection-permits}
+ * (defaulting to the pool size).
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "app.execution.mode", havingValue = "virtual")
+public class ExecutionConfig {
+
+    @Bean
+    public VirtualThreadExecutorCustomizer virtualThreadExecutorCustomizer() {
+        return new VirtualThreadExecutorCustomizer();
+    }
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(Environment environment) {
+        int permits = environment.getProperty("app.execution.connection-permits", Integer.class,
+                environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+        Duration acquireTimeout = environment.getProperty("app.execution.connection-acquire-timeout",
+                Duration.class, Duration.ofSeconds(5));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof ConnectionLimitingDataSource)) {
+                    return new ConnectionLimitingDataSource((DataSource) bean, permits, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+}
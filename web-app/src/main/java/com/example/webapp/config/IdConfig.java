@@ -0,0 +1,15 @@
+package com.example.webapp.config;
+
+import com.example.common.id.IdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+public class IdConfig {
+
+    @Bean
+    public IdGenerator idGenerator(@Value("${app.ids.generator:time-ordered}") String generator) {
+        return IdGenerator.of(generator);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.webapp.config;
+
+import com.example.webapp.invalidation.InvalidationBus;
+import com.example.webapp.invalidation.JdbcInvalidationBus;
+import com.example.webapp.invalidation.LoopbackInvalidationBus;
+import com.example.webapp.invalidation.PeerInvalidations;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+/**
+ * How cache invalidations reach other instances. {@code app.invalidation.bus=database}
+ * (the default) exchanges them through a polled table in the shared database;
+ * {@code loopback} hands each one straight back to this instance.
+ */
+@Configuration(proxyBeanMethods = false)
+public class InvalidationConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.invalidation.bus", havingValue = "database", matchIfMissing = true)
+    public InvalidationBus jdbcInvalidationBus(JdbcTemplate jdbcTemplate, PeerInvalidations peerInvalidations,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${app.invalidation.poll-interval:1s}") Duration pollInterval,
+                                               @Value("${app.invalidation.gap-grace:5s}") Duration gapGrace,
+                                               @Value("${app.invalidation.retention:10m}") Duration retention) {
+        return new JdbcInvalidationBus(jdbcTemplate, peerInvalidations, meterRegistry, pollInterval, gapGrace, retention);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.invalidation.bus", havingValue = "loopback")
+    public InvalidationBus loopbackInvalidationBus(PeerInvalidations peerInvalidations) {
+        return new LoopbackInvalidationBus(peerInvalidations);
+    }
+}
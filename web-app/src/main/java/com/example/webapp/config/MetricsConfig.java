@@ -0,0 +1,44 @@
+package com.example.webapp.config;
+
+import com.example.webapp.metrics.RepositoryMetricsInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.time.Duration;
+
+/**
+ * Hot-path metrics beyond what Actuator records on its own. Handler latency is
+ * {@code http.server.requests} and repository latency is
+ * {@code spring.data.repository.invocations}; their histograms and percentiles
+ * are configured under {@code management.metrics.distribution}. This adds
+ * returned row counts and slow-call logging to every repository.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfig {
+
+    // Static and lazy on the registry, since repository factory beans are created before most other beans
+    @Bean
+    public static BeanPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> registry,
+                                                                   Environment environment) {
+        Duration slowThreshold = environment.getProperty("app.metrics.slow-query-threshold",
+                Duration.class, Duration.ofMillis(200));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport) {
+                    ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory ->
+                            factory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) ->
+                                    proxyFactory.addAdvice(new RepositoryMetricsInterceptor(
+                                            repositoryInformation.getRepositoryInterface().getSimpleName(),
+                                            registry.getObject(), slowThreshold))));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.webapp.config;
+
+import com.example.product.snapshot.ProductSnapshot;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Where product reads are served from. {@code app.read-model.mode=database}
+ * (the default) reads through JPA. {@code snapshot} serves single-product and
+ * page reads from an off-heap {@link ProductSnapshot}, kept current by
+ * {@link com.example.webapp.readmodel.ProductSnapshotMaintainer}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "app.read-model.mode", havingValue = "snapshot")
+public class ReadModelConfig {
+
+    @Bean
+    public ProductSnapshot productSnapshot() {
+        return new ProductSnapshot();
+    }
+}
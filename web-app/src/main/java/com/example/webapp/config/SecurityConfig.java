@@ -1,15 +1,29 @@
 package com.example.webapp.config;
 
+import com.example.webapp.throttle.AdaptiveConcurrencyLimiter;
+import com.example.webapp.throttle.ClientRateLimiter;
+import com.example.webapp.throttle.ThrottlingFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.context.request.async.WebAsyncManagerIntegrationFilter;
 
-@Configuration
+import java.time.Duration;
+
+@Configuration(proxyBeanMethods = false)
 @EnableWebSecurity
-public class SecurityConfig {    @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+public class SecurityConfig {
+
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   ObjectProvider<ThrottlingFilter> throttlingFilter) throws Exception {
         http
             .authorizeRequests()
                 // Allow all requests without authentication
@@ -18,7 +32,37 @@ public class SecurityConfig {    @Bean
             .csrf().disable()
             .formLogin().disable()
             .httpBasic().disable();
-        
+
+        // Rejected requests should cost as little as possible, so throttle ahead of the rest of the chain
+        throttlingFilter.ifAvailable(filter -> http.addFilterBefore(filter, WebAsyncManagerIntegrationFilter.class));
+
         return http.build();
     }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.throttle.enabled", matchIfMissing = true)
+    public ThrottlingFilter throttlingFilter(
+            @Value("${app.throttle.rate-limit.requests-per-second:100}") double requestsPerSecond,
+            @Value("${app.throttle.rate-limit.burst:200}") int burst,
+            @Value("${app.throttle.rate-limit.max-clients:100000}") long maxClients,
+            @Value("${app.throttle.rate-limit.client-header:}") String clientHeader,
+            @Value("${app.throttle.concurrency.initial-limit:50}") int initialLimit,
+            @Value("${app.throttle.concurrency.min-limit:5}") int minLimit,
+            @Value("${app.throttle.concurrency.max-limit:500}") int maxLimit,
+            @Value("${app.throttle.concurrency.latency-threshold:250ms}") Duration latencyThreshold,
+            MeterRegistry registry) {
+        return new ThrottlingFilter(
+                new ClientRateLimiter(requestsPerSecond, burst, maxClients),
+                new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, latencyThreshold),
+                clientHeader, registry);
+    }
+
+    // Runs inside the security chain only; without this Boot would also register it as a servlet filter
+    @Bean
+    @ConditionalOnProperty(name = "app.throttle.enabled", matchIfMissing = true)
+    public FilterRegistrationBean<ThrottlingFilter> throttlingFilterRegistration(ThrottlingFilter filter) {
+        FilterRegistrationBean<ThrottlingFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
 }
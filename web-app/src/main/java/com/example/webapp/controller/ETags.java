@@ -0,0 +1,63 @@
+package com.example.webapp.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.StringJoiner;
+
+/**
+ * Entity tags and If-None-Match handling for conditional GETs. The same state
+ * can be sent as JSON, CBOR or Smile, so tags are weak (equivalent, not
+ * byte-identical representations) and every tagged response varies by Accept,
+ * so a shared cache never revalidates one format and serves another.
+ */
+final class ETags {
+
+    // Clients may keep a copy but must revalidate it on every use
+    static final CacheControl REVALIDATE = CacheControl.noCache();
+    static final CacheControl REVALIDATE_PRIVATE = CacheControl.noCache().cachePrivate();
+
+    private ETags() {
+    }
+
+    static String of(Object... parts) {
+        StringJoiner tag = new StringJoiner("-", "W/\"", "\"");
+        for (Object part : parts) {
+            tag.add(String.valueOf(part));
+        }
+        return tag.toString();
+    }
+
+    // If-None-Match uses weak comparison, so a W/ prefix on either side is ignored
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String opaque = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || stripWeak(trimmed).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static ResponseEntity.BodyBuilder ok(String etag, CacheControl cacheControl) {
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT);
+    }
+
+    static <T> ResponseEntity<T> notModified(String etag, CacheControl cacheControl) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT)
+                .build();
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.webapp.controller;
+
+import com.example.api.dto.CategoryAggregateDto;
+import com.example.api.dto.LowStockReportDto;
+import com.example.api.dto.PriceHistogramDto;
+import com.example.webapp.analytics.ProductAnalytics;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/products/analytics")
+@Tag(name = "Product Analytics", description = "Whole-catalog reports computed by parallel range scans")
+public class ProductAnalyticsController {
+
+    static final int DEFAULT_LOW_STOCK_LIMIT = 100;
+    static final int MAX_LOW_STOCK_LIMIT = 1000;
+
+    private final ProductAnalytics productAnalytics;
+
+    @Autowired
+    public ProductAnalyticsController(ProductAnalytics productAnalytics) {
+        this.productAnalytics = productAnalytics;
+    }
+
+    @Operation(summary = "Totals by category",
+               description = "Scans the products table and returns count, total stock, min/max/average price and stock value per category")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully computed category totals",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = CategoryAggregateDto.class)))
+    })
+    @GetMapping("/categories")
+    public ResponseEntity<List<CategoryAggregateDto>> getCategoryTotals() {
+        return ResponseEntity.ok(productAnalytics.categories());
+    }
+
+    @Operation(summary = "Price histogram",
+               description = "Counts products per fixed-width price bucket, optionally within one category")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully computed histogram",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = PriceHistogramDto.class))),
+        @ApiResponse(responseCode = "400", description = "Bucket width is not positive", content = @Content)
+    })
+    @GetMapping("/price-histogram")
+    public ResponseEntity<PriceHistogramDto> getPriceHistogram(
+            @Parameter(description = "Width of each price bucket") @RequestParam(defaultValue = "10") BigDecimal bucketWidth,
+            @Parameter(description = "Only count products in this category") @RequestParam(required = false) String category) {
+        if (bucketWidth.signum() <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(productAnalytics.priceHistogram(bucketWidth, category));
+    }
+
+    @Operation(summary = "Low-stock report",
+               description = "Counts products at or below a stock threshold per category and lists the lowest-stocked ones")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully computed report",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = LowStockReportDto.class)))
+    })
+    @GetMapping("/low-stock")
+    public ResponseEntity<LowStockReportDto> getLowStock(
+            @Parameter(description = "Highest stock quantity that counts as low") @RequestParam(defaultValue = "5") int threshold,
+            @Parameter(description = "Products to list, at most " + MAX_LOW_STOCK_LIMIT) @RequestParam(required = false) Integer limit) {
+        int products = limit == null || limit < 0 ? DEFAULT_LOW_STOCK_LIMIT : Math.min(limit, MAX_LOW_STOCK_LIMIT);
+        return ResponseEntity.ok(productAnalytics.lowStock(threshold, products));
+    }
+}
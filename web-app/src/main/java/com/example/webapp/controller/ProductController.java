@@ -1,8 +1,29 @@
 package com.example.webapp.controller;
 
+import com.example.api.dto.CategoryAggregateDto;
+import com.example.api.dto.ProductBatchOperation;
+import com.example.api.dto.ProductBatchResult;
+import com.example.api.dto.ProductChangeDto;
 import com.example.api.dto.ProductDto;
+import com.example.api.dto.ProductPriceUpdate;
+import com.example.api.dto.ProductStockChange;
+import com.example.api.dto.ProductStockUpdate;
+import com.example.common.id.IdGenerator;
 import com.example.product.entity.Product;
+import com.example.product.mapper.ProductMapper;
 import com.example.product.repository.ProductRepository;
+import com.example.product.snapshot.ProductSnapshot;
+import com.example.product.snapshot.ProductView;
+import com.example.webapp.cache.CategoryListingCache;
+import com.example.webapp.cache.ProductVersions;
+import com.example.webapp.category.CategoryAggregates;
+import com.example.webapp.changelog.ProductChangeLog;
+import com.example.webapp.search.ProductSearchIndex;
+import com.example.webapp.service.HotStockConflictException;
+import com.example.webapp.service.ProductBatchService;
+import com.example.webapp.service.ProductStockService;
+import com.example.webapp.service.ProductUpdateService;
+import com.example.webapp.stream.NdjsonStreamer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,15 +31,26 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 @RestController
@@ -26,87 +58,143 @@ import java.util.stream.Collectors;
 @Tag(name = "Product Management", description = "APIs for managing products")
 public class ProductController {
 
-    private final ProductRepository productRepository;    
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+    static final String NEXT_OFFSET_HEADER = "X-Next-Offset";
+    private static final int DEFAULT_CHANGES_LIMIT = 1000;
+    private static final int MAX_CHANGES_LIMIT = 10_000;
+    private static final ProductMapper MAPPER = ProductMapper.INSTANCE;
+
+    private final ProductRepository productRepository;
+    private final NdjsonStreamer ndjsonStreamer;
+    private final ProductBatchService productBatchService;
+    private final ProductUpdateService productUpdateService;
+    private final ProductStockService productStockService;
+    private final ProductSearchIndex productSearchIndex;
+    private final CategoryListingCache categoryListingCache;
+    private final CategoryAggregates categoryAggregates;
+    private final ProductVersions productVersions;
+    private final IdGenerator idGenerator;
+    private final ProductChangeLog productChangeLog;
+    // Null unless app.read-model.mode=snapshot
+    private final ProductSnapshot productSnapshot;
     
     @Autowired
-    public ProductController(ProductRepository productRepository) {
+    public ProductController(ProductRepository productRepository, NdjsonStreamer ndjsonStreamer,
+                             ProductBatchService productBatchService, ProductUpdateService productUpdateService,
+                             ProductStockService productStockService, ProductSearchIndex productSearchIndex,
+                             CategoryListingCache categoryListingCache, CategoryAggregates categoryAggregates,
+                             ProductVersions productVersions, IdGenerator idGenerator,
+                             ProductChangeLog productChangeLog, ObjectProvider<ProductSnapshot> productSnapshot) {
         this.productRepository = productRepository;
-        initSampleProducts();
+        this.ndjsonStreamer = ndjsonStreamer;
+        this.productBatchService = productBatchService;
+        this.productUpdateService = productUpdateService;
+        this.productStockService = productStockService;
+        this.productSearchIndex = productSearchIndex;
+        this.categoryListingCache = categoryListingCache;
+        this.categoryAggregates = categoryAggregates;
+        this.productVersions = productVersions;
+        this.idGenerator = idGenerator;
+        this.productChangeLog = productChangeLog;
+        this.productSnapshot = productSnapshot.getIfAvailable();
     }
     
-    // Initialize sample products if repository is empty
-    private void initSampleProducts() {
-        if (productRepository.count() == 0) {
-            // First Product
-            Product laptop = new Product();
-            laptop.setId(UUID.randomUUID().toString());
-            laptop.setName("Laptop");
-            laptop.setDescription("High-performance laptop");
-            laptop.setPrice(new java.math.BigDecimal("999.99"));
-            laptop.setStockQuantity(50);
-            laptop.setCategory("Electronics");
-            laptop.setCreatedAt(LocalDateTime.now());
-            
-            // Second Product
-            Product smartphone = new Product();
-            smartphone.setId(UUID.randomUUID().toString());
-            smartphone.setName("Smartphone");
-            smartphone.setDescription("Latest model smartphone");
-            smartphone.setPrice(new java.math.BigDecimal("599.99"));
-            smartphone.setStockQuantity(100);
-            smartphone.setCategory("Electronics");
-            smartphone.setCreatedAt(LocalDateTime.now());
-            
-            // Save products
-            productRepository.save(laptop);
-            productRepository.save(smartphone);
+    private static ResponseEntity<List<ProductDto>> toPage(List<ProductDto> productDtos, int pageSize, String etag) {
+        ResponseEntity.BodyBuilder response = ETags.ok(etag, ETags.REVALIDATE);
+        if (productDtos.size() == pageSize) {
+            response.header(NEXT_CURSOR_HEADER, productDtos.get(pageSize - 1).getId());
         }
+        return response.body(productDtos);
     }
-    
-    // Convert Entity to DTO
-    private ProductDto convertToDto(Product product) {
-        return ProductDto.builder()
-                .id(product.getId())
-                .name(product.getName())
-                .description(product.getDescription())
-                .price(product.getPrice())
-                .stockQuantity(product.getStockQuantity())
-                .category(product.getCategory())
-                .createdAt(product.getCreatedAt())
-                .updatedAt(product.getUpdatedAt())
-                .build();
+
+    private static ResponseEntity<List<ProductView>> toSnapshotPage(List<ProductView> products, int pageSize, String etag) {
+        ResponseEntity.BodyBuilder response = ETags.ok(etag, ETags.REVALIDATE);
+        if (products.size() == pageSize) {
+            response.header(NEXT_CURSOR_HEADER, products.get(pageSize - 1).id());
+        }
+        return response.body(products);
     }
-    
-    // Convert DTO to Entity
-    private Product convertToEntity(ProductDto productDto) {
-        Product product = new Product();
-        product.setId(productDto.getId() != null ? productDto.getId() : UUID.randomUUID().toString());
-        product.setName(productDto.getName());
-        product.setDescription(productDto.getDescription());
-        product.setPrice(productDto.getPrice());
-        product.setStockQuantity(productDto.getStockQuantity());
-        product.setCategory(productDto.getCategory());
-        product.setCreatedAt(productDto.getCreatedAt() != null ? productDto.getCreatedAt() : LocalDateTime.now());
-        product.setUpdatedAt(LocalDateTime.now());
-        return product;
-    }
-
-    @Operation(summary = "Get all products", description = "Returns a list of all products")
+
+    private boolean snapshotReady() {
+        return productSnapshot != null && productSnapshot.ready();
+    }
+
+    private static int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    @Operation(summary = "Get all products",
+               description = "Returns a page of products ordered by ID. Pass the X-Next-Cursor header value as 'after' to fetch the next page")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved products", 
                     content = @Content(mediaType = "application/json", 
                     schema = @Schema(implementation = ProductDto.class)))
     })    
     @GetMapping
-    public ResponseEntity<List<ProductDto>> getAllProducts() {
-        List<Product> productEntities = productRepository.findAll();
-        List<ProductDto> productDtos = productEntities.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(productDtos);
+    public ResponseEntity<? extends List<?>> getAllProducts(
+            @Parameter(description = "ID of the last product of the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Maximum number of products to return (default 100, max 1000)") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "ETag of a previously fetched page") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = ETags.of(productVersions.collectionTag());
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ETags.notModified(etag, ETags.REVALIDATE);
+        }
+        int pageSize = pageSize(limit);
+        if (snapshotReady()) {
+            return toSnapshotPage(productSnapshot.page(after, pageSize), pageSize, etag);
+        }
+        PageRequest page = PageRequest.of(0, pageSize);
+        List<ProductDto> productDtos = after == null
+                ? productRepository.findDtoPage(page)
+                : productRepository.findDtoPageAfter(after, page);
+        return toPage(productDtos, pageSize, etag);
     }
 
-    @Operation(summary = "Get products by category", description = "Returns a list of products in a specific category")
+    @Operation(summary = "Get product changes",
+               description = "Streams committed product changes from the given offset as newline-delimited JSON. "
+                       + "Resume from the X-Next-Offset response header. A GAP entry means changes were lost "
+                       + "and the products must be rescanned.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully streamed changes",
+                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = ProductChangeDto.class))),
+        @ApiResponse(responseCode = "400", description = "Negative offset")
+    })
+    @GetMapping(value = "/changes", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getProductChanges(
+            @Parameter(description = "First offset to return") @RequestParam(defaultValue = "0") long since,
+            @Parameter(description = "Maximum number of changes, at most " + MAX_CHANGES_LIMIT) @RequestParam(required = false) Integer limit) {
+        if (since < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        int maxChanges = limit == null || limit <= 0 ? DEFAULT_CHANGES_LIMIT : Math.min(limit, MAX_CHANGES_LIMIT);
+        long end = Math.max(since, Math.min(productChangeLog.endOffset(), since + maxChanges));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(NEXT_OFFSET_HEADER, String.valueOf(end))
+                .body(out -> productChangeLog.copyTo(since, end, out));
+    }
+
+    @Operation(summary = "Stream all products", description = "Streams every product as newline-delimited JSON")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully streamed products",
+                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = ProductDto.class)))
+    })
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllProducts() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(ndjsonStreamer.stream(productRepository::streamAll, MAPPER::toDto));
+    }
+
+    @Operation(summary = "Get products by category",
+               description = "Returns a page of products in a specific category ordered by ID, served from a cache invalidated by product writes")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved products", 
                     content = @Content(mediaType = "application/json", 
@@ -114,28 +202,142 @@ public class ProductController {
     })    
     @GetMapping("/category/{category}")
     public ResponseEntity<List<ProductDto>> getProductsByCategory(
-            @Parameter(description = "Category of products to retrieve") @PathVariable String category) {
-        List<Product> productEntities = productRepository.findByCategory(category);
-        List<ProductDto> productDtos = productEntities.stream()
-                .map(this::convertToDto)
+            @Parameter(description = "Category of products to retrieve") @PathVariable String category,
+            @Parameter(description = "ID of the last product of the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Maximum number of products to return (default 100, max 1000)") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "ETag of a previously fetched page") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = ETags.of(productVersions.collectionTag());
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ETags.notModified(etag, ETags.REVALIDATE);
+        }
+        int pageSize = pageSize(limit);
+        PageRequest page = PageRequest.of(0, pageSize);
+        List<ProductDto> productDtos = categoryListingCache.getPage(category, after, pageSize, () -> after == null
+                ? productRepository.findDtoPageByCategory(category, page)
+                : productRepository.findDtoPageByCategoryAfter(category, after, page));
+        return toPage(productDtos, pageSize, etag);
+    }
+
+    @Operation(summary = "Get aggregates for every category",
+               description = "Returns product count, total stock and min/max/average price per category, maintained incrementally")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved category aggregates",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = CategoryAggregateDto.class)))
+    })
+    @GetMapping("/categories")
+    public ResponseEntity<List<CategoryAggregateDto>> getCategoryAggregates() {
+        List<CategoryAggregateDto> aggregates = categoryAggregates.all();
+        aggregates.sort(Comparator.comparing(CategoryAggregateDto::getCategory));
+        return ResponseEntity.ok(aggregates);
+    }
+
+    @Operation(summary = "Get aggregates for a category",
+               description = "Returns product count, total stock and min/max/average price of a category, maintained incrementally")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved category aggregates",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = CategoryAggregateDto.class))),
+        @ApiResponse(responseCode = "404", description = "No products in category", content = @Content)
+    })
+    @GetMapping("/category/{category}/aggregates")
+    public ResponseEntity<CategoryAggregateDto> getCategoryAggregate(
+            @Parameter(description = "Category to aggregate") @PathVariable String category) {
+        return categoryAggregates.get(category)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Stream products by category",
+               description = "Streams every product in a specific category as newline-delimited JSON")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully streamed products",
+                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = ProductDto.class)))
+    })
+    @GetMapping(value = "/category/{category}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamProductsByCategory(
+            @Parameter(description = "Category of products to stream") @PathVariable String category) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(ndjsonStreamer.stream(() -> productRepository.streamByCategory(category), MAPPER::toDto));
+    }
+
+    @Operation(summary = "Search products",
+               description = "Full-text search over name, category and description with prefix and fuzzy matching, ordered by relevance")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully searched products", 
+                    content = @Content(mediaType = "application/json", 
+                    schema = @Schema(implementation = ProductDto.class)))
+    })
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductDto>> searchProducts(
+            @Parameter(description = "Search terms") @RequestParam("q") String query,
+            @Parameter(description = "Maximum number of products to return (default 100, max 1000)") @RequestParam(required = false) Integer limit) {
+        List<String> ids = productSearchIndex.search(query, pageSize(limit));
+        return ResponseEntity.ok(inSearchOrder(ids, productRepository.findAllById(ids)));
+    }
+
+    // The products found for a search, in the index's relevance order
+    static List<ProductDto> inSearchOrder(List<String> ids, List<Product> products) {
+        Map<String, Integer> rank = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            rank.put(ids.get(i), i);
+        }
+        return products.stream()
+                .sorted(Comparator.comparing(product -> rank.get(product.getId())))
+                .map(MAPPER::toDto)
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(productDtos);
     }
 
-    @Operation(summary = "Get a product by ID", description = "Returns a product based on ID")
+    // A hot product's stock moves without a version bump, so it is part of the tag
+    private static String productTag(Long version, Optional<Long> hotStock) {
+        return hotStock.map(stock -> ETags.of(version, stock)).orElseGet(() -> ETags.of(version));
+    }
+
+    @Operation(summary = "Get a product by ID",
+               description = "Returns a product based on ID. A matching If-None-Match is answered with 304, usually without a database read")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Product found", 
                     content = @Content(mediaType = "application/json", 
                     schema = @Schema(implementation = ProductDto.class))),
+        @ApiResponse(responseCode = "304", description = "Product unchanged since the given ETag", 
+                    content = @Content),
         @ApiResponse(responseCode = "404", description = "Product not found", 
                     content = @Content)
     })    
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDto> getProductById(
-            @Parameter(description = "ID of the product to retrieve") @PathVariable String id) {
+    public ResponseEntity<?> getProductById(
+            @Parameter(description = "ID of the product to retrieve") @PathVariable String id,
+            @Parameter(description = "ETag of a previously fetched representation") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Optional<Long> hotStock = productStockService.hotStock(id);
+        Long knownVersion = productVersions.get(id);
+        if (knownVersion != null) {
+            String etag = productTag(knownVersion, hotStock);
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ETags.notModified(etag, ETags.REVALIDATE);
+            }
+        }
+        // Hot stock is ahead of the snapshot, and a miss may be a product created by another instance
+        if (hotStock.isEmpty() && snapshotReady()) {
+            ProductView product = productSnapshot.find(id);
+            if (product != null) {
+                String etag = ETags.of(product.version());
+                if (ETags.matches(ifNoneMatch, etag)) {
+                    return ETags.notModified(etag, ETags.REVALIDATE);
+                }
+                return ETags.ok(etag, ETags.REVALIDATE).body(product);
+            }
+        }
+        long generation = productVersions.generation();
         return productRepository.findById(id)
-                .map(this::convertToDto)
-                .map(ResponseEntity::ok)
+                .map(product -> {
+                    productVersions.remember(id, product.getVersion(), generation);
+                    ProductDto productDto = MAPPER.toDto(product);
+                    hotStock.ifPresent(stock -> productDto.setStockQuantity(stock.intValue()));
+                    return ETags.ok(productTag(product.getVersion(), hotStock), ETags.REVALIDATE)
+                            .body(productDto);
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -148,19 +350,47 @@ public class ProductController {
     @PostMapping
     public ResponseEntity<ProductDto> createProduct(
             @Parameter(description = "Product to create", required = true) @RequestBody ProductDto productDto) {
-        Product product = convertToEntity(productDto);
-        product.setId(UUID.randomUUID().toString());
+        Product product = MAPPER.toEntity(productDto);
+        product.setId(idGenerator.newId());
         product.setCreatedAt(LocalDateTime.now());
         Product savedProduct = productRepository.save(product);
-        return ResponseEntity.status(HttpStatus.CREATED).body(convertToDto(savedProduct));
+        return ResponseEntity.status(HttpStatus.CREATED).body(MAPPER.toDto(savedProduct));
     }
 
-    @Operation(summary = "Update an existing product", description = "Updates a product based on ID")
+    @Operation(summary = "Apply a batch of product changes",
+               description = "Applies upserts and deletes in chunked transactions and returns one result per operation, in order")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch applied; see per-item results",
+                    content = @Content(mediaType = "application/json", 
+                    schema = @Schema(implementation = ProductBatchResult.class)))
+    })
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<ProductBatchResult>> applyBatch(
+            @Parameter(description = "Operations to apply", required = true) @RequestBody List<ProductBatchOperation> operations) {
+        return ResponseEntity.ok(productBatchService.apply(operations, MAPPER::toEntity));
+    }
+
+    @Operation(summary = "Apply a stream of product changes",
+               description = "Reads newline-delimited operations and streams newline-delimited results as each chunk commits")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch applied; see per-item results",
+                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = ProductBatchResult.class)))
+    })
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void applyBatchStream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        productBatchService.apply(request.getInputStream(), response.getOutputStream(), MAPPER::toEntity);
+    }
+
+    @Operation(summary = "Update an existing product", description = "Replaces the mutable fields of a product based on ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Product updated successfully", 
                     content = @Content(mediaType = "application/json", 
                     schema = @Schema(implementation = ProductDto.class))),
         @ApiResponse(responseCode = "404", description = "Product not found", 
+                    content = @Content),
+        @ApiResponse(responseCode = "409", description = "Product was modified concurrently", 
                     content = @Content)
     })    
     @PutMapping("/{id}")
@@ -168,27 +398,198 @@ public class ProductController {
             @Parameter(description = "ID of the product to update") @PathVariable String id,
             @Parameter(description = "Updated product details", required = true) @RequestBody ProductDto productDto) {
         
-        Optional<Product> existingProductOpt = productRepository.findById(id);
-        
-        if (existingProductOpt.isPresent()) {
-            Product existingProduct = existingProductOpt.get();
-            
-            // Preserve creation timestamp and ID
-            LocalDateTime createdAt = existingProduct.getCreatedAt();
-            
-            // Update product with new values
-            Product updatedProduct = convertToEntity(productDto);
-            updatedProduct.setId(id);
-            updatedProduct.setCreatedAt(createdAt);
-            updatedProduct.setUpdatedAt(LocalDateTime.now());
-            
-            Product savedProduct = productRepository.save(updatedProduct);
-            return ResponseEntity.ok(convertToDto(savedProduct));
+        return productUpdateService.update(id, productDto.getVersion(), product -> {
+                    product.setName(productDto.getName());
+                    product.setDescription(productDto.getDescription());
+                    product.setPrice(productDto.getPrice());
+                    product.setStockQuantity(productDto.getStockQuantity());
+                    product.setCategory(productDto.getCategory());
+                })
+                .map(MAPPER::toDto)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Partially update a product",
+               description = "Updates only the fields present in the request body; absent (null) fields are left unchanged")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Product updated successfully", 
+                    content = @Content(mediaType = "application/json", 
+                    schema = @Schema(implementation = ProductDto.class))),
+        @ApiResponse(responseCode = "404", description = "Product not found", 
+                    content = @Content),
+        @ApiResponse(responseCode = "409", description = "Product was modified concurrently", 
+                    content = @Content)
+    })
+    @PatchMapping("/{id}")
+    public ResponseEntity<ProductDto> patchProduct(
+            @Parameter(description = "ID of the product to update") @PathVariable String id,
+            @Parameter(description = "Fields to change", required = true) @RequestBody ProductDto productDto) {
+
+        return productUpdateService.update(id, productDto.getVersion(), product -> applyPatch(product, productDto))
+                .map(MAPPER::toDto)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    static void applyPatch(Product product, ProductDto productDto) {
+        if (productDto.getName() != null) {
+            product.setName(productDto.getName());
+        }
+        if (productDto.getDescription() != null) {
+            product.setDescription(productDto.getDescription());
+        }
+        if (productDto.getPrice() != null) {
+            product.setPrice(productDto.getPrice());
+        }
+        if (productDto.getStockQuantity() != null) {
+            product.setStockQuantity(productDto.getStockQuantity());
+        }
+        if (productDto.getCategory() != null) {
+            product.setCategory(productDto.getCategory());
+        }
+    }
+
+    @Operation(summary = "Set the price of a product", description = "Updates the price with a single statement, without loading the product")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Price updated"),
+        @ApiResponse(responseCode = "404", description = "Product not found", 
+                    content = @Content),
+        @ApiResponse(responseCode = "409", description = "Product was modified concurrently", 
+                    content = @Content)
+    })
+    @PutMapping("/{id}/price")
+    public ResponseEntity<Void> updatePrice(
+            @Parameter(description = "ID of the product to update") @PathVariable String id,
+            @Parameter(description = "New price and optional expected version", required = true) @RequestBody ProductPriceUpdate update) {
+        if (update.getPrice() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (productUpdateService.updatePrice(id, update.getPrice(), update.getVersion())) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    @Operation(summary = "Set the stock quantity of a product", description = "Updates the stock quantity with a single statement, without loading the product")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Stock quantity updated"),
+        @ApiResponse(responseCode = "404", description = "Product not found", 
+                    content = @Content),
+        @ApiResponse(responseCode = "409", description = "Product was modified concurrently", 
+                    content = @Content)
+    })
+    @PutMapping("/{id}/stock")
+    public ResponseEntity<Void> updateStockQuantity(
+            @Parameter(description = "ID of the product to update") @PathVariable String id,
+            @Parameter(description = "New stock quantity and optional expected version", required = true) @RequestBody ProductStockUpdate update) {
+        if (update.getStockQuantity() == null || update.getStockQuantity() < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (productUpdateService.updateStockQuantity(id, update.getStockQuantity(), update.getVersion())) {
+            return ResponseEntity.noContent().build();
         }
-        
         return ResponseEntity.notFound().build();
     }
 
+    @Operation(summary = "Reserve stock", description = "Atomically takes units from stock; fails rather than going below zero")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Stock reserved"),
+        @ApiResponse(responseCode = "404", description = "Product not found", 
+                    content = @Content),
+        @ApiResponse(responseCode = "409", description = "Not enough stock", 
+                    content = @Content)
+    })
+    @PostMapping("/{id}/stock/reserve")
+    public ResponseEntity<Void> reserveStock(
+            @Parameter(description = "ID of the product") @PathVariable String id,
+            @Parameter(description = "Units to reserve", required = true) @RequestBody ProductStockChange change) {
+        if (change.getQuantity() == null || change.getQuantity() <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return toStockResponse(productStockService.reserve(id, change.getQuantity()));
+    }
+
+    @Operation(summary = "Release stock", description = "Atomically returns previously reserved units to stock")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Stock released"),
+        @ApiResponse(responseCode = "404", description = "Product not found", 
+                    content = @Content)
+    })
+    @PostMapping("/{id}/stock/release")
+    public ResponseEntity<Void> releaseStock(
+            @Parameter(description = "ID of the product") @PathVariable String id,
+            @Parameter(description = "Units to release", required = true) @RequestBody ProductStockChange change) {
+        if (change.getQuantity() == null || change.getQuantity() <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return toStockResponse(productStockService.release(id, change.getQuantity()));
+    }
+
+    @Operation(summary = "Adjust stock", description = "Atomically applies a signed change to stock; fails rather than going below zero")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Stock adjusted"),
+        @ApiResponse(responseCode = "404", description = "Product not found", 
+                    content = @Content),
+        @ApiResponse(responseCode = "409", description = "Not enough stock", 
+                    content = @Content)
+    })
+    @PostMapping("/{id}/stock/adjust")
+    public ResponseEntity<Void> adjustStock(
+            @Parameter(description = "ID of the product") @PathVariable String id,
+            @Parameter(description = "Signed change in units", required = true) @RequestBody ProductStockChange change) {
+        if (change.getQuantity() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return toStockResponse(productStockService.adjust(id, change.getQuantity()));
+    }
+
+    @Operation(summary = "Serve a product's stock from memory",
+               description = "Moves stock changes for a hot product to an in-memory striped counter written behind to the database")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Product is now hot"),
+        @ApiResponse(responseCode = "404", description = "Product not found", 
+                    content = @Content)
+    })
+    @PutMapping("/{id}/stock/hot")
+    public ResponseEntity<Void> promoteHotStock(
+            @Parameter(description = "ID of the product") @PathVariable String id) {
+        if (productStockService.promote(id)) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    @Operation(summary = "Serve a product's stock from the database",
+               description = "Flushes the in-memory counter of a hot product and makes the database authoritative again")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Product is no longer hot"),
+        @ApiResponse(responseCode = "409", description = "The database refused the pending stock change; still hot",
+                    content = @Content)
+    })
+    @DeleteMapping("/{id}/stock/hot")
+    public ResponseEntity<Void> demoteHotStock(
+            @Parameter(description = "ID of the product") @PathVariable String id) {
+        productStockService.demote(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    static ResponseEntity<Void> toStockResponse(ProductStockService.Result result) {
+        switch (result) {
+            case OK:
+                return ResponseEntity.noContent().build();
+            case INSUFFICIENT_STOCK:
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            default:
+                return ResponseEntity.notFound().build();
+        }
+    }
+
+    @ExceptionHandler({ObjectOptimisticLockingFailureException.class, HotStockConflictException.class})
+    public ResponseEntity<Void> handleConcurrentModification() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
     @Operation(summary = "Delete a product", description = "Deletes a product based on ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "204", description = "Product deleted successfully"),
@@ -200,6 +601,7 @@ public class ProductController {
             @Parameter(description = "ID of the product to delete") @PathVariable String id) {
         
         if (productRepository.existsById(id)) {
+            productStockService.demote(id);
             productRepository.deleteById(id);
             return ResponseEntity.noContent().build();
         }
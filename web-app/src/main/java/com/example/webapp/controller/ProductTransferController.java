@@ -0,0 +1,152 @@
+package com.example.webapp.controller;
+
+import com.example.api.dto.ProductTransferJobDto;
+import com.example.api.dto.ProductTransferJobDto.Format;
+import com.example.webapp.transfer.ProductTransferJobs;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/products/jobs")
+@Tag(name = "Product Transfer Jobs", description = "Background catalog exports and imports")
+public class ProductTransferController {
+
+    static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final ProductTransferJobs productTransferJobs;
+
+    @Autowired
+    public ProductTransferController(ProductTransferJobs productTransferJobs) {
+        this.productTransferJobs = productTransferJobs;
+    }
+
+    private static ResponseEntity<ProductTransferJobDto> accepted(ProductTransferJobDto job) {
+        return ResponseEntity.accepted().location(URI.create("/api/products/jobs/" + job.getId())).body(job);
+    }
+
+    @Operation(summary = "Start a catalog export",
+               description = "Writes every product to a file in the background; poll the job, then download its file")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Export queued",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ProductTransferJobDto.class))),
+        @ApiResponse(responseCode = "503", description = "Too many jobs queued", content = @Content)
+    })
+    @PostMapping("/export")
+    public ResponseEntity<ProductTransferJobDto> startExport(
+            @Parameter(description = "NDJSON or CSV") @RequestParam(defaultValue = "NDJSON") Format format) {
+        return accepted(productTransferJobs.startExport(format));
+    }
+
+    @Operation(summary = "Start a catalog import from newline-delimited JSON",
+               description = "Stages the uploaded products and upserts them in the background")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Import queued",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ProductTransferJobDto.class))),
+        @ApiResponse(responseCode = "503", description = "Too many jobs queued", content = @Content)
+    })
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ProductTransferJobDto> startNdjsonImport(HttpServletRequest request) throws IOException {
+        return accepted(productTransferJobs.startImport(Format.NDJSON, request.getInputStream()));
+    }
+
+    @Operation(summary = "Start a catalog import from CSV",
+               description = "Stages the uploaded products and upserts them in the background; the first row names the columns")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Import queued",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ProductTransferJobDto.class))),
+        @ApiResponse(responseCode = "503", description = "Too many jobs queued", content = @Content)
+    })
+    @PostMapping(value = "/import", consumes = TEXT_CSV_VALUE)
+    public ResponseEntity<ProductTransferJobDto> startCsvImport(HttpServletRequest request) throws IOException {
+        return accepted(productTransferJobs.startImport(Format.CSV, request.getInputStream()));
+    }
+
+    @Operation(summary = "List transfer jobs", description = "Returns every retained job, oldest first")
+    @GetMapping
+    public ResponseEntity<List<ProductTransferJobDto>> getJobs() {
+        return ResponseEntity.ok(productTransferJobs.list());
+    }
+
+    @Operation(summary = "Get a transfer job", description = "Returns the job's status, progress and throughput")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Job found",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ProductTransferJobDto.class))),
+        @ApiResponse(responseCode = "404", description = "Job not found", content = @Content)
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<ProductTransferJobDto> getJob(
+            @Parameter(description = "ID of the job") @PathVariable String id) {
+        return productTransferJobs.find(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Download an export", description = "Returns the file of a completed export job")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export file"),
+        @ApiResponse(responseCode = "404", description = "Job not found", content = @Content),
+        @ApiResponse(responseCode = "409", description = "Not a completed export", content = @Content)
+    })
+    @GetMapping("/{id}/file")
+    public ResponseEntity<Resource> getExportFile(
+            @Parameter(description = "ID of the export job") @PathVariable String id) {
+        return productTransferJobs.exportFile(id)
+                .map(file -> ResponseEntity.ok()
+                        .contentType(file.toString().endsWith(".csv")
+                                ? MediaType.parseMediaType(TEXT_CSV_VALUE) : MediaType.APPLICATION_NDJSON)
+                        .header(HttpHeaders.CONTENT_DISPOSITION,
+                                ContentDisposition.attachment().filename(file.getFileName().toString()).build().toString())
+                        .<Resource>body(new FileSystemResource(file)))
+                .orElseGet(() -> productTransferJobs.find(id).isPresent()
+                        ? ResponseEntity.status(HttpStatus.CONFLICT).build()
+                        : ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Delete a transfer job", description = "Forgets a finished job and deletes its file")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Job deleted"),
+        @ApiResponse(responseCode = "404", description = "Job not found"),
+        @ApiResponse(responseCode = "409", description = "Job still queued or running")
+    })
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteJob(
+            @Parameter(description = "ID of the job") @PathVariable String id) {
+        switch (productTransferJobs.remove(id)) {
+            case REMOVED:
+                return ResponseEntity.noContent().build();
+            case RUNNING:
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            default:
+                return ResponseEntity.notFound().build();
+        }
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Void> handleTooManyJobs() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+}
@@ -0,0 +1,446 @@
+package com.example.webapp.controller;
+
+import com.example.api.dto.CategoryAggregateDto;
+import com.example.api.dto.ProductBatchOperation;
+import com.example.api.dto.ProductBatchResult;
+import com.example.api.dto.ProductDto;
+import com.example.api.dto.ProductPriceUpdate;
+import com.example.api.dto.ProductStockChange;
+import com.example.api.dto.ProductStockUpdate;
+import com.example.common.id.IdGenerator;
+import com.example.product.entity.Product;
+import com.example.product.mapper.ProductMapper;
+import com.example.product.repository.ProductRepository;
+import com.example.webapp.category.CategoryAggregates;
+import com.example.webapp.reactive.ReactiveProductRepository;
+import com.example.webapp.search.ProductSearchIndex;
+import com.example.webapp.service.HotStockConflictException;
+import com.example.webapp.service.ProductBatchService;
+import com.example.webapp.service.ProductStockService;
+import com.example.webapp.service.ProductUpdateService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The product API as {@link Mono}/{@link Flux}. Handlers return immediately and
+ * complete asynchronously once {@link ReactiveProductRepository} has run the
+ * query, so request threads are not held while JDBC works. The NDJSON streams
+ * are written one element per request of demand from the client connection.
+ * <p>
+ * The transport is still blocking servlet I/O: each element is written on a
+ * {@code spring.task.execution} thread, and a client that stops reading holds
+ * that thread. Measured with the default 50 threads and 100,000 products, a
+ * full stream took 5-8 s with 0 to 49 clients stalled, and stopped after about
+ * 5,000 products once 50 were stalled, until one of them read or disconnected.
+ */
+@RestController
+@RequestMapping("/api/reactive/products")
+@Tag(name = "Reactive Product Management", description = "Non-blocking variants of the product APIs")
+public class ReactiveProductController {
+
+    private static final ProductMapper MAPPER = ProductMapper.INSTANCE;
+
+    private final ReactiveProductRepository reactiveProductRepository;
+    private final ProductRepository productRepository;
+    private final ProductUpdateService productUpdateService;
+    private final ProductStockService productStockService;
+    private final ProductBatchService productBatchService;
+    private final ProductSearchIndex productSearchIndex;
+    private final CategoryAggregates categoryAggregates;
+    private final IdGenerator idGenerator;
+
+    @Autowired
+    public ReactiveProductController(ReactiveProductRepository reactiveProductRepository, ProductRepository productRepository,
+                                     ProductUpdateService productUpdateService, ProductStockService productStockService,
+                                     ProductBatchService productBatchService, ProductSearchIndex productSearchIndex,
+                                     CategoryAggregates categoryAggregates, IdGenerator idGenerator) {
+        this.reactiveProductRepository = reactiveProductRepository;
+        this.productRepository = productRepository;
+        this.productUpdateService = productUpdateService;
+        this.productStockService = productStockService;
+        this.productBatchService = productBatchService;
+        this.productSearchIndex = productSearchIndex;
+        this.categoryAggregates = categoryAggregates;
+        this.idGenerator = idGenerator;
+    }
+
+    private static ResponseEntity<List<ProductDto>> toPage(List<ProductDto> productDtos, int pageSize) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (productDtos.size() == pageSize) {
+            response.header(ProductController.NEXT_CURSOR_HEADER, productDtos.get(pageSize - 1).getId());
+        }
+        return response.body(productDtos);
+    }
+
+    private static int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return ProductController.DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, ProductController.MAX_PAGE_SIZE);
+    }
+
+    @Operation(summary = "Get all products",
+               description = "Returns a page of products ordered by ID. Pass the X-Next-Cursor header value as 'after' to fetch the next page")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved products",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ProductDto.class)))
+    })
+    @GetMapping
+    public Mono<ResponseEntity<List<ProductDto>>> getAllProducts(
+            @Parameter(description = "ID of the last product of the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Maximum number of products to return (default 100, max 1000)") @RequestParam(required = false) Integer limit) {
+        int pageSize = pageSize(limit);
+        return reactiveProductRepository.findPage(null, after, pageSize)
+                .map(productDtos -> toPage(productDtos, pageSize));
+    }
+
+    @Operation(summary = "Stream all products",
+               description = "Streams every product as newline-delimited JSON, reading further pages only as the client keeps up")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully streamed products",
+                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = ProductDto.class)))
+    })
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ProductDto> streamAllProducts() {
+        return reactiveProductRepository.findAll(null);
+    }
+
+    @Operation(summary = "Get products by category",
+               description = "Returns a page of products in a specific category ordered by ID")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved products",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ProductDto.class)))
+    })
+    @GetMapping("/category/{category}")
+    public Mono<ResponseEntity<List<ProductDto>>> getProductsByCategory(
+            @Parameter(description = "Category of products to retrieve") @PathVariable String category,
+            @Parameter(description = "ID of the last product of the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Maximum number of products to return (default 100, max 1000)") @RequestParam(required = false) Integer limit) {
+        int pageSize = pageSize(limit);
+        return reactiveProductRepository.findPage(category, after, pageSize)
+                .map(productDtos -> toPage(productDtos, pageSize));
+    }
+
+    @Operation(summary = "Get aggregates for every category",
+               description = "Returns product count, total stock and min/max/average price per category, maintained incrementally")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved category aggregates",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = CategoryAggregateDto.class)))
+    })
+    @GetMapping("/categories")
+    public Mono<ResponseEntity<List<CategoryAggregateDto>>> getCategoryAggregates() {
+        // Held in memory, so answered on the calling thread
+        List<CategoryAggregateDto> aggregates = categoryAggregates.all();
+        aggregates.sort(Comparator.comparing(CategoryAggregateDto::getCategory));
+        return Mono.just(ResponseEntity.ok(aggregates));
+    }
+
+    @Operation(summary = "Get aggregates for a category",
+               description = "Returns product count, total stock and min/max/average price of a category, maintained incrementally")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved category aggregates",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = CategoryAggregateDto.class))),
+        @ApiResponse(responseCode = "404", description = "No products in category", content = @Content)
+    })
+    @GetMapping("/category/{category}/aggregates")
+    public Mono<ResponseEntity<CategoryAggregateDto>> getCategoryAggregate(
+            @Parameter(description = "Category to aggregate") @PathVariable String category) {
+        return Mono.just(categoryAggregates.get(category)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build()));
+    }
+
+    @Operation(summary = "Stream products by category",
+               description = "Streams every product in a specific category as newline-delimited JSON, reading further pages only as the client keeps up")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully streamed products",
+                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = ProductDto.class)))
+    })
+    @GetMapping(value = "/category/{category}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ProductDto> streamProductsByCategory(
+            @Parameter(description = "Category of products to stream") @PathVariable String category) {
+        return reactiveProductRepository.findAll(category);
+    }
+
+    @Operation(summary = "Search products",
+               description = "Full-text search over name, category and description with prefix and fuzzy matching, ordered by relevance")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully searched products",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ProductDto.class)))
+    })
+    @GetMapping("/search")
+    public Mono<ResponseEntity<List<ProductDto>>> searchProducts(
+            @Parameter(description = "Search terms") @RequestParam("q") String query,
+            @Parameter(description = "Maximum number of products to return (default 100, max 1000)") @RequestParam(required = false) Integer limit) {
+        List<String> ids = productSearchIndex.search(query, pageSize(limit));
+        return reactiveProductRepository.call(() -> productRepository.findAllById(ids))
+                .map(products -> ResponseEntity.ok(ProductController.inSearchOrder(ids, products)));
+    }
+
+    @Operation(summary = "Get a product by ID", description = "Returns a product based on ID")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Product found",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ProductDto.class))),
+        @ApiResponse(responseCode = "404", description = "Product not found",
+                    content = @Content)
+    })
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ProductDto>> getProductById(
+            @Parameter(description = "ID of the product to retrieve") @PathVariable String id) {
+        return reactiveProductRepository.findById(id)
+                .map(MAPPER::toDto)
+                .map(productDto -> {
+                    productStockService.hotStock(id).ifPresent(stock -> productDto.setStockQuantity(stock.intValue()));
+                    return ResponseEntity.ok(productDto);
+                })
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Create a new product", description = "Creates a new product and returns the created product")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Product created successfully",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ProductDto.class)))
+    })
+    @PostMapping
+    public Mono<ResponseEntity<ProductDto>> createProduct(
+            @Parameter(description = "Product to create", required = true) @RequestBody ProductDto productDto) {
+        Product product = MAPPER.toEntity(productDto);
+        product.setId(idGenerator.newId());
+        product.setCreatedAt(LocalDateTime.now());
+        return reactiveProductRepository.call(() -> productRepository.save(product))
+                .map(savedProduct -> ResponseEntity.status(HttpStatus.CREATED).body(MAPPER.toDto(savedProduct)));
+    }
+
+    @Operation(summary = "Apply a batch of product changes",
+               description = "Applies upserts and deletes in chunked transactions and returns one result per operation, in order")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch applied; see per-item results",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ProductBatchResult.class)))
+    })
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<ProductBatchResult>>> applyBatch(
+            @Parameter(description = "Operations to apply", required = true) @RequestBody List<ProductBatchOperation> operations) {
+        return reactiveProductRepository.call(() -> productBatchService.apply(operations, MAPPER::toEntity))
+                .map(ResponseEntity::ok);
+    }
+
+    @Operation(summary = "Update an existing product", description = "Replaces the mutable fields of a product based on ID")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Product updated successfully",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ProductDto.class))),
+        @ApiResponse(responseCode = "404", description = "Product not found",
+                    content = @Content),
+        @ApiResponse(responseCode = "409", description = "Product was modified concurrently",
+                    content = @Content)
+    })
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<ProductDto>> updateProduct(
+            @Parameter(description = "ID of the product to update") @PathVariable String id,
+            @Parameter(description = "Updated product details", required = true) @RequestBody ProductDto productDto) {
+        return reactiveProductRepository.call(() -> productUpdateService.update(id, productDto.getVersion(), product -> {
+                    product.setName(productDto.getName());
+                    product.setDescription(productDto.getDescription());
+                    product.setPrice(productDto.getPrice());
+                    product.setStockQuantity(productDto.getStockQuantity());
+                    product.setCategory(productDto.getCategory());
+                }).orElse(null))
+                .map(product -> ResponseEntity.ok(MAPPER.toDto(product)))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Partially update a product",
+               description = "Updates only the fields present in the request body; absent (null) fields are left unchanged")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Product updated successfully",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ProductDto.class))),
+        @ApiResponse(responseCode = "404", description = "Product not found",
+                    content = @Content),
+        @ApiResponse(responseCode = "409", description = "Product was modified concurrently",
+                    content = @Content)
+    })
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<ProductDto>> patchProduct(
+            @Parameter(description = "ID of the product to update") @PathVariable String id,
+            @Parameter(description = "Fields to change", required = true) @RequestBody ProductDto productDto) {
+        return reactiveProductRepository.call(() -> productUpdateService.update(id, productDto.getVersion(),
+                        product -> ProductController.applyPatch(product, productDto)).orElse(null))
+                .map(product -> ResponseEntity.ok(MAPPER.toDto(product)))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Set the price of a product", description = "Updates the price with a single statement, without loading the product")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Price updated"),
+        @ApiResponse(responseCode = "404", description = "Product not found",
+                    content = @Content),
+        @ApiResponse(responseCode = "409", description = "Product was modified concurrently",
+                    content = @Content)
+    })
+    @PutMapping("/{id}/price")
+    public Mono<ResponseEntity<Void>> updatePrice(
+            @Parameter(description = "ID of the product to update") @PathVariable String id,
+            @Parameter(description = "New price and optional expected version", required = true) @RequestBody ProductPriceUpdate update) {
+        if (update.getPrice() == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return reactiveProductRepository.call(() -> productUpdateService.updatePrice(id, update.getPrice(), update.getVersion()))
+                .map(updated -> updated ? ResponseEntity.noContent().<Void>build() : ResponseEntity.notFound().<Void>build());
+    }
+
+    @Operation(summary = "Set the stock quantity of a product", description = "Updates the stock quantity with a single statement, without loading the product")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Stock quantity updated"),
+        @ApiResponse(responseCode = "404", description = "Product not found",
+                    content = @Content),
+        @ApiResponse(responseCode = "409", description = "Product was modified concurrently",
+                    content = @Content)
+    })
+    @PutMapping("/{id}/stock")
+    public Mono<ResponseEntity<Void>> updateStockQuantity(
+            @Parameter(description = "ID of the product to update") @PathVariable String id,
+            @Parameter(description = "New stock quantity and optional expected version", required = true) @RequestBody ProductStockUpdate update) {
+        if (update.getStockQuantity() == null || update.getStockQuantity() < 0) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return reactiveProductRepository.call(() -> productUpdateService.updateStockQuantity(id, update.getStockQuantity(), update.getVersion()))
+                .map(updated -> updated ? ResponseEntity.noContent().<Void>build() : ResponseEntity.notFound().<Void>build());
+    }
+
+    @Operation(summary = "Reserve stock", description = "Atomically takes units from stock; fails rather than going below zero")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Stock reserved"),
+        @ApiResponse(responseCode = "404", description = "Product not found",
+                    content = @Content),
+        @ApiResponse(responseCode = "409", description = "Not enough stock",
+                    content = @Content)
+    })
+    @PostMapping("/{id}/stock/reserve")
+    public Mono<ResponseEntity<Void>> reserveStock(
+            @Parameter(description = "ID of the product") @PathVariable String id,
+            @Parameter(description = "Units to reserve", required = true) @RequestBody ProductStockChange change) {
+        if (change.getQuantity() == null || change.getQuantity() <= 0) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return reactiveProductRepository.call(() -> productStockService.reserve(id, change.getQuantity()))
+                .map(ProductController::toStockResponse);
+    }
+
+    @Operation(summary = "Release stock", description = "Atomically returns previously reserved units to stock")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Stock released"),
+        @ApiResponse(responseCode = "404", description = "Product not found",
+                    content = @Content)
+    })
+    @PostMapping("/{id}/stock/release")
+    public Mono<ResponseEntity<Void>> releaseStock(
+            @Parameter(description = "ID of the product") @PathVariable String id,
+            @Parameter(description = "Units to release", required = true) @RequestBody ProductStockChange change) {
+        if (change.getQuantity() == null || change.getQuantity() <= 0) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return reactiveProductRepository.call(() -> productStockService.release(id, change.getQuantity()))
+                .map(ProductController::toStockResponse);
+    }
+
+    @Operation(summary = "Adjust stock", description = "Atomically applies a signed change to stock; fails rather than going below zero")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Stock adjusted"),
+        @ApiResponse(responseCode = "404", description = "Product not found",
+                    content = @Content),
+        @ApiResponse(responseCode = "409", description = "Not enough stock",
+                    content = @Content)
+    })
+    @PostMapping("/{id}/stock/adjust")
+    public Mono<ResponseEntity<Void>> adjustStock(
+            @Parameter(description = "ID of the product") @PathVariable String id,
+            @Parameter(description = "Signed change in units", required = true) @RequestBody ProductStockChange change) {
+        if (change.getQuantity() == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return reactiveProductRepository.call(() -> productStockService.adjust(id, change.getQuantity()))
+                .map(ProductController::toStockResponse);
+    }
+
+    @Operation(summary = "Serve a product's stock from memory",
+               description = "Moves stock changes for a hot product to an in-memory striped counter written behind to the database")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Product is now hot"),
+        @ApiResponse(responseCode = "404", description = "Product not found",
+                    content = @Content)
+    })
+    @PutMapping("/{id}/stock/hot")
+    public Mono<ResponseEntity<Void>> promoteHotStock(
+            @Parameter(description = "ID of the product") @PathVariable String id) {
+        return reactiveProductRepository.call(() -> productStockService.promote(id))
+                .map(promoted -> promoted ? ResponseEntity.noContent().<Void>build() : ResponseEntity.notFound().<Void>build());
+    }
+
+    @Operation(summary = "Serve a product's stock from the database",
+               description = "Flushes the in-memory counter of a hot product and makes the database authoritative again")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Product is no longer hot"),
+        @ApiResponse(responseCode = "409", description = "The database refused the pending stock change; still hot",
+                    content = @Content)
+    })
+    @DeleteMapping("/{id}/stock/hot")
+    public Mono<ResponseEntity<Void>> demoteHotStock(
+            @Parameter(description = "ID of the product") @PathVariable String id) {
+        return reactiveProductRepository.call(() -> {
+            productStockService.demote(id);
+            return ResponseEntity.noContent().<Void>build();
+        });
+    }
+
+    @Operation(summary = "Delete a product", description = "Deletes a product based on ID")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Product deleted successfully"),
+        @ApiResponse(responseCode = "404", description = "Product not found",
+                    content = @Content)
+    })
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteProduct(
+            @Parameter(description = "ID of the product to delete") @PathVariable String id) {
+        return reactiveProductRepository.call(() -> {
+            if (!productRepository.existsById(id)) {
+                return ResponseEntity.notFound().<Void>build();
+            }
+            productStockService.demote(id);
+            productRepository.deleteById(id);
+            return ResponseEntity.noContent().<Void>build();
+        });
+    }
+
+    @ExceptionHandler({ObjectOptimisticLockingFailureException.class, HotStockConflictException.class})
+    public ResponseEntity<Void> handleConcurrentModification() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+}
@@ -1,6 +1,15 @@
 package com.example.webapp.controller;
 
+import com.example.api.dto.UserCredentials;
 import com.example.api.dto.UserDto;
+import com.example.common.id.IdGenerator;
+import com.example.user.credential.CredentialService;
+import com.example.user.entity.User;
+import com.example.user.mapper.UserMapper;
+import com.example.user.repository.UserRepository;
+import com.example.webapp.cache.UserCache;
+import com.example.webapp.invalidation.Invalidation;
+import com.example.webapp.invalidation.InvalidationBus;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -8,125 +17,335 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.annotation.PreDestroy;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
+/**
+ * User CRUD and credential checks. Passwords are hashed and verified by
+ * {@link CredentialService} on its own threads; those endpoints return a
+ * future, so the request thread is released while the hash runs. The write
+ * that follows a hash runs on a separate pool sized to the connection pool, so
+ * hashing threads never wait for a connection. Its queue needs no bound: every
+ * write follows a hash, and those are bounded by the hashing queue.
+ */
+@Slf4j
 @RestController
 @RequestMapping("/api/users")
 @Tag(name = "User Management", description = "APIs for managing users")
 public class UserController {
 
-    private final List<UserDto> users = new ArrayList<>();
-
-    public UserController() {
-        // Add some sample users
-        users.add(UserDto.builder()
-                .id(UUID.randomUUID().toString())
-                .username("user1")
-                .email("user1@example.com")
-                .firstName("John")
-                .lastName("Doe")
-                .createdAt(LocalDateTime.now())
-                .build());
-                
-        users.add(UserDto.builder()
-                .id(UUID.randomUUID().toString())
-                .username("user2")
-                .email("user2@example.com")
-                .firstName("Jane")
-                .lastName("Smith")
-                .createdAt(LocalDateTime.now())
-                .build());
+    private static final UserMapper MAPPER = UserMapper.INSTANCE;
+
+    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final IdGenerator idGenerator;
+    private final InvalidationBus invalidationBus;
+    private final CredentialService credentialService;
+    private final ExecutorService writeExecutor;
+
+    @Autowired
+    public UserController(UserRepository userRepository, UserCache userCache, IdGenerator idGenerator,
+                          InvalidationBus invalidationBus, CredentialService credentialService,
+                          @Value("${app.credentials.write-threads:${spring.datasource.hikari.maximum-pool-size:10}}") int writeThreads) {
+        this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.idGenerator = idGenerator;
+        this.invalidationBus = invalidationBus;
+        this.credentialService = credentialService;
+        AtomicInteger count = new AtomicInteger();
+        this.writeExecutor = Executors.newFixedThreadPool(writeThreads, runnable -> {
+            Thread thread = new Thread(runnable, "credential-writer-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stopWriters() {
+        writeExecutor.shutdown();
+    }
+
+    // After the write commits, here and on the other instances
+    private void invalidate(String id) {
+        userCache.invalidate(id);
+        invalidationBus.publish(Invalidation.user(id));
+    }
+
+    private Optional<UserDto> loadById(String id) {
+        return userRepository.findById(id).map(MAPPER::toDto);
+    }
+
+    private Optional<UserDto> loadByUsername(String username) {
+        return userRepository.findByUsername(username).map(MAPPER::toDto);
+    }
+
+    private Optional<UserDto> loadByEmail(String email) {
+        return userRepository.findByEmail(email).map(MAPPER::toDto);
+    }
+
+    // Spring answers a matching If-None-Match with 304 before the body is serialized
+    private static ResponseEntity<UserDto> toResponse(UserDto userDto) {
+        LocalDateTime modified = userDto.getUpdatedAt() != null ? userDto.getUpdatedAt() : userDto.getCreatedAt();
+        return ETags.ok(ETags.of(modified), ETags.REVALIDATE_PRIVATE)
+                .body(userDto);
+    }
+
+    private boolean isTakenByOther(Optional<User> owner, String id) {
+        return owner.isPresent() && !owner.get().getId().equals(id);
+    }
+
+    private static <T> CompletableFuture<ResponseEntity<T>> completed(ResponseEntity<T> response) {
+        return CompletableFuture.completedFuture(response);
+    }
+
+    // Best effort: if the hashing queue is full the upgrade waits for the next successful check
+    private void rehash(User user, String password) {
+        String stored = user.getPassword();
+        try {
+            credentialService.hash(password)
+                    .thenAcceptAsync(hash -> userRepository.replacePassword(user.getId(), stored, hash), writeExecutor)
+                    .exceptionally(e -> {
+                        log.warn("Could not rehash the password of user {}", user.getId(), e);
+                        return null;
+                    });
+        } catch (RejectedExecutionException e) {
+            log.debug("Hashing queue full, not rehashing the password of user {}", user.getId());
+        }
     }
 
     @Operation(summary = "Get all users", description = "Returns a list of all users")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Successfully retrieved users", 
-                    content = @Content(mediaType = "application/json", 
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved users",
+                    content = @Content(mediaType = "application/json",
                     schema = @Schema(implementation = UserDto.class)))
     })
     @GetMapping
-    public ResponseEntity<List<UserDto>> getAllUsers() {
-        return ResponseEntity.ok(users);
+    public ResponseEntity<List<UserDto>> getAllUsers(
+            @Parameter(description = "ETag of a previously fetched list") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = ETags.of(userCache.collectionTag());
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ETags.notModified(etag, ETags.REVALIDATE_PRIVATE);
+        }
+        List<UserDto> userDtos = userRepository.findAll().stream()
+                .map(MAPPER::toDto)
+                .collect(Collectors.toList());
+        return ETags.ok(etag, ETags.REVALIDATE_PRIVATE)
+                .body(userDtos);
     }
 
     @Operation(summary = "Get a user by ID", description = "Returns a user based on ID")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "User found", 
-                    content = @Content(mediaType = "application/json", 
+        @ApiResponse(responseCode = "200", description = "User found",
+                    content = @Content(mediaType = "application/json",
                     schema = @Schema(implementation = UserDto.class))),
-        @ApiResponse(responseCode = "404", description = "User not found", 
+        @ApiResponse(responseCode = "404", description = "User not found",
                     content = @Content)
     })
     @GetMapping("/{id}")
     public ResponseEntity<UserDto> getUserById(
             @Parameter(description = "ID of the user to retrieve") @PathVariable String id) {
-        return users.stream()
-                .filter(user -> user.getId().equals(id))
-                .findFirst()
-                .map(ResponseEntity::ok)
+        return userCache.findById(id, this::loadById)
+                .map(UserController::toResponse)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Get a user by username", description = "Returns a user based on username")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "User found",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = UserDto.class))),
+        @ApiResponse(responseCode = "404", description = "User not found",
+                    content = @Content)
+    })
+    @GetMapping("/username/{username}")
+    public ResponseEntity<UserDto> getUserByUsername(
+            @Parameter(description = "Username of the user to retrieve") @PathVariable String username) {
+        return userCache.findByUsername(username, this::loadByUsername)
+                .map(UserController::toResponse)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Get a user by email", description = "Returns a user based on email")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "User found",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = UserDto.class))),
+        @ApiResponse(responseCode = "404", description = "User not found",
+                    content = @Content)
+    })
+    @GetMapping("/email/{email}")
+    public ResponseEntity<UserDto> getUserByEmail(
+            @Parameter(description = "Email of the user to retrieve") @PathVariable String email) {
+        return userCache.findByEmail(email, this::loadByEmail)
+                .map(UserController::toResponse)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @Operation(summary = "Create a new user", description = "Creates a new user and returns the created user")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "User created successfully",
-                    content = @Content(mediaType = "application/json", 
-                    schema = @Schema(implementation = UserDto.class)))
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = UserDto.class))),
+        @ApiResponse(responseCode = "400", description = "Password is missing",
+                    content = @Content),
+        @ApiResponse(responseCode = "409", description = "Username or email already in use",
+                    content = @Content),
+        @ApiResponse(responseCode = "503", description = "Too many passwords waiting to be hashed",
+                    content = @Content)
     })
     @PostMapping
-    public ResponseEntity<UserDto> createUser(
-            @Parameter(description = "User to create", required = true) @RequestBody UserDto user) {
-        user.setId(UUID.randomUUID().toString());
+    public CompletableFuture<ResponseEntity<UserDto>> createUser(
+            @Parameter(description = "User to create", required = true) @RequestBody UserDto userDto) {
+        if (userDto.getPassword() == null) {
+            return completed(ResponseEntity.badRequest().build());
+        }
+        if (userRepository.existsByUsername(userDto.getUsername()) || userRepository.existsByEmail(userDto.getEmail())) {
+            return completed(ResponseEntity.status(HttpStatus.CONFLICT).build());
+        }
+        return credentialService.hash(userDto.getPassword()).thenApplyAsync(hash -> create(userDto, hash), writeExecutor);
+    }
+
+    private ResponseEntity<UserDto> create(UserDto userDto, String passwordHash) {
+        User user = MAPPER.toEntity(userDto);
+        user.setId(idGenerator.newId());
+        user.setPassword(passwordHash);
         user.setCreatedAt(LocalDateTime.now());
-        users.add(user);
-        return ResponseEntity.status(HttpStatus.CREATED).body(user);
+        try {
+            User savedUser = userRepository.save(user);
+            // Nothing is cached for a new user, but the list tag has to move
+            invalidate(savedUser.getId());
+            return ResponseEntity.status(HttpStatus.CREATED).body(MAPPER.toDto(savedUser));
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race with a concurrent create for the same username or email
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     @Operation(summary = "Update an existing user", description = "Updates a user based on ID")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "User updated successfully", 
-                    content = @Content(mediaType = "application/json", 
+        @ApiResponse(responseCode = "200", description = "User updated successfully",
+                    content = @Content(mediaType = "application/json",
                     schema = @Schema(implementation = UserDto.class))),
-        @ApiResponse(responseCode = "404", description = "User not found", 
+        @ApiResponse(responseCode = "404", description = "User not found",
+                    content = @Content),
+        @ApiResponse(responseCode = "409", description = "Username or email already in use",
+                    content = @Content),
+        @ApiResponse(responseCode = "503", description = "Too many passwords waiting to be hashed",
                     content = @Content)
     })
     @PutMapping("/{id}")
-    public ResponseEntity<UserDto> updateUser(
+    public CompletableFuture<ResponseEntity<UserDto>> updateUser(
             @Parameter(description = "ID of the user to update") @PathVariable String id,
-            @Parameter(description = "Updated user details", required = true) @RequestBody UserDto user) {
-        
-        for (int i = 0; i < users.size(); i++) {
-            if (users.get(i).getId().equals(id)) {
-                user.setId(id);
-                user.setUpdatedAt(LocalDateTime.now());
-                users.set(i, user);
-                return ResponseEntity.ok(user);
-            }
+            @Parameter(description = "Updated user details", required = true) @RequestBody UserDto userDto) {
+        if (userDto.getPassword() == null) {
+            return completed(update(id, userDto, null));
         }
-        return ResponseEntity.notFound().build();
+        if (!userRepository.existsById(id)) {
+            return completed(ResponseEntity.notFound().build());
+        }
+        return credentialService.hash(userDto.getPassword()).thenApplyAsync(hash -> update(id, userDto, hash), writeExecutor);
+    }
+
+    private ResponseEntity<UserDto> update(String id, UserDto userDto, String passwordHash) {
+        Optional<User> existingUserOpt = userRepository.findById(id);
+        if (existingUserOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (isTakenByOther(userRepository.findByUsername(userDto.getUsername()), id)
+                || isTakenByOther(userRepository.findByEmail(userDto.getEmail()), id)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+
+        User existingUser = existingUserOpt.get();
+        existingUser.setUsername(userDto.getUsername());
+        existingUser.setEmail(userDto.getEmail());
+        if (passwordHash != null) {
+            existingUser.setPassword(passwordHash);
+        }
+        existingUser.setFirstName(userDto.getFirstName());
+        existingUser.setLastName(userDto.getLastName());
+        existingUser.setUpdatedAt(LocalDateTime.now());
+
+        try {
+            User savedUser = userRepository.save(existingUser);
+            invalidate(id);
+            return ResponseEntity.ok(MAPPER.toDto(savedUser));
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @Operation(summary = "Verify a password", description = "Checks a password against the stored hash of the user with the given username or email")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Password matches"),
+        @ApiResponse(responseCode = "400", description = "Login or password is missing",
+                    content = @Content),
+        @ApiResponse(responseCode = "401", description = "Unknown user or wrong password",
+                    content = @Content),
+        @ApiResponse(responseCode = "503", description = "Too many passwords waiting to be checked",
+                    content = @Content)
+    })
+    @PostMapping("/verify")
+    public CompletableFuture<ResponseEntity<Void>> verifyPassword(
+            @Parameter(description = "Username or email, and password", required = true) @RequestBody UserCredentials credentials) {
+        if (credentials.getLogin() == null || credentials.getPassword() == null) {
+            return completed(ResponseEntity.badRequest().build());
+        }
+        Optional<User> user = userRepository.findByUsername(credentials.getLogin())
+                .or(() -> userRepository.findByEmail(credentials.getLogin()));
+        // An unknown user is checked against a dummy hash, so it cannot be told apart by timing
+        return credentialService.verify(credentials.getPassword(), user.map(User::getPassword).orElse(null))
+                .thenApplyAsync(verification -> {
+                    if (!verification.valid()) {
+                        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).<Void>build();
+                    }
+                    if (verification == CredentialService.Verification.OUTDATED) {
+                        rehash(user.get(), credentials.getPassword());
+                    }
+                    return ResponseEntity.noContent().<Void>build();
+                }, writeExecutor);
     }
 
     @Operation(summary = "Delete a user", description = "Deletes a user based on ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "204", description = "User deleted successfully"),
-        @ApiResponse(responseCode = "404", description = "User not found", 
+        @ApiResponse(responseCode = "404", description = "User not found",
                     content = @Content)
     })
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteUser(
             @Parameter(description = "ID of the user to delete") @PathVariable String id) {
-        
-        boolean removed = users.removeIf(user -> user.getId().equals(id));
-        if (removed) {
+
+        if (userRepository.existsById(id)) {
+            userRepository.deleteById(id);
+            invalidate(id);
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.notFound().build();
     }
+
+    // Hashing queue full: shed the request like the throttle does
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Void> handleCredentialQueueFull() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
 }
@@ -0,0 +1,26 @@
+package com.example.webapp.event;
+
+import com.example.product.entity.Product;
+import com.example.webapp.invalidation.Invalidation;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published when another instance reports a committed write. For a product,
+ * {@code current} is the row as re-read after that write, detached, or null
+ * if the product no longer exists. Caches should apply it like a local write
+ * but must not record or re-announce it.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class PeerInvalidationEvent {
+
+    private final Invalidation invalidation;
+    private final Product current;
+
+    public boolean concerns(Invalidation.Topic topic) {
+        return invalidation.getTopic() == topic || invalidation.getTopic() == Invalidation.Topic.ALL;
+    }
+}
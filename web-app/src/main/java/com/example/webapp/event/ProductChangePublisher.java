@@ -0,0 +1,125 @@
+package com.example.webapp.event;
+
+import com.example.product.entity.Product;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Bridges Hibernate's post-commit entity events for {@link Product} to Spring
+ * {@link ProductChangedEvent}s, so every entity-level write path (single,
+ * PATCH, batch, delete) notifies listeners without each caller having to.
+ * Bulk JPQL updates of price and stock bypass Hibernate events and publish
+ * {@link ProductFieldsChangedEvent} instead.
+ */
+@Component
+// Nothing depends on this bean, so lazy initialization would never register the listeners
+@Lazy(false)
+public class ProductChangePublisher implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public ProductChangePublisher(EntityManagerFactory entityManagerFactory, ApplicationEventPublisher eventPublisher) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImpl.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    private void publish(ProductChangedEvent event) {
+        eventPublisher.publishEvent(event);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (!(event.getEntity() instanceof Product)) {
+            return;
+        }
+        String id = (String) event.getId();
+        publish(new ProductChangedEvent(ProductChangedEvent.Type.CREATED, id,
+                null, snapshot(id, event.getPersister(), event.getState())));
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Product)) {
+            return;
+        }
+        String id = (String) event.getId();
+        publish(new ProductChangedEvent(ProductChangedEvent.Type.UPDATED, id,
+                snapshot(id, event.getPersister(), event.getOldState()),
+                snapshot(id, event.getPersister(), event.getState())));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (!(event.getEntity() instanceof Product)) {
+            return;
+        }
+        String id = (String) event.getId();
+        publish(new ProductChangedEvent(ProductChangedEvent.Type.DELETED, id,
+                snapshot(id, event.getPersister(), event.getDeletedState()), null));
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Nothing was committed, nothing to publish
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Nothing was committed, nothing to publish
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Nothing was committed, nothing to publish
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.getMappedClass() == Product.class;
+    }
+
+    // Still abstract in Hibernate 5.6
+    @Override
+    @SuppressWarnings("deprecation")
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return requiresPostCommitHandling(persister);
+    }
+
+    private static Product snapshot(String id, EntityPersister persister, Object[] state) {
+        if (state == null) {
+            return null;
+        }
+        Product product = new Product();
+        persister.setPropertyValues(product, state);
+        product.setId(id);
+        return product;
+    }
+}
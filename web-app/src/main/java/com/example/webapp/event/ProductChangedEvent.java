@@ -0,0 +1,24 @@
+package com.example.webapp.event;
+
+import com.example.product.entity.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published after a product write commits. {@code previous} is the state before
+ * the change when it is known, {@code current} the state after it; both are
+ * detached copies and are null where they do not apply.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ProductChangedEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private final Type type;
+    private final String productId;
+    private final Product previous;
+    private final Product current;
+}
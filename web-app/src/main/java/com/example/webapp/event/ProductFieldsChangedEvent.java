@@ -0,0 +1,36 @@
+package com.example.webapp.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+/**
+ * Published by the single-statement price and stock updates, which bypass
+ * Hibernate's entity events. Only the fields that changed are set: an absolute
+ * {@code price} or {@code stockQuantity}, or a relative {@code stockDelta}.
+ * Listeners should use {@code @TransactionalEventListener} so they run after commit.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ProductFieldsChangedEvent {
+
+    private final String productId;
+    private final BigDecimal price;
+    private final Integer stockQuantity;
+    private final Integer stockDelta;
+
+    public static ProductFieldsChangedEvent price(String productId, BigDecimal price) {
+        return new ProductFieldsChangedEvent(productId, price, null, null);
+    }
+
+    public static ProductFieldsChangedEvent stockQuantity(String productId, int stockQuantity) {
+        return new ProductFieldsChangedEvent(productId, null, stockQuantity, null);
+    }
+
+    public static ProductFieldsChangedEvent stockDelta(String productId, int stockDelta) {
+        return new ProductFieldsChangedEvent(productId, null, null, stockDelta);
+    }
+}
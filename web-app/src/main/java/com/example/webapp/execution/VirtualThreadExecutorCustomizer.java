@@ -0,0 +1,45 @@
+package com.example.webapp.execution;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Hands Tomcat a virtual-thread-per-task executor in place of its platform
+ * worker pool, so each request (and the blocking repository calls it makes)
+ * runs on its own virtual thread. The executor is looked up reflectively so the
+ * code still compiles for older targets; it fails fast on a JVM without
+ * virtual threads.
+ */
+public class VirtualThreadExecutorCustomizer implements TomcatProtocolHandlerCustomizer<ProtocolHandler>, DisposableBean {
+
+    private final ExecutorService executor;
+
+    public VirtualThreadExecutorCustomizer() {
+        this.executor = newVirtualThreadPerTaskExecutor();
+    }
+
+    @Override
+    public void customize(ProtocolHandler protocolHandler) {
+        protocolHandler.setExecutor(executor);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("app.execution.mode=virtual requires Java 21 or newer, running on "
+                    + Runtime.version());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create a virtual thread executor", e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.webapp.invalidation;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A committed write that other instances must reflect in their caches: one
+ * product or user by id, or everything when the writes are not known.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class Invalidation {
+
+    public enum Topic { PRODUCT, USER, ALL }
+
+    private final Topic topic;
+    private final String key;
+
+    public static Invalidation product(String id) {
+        return new Invalidation(Topic.PRODUCT, id);
+    }
+
+    public static Invalidation user(String id) {
+        return new Invalidation(Topic.USER, id);
+    }
+
+    public static Invalidation all() {
+        return new Invalidation(Topic.ALL, null);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.webapp.invalidation;
+
+/**
+ * Carries committed local writes to the other instances, which hand them to
+ * {@link PeerInvalidations}. Delivery is at least once, late by up to the
+ * implementation's staleness bound, and unordered; receivers re-read the rows
+ * concerned, so that is enough for them to converge.
+ */
+public interface InvalidationBus {
+
+    void publish(Invalidation invalidation);
+}
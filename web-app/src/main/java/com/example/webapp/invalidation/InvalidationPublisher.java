@@ -0,0 +1,30 @@
+package com.example.webapp.invalidation;
+
+import com.example.webapp.event.ProductChangedEvent;
+import com.example.webapp.event.ProductFieldsChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Announces every committed product write on the invalidation bus
+@Component
+public class InvalidationPublisher {
+
+    private final InvalidationBus invalidationBus;
+
+    @Autowired
+    public InvalidationPublisher(InvalidationBus invalidationBus) {
+        this.invalidationBus = invalidationBus;
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidationBus.publish(Invalidation.product(event.getProductId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductFieldsChanged(ProductFieldsChangedEvent event) {
+        invalidationBus.publish(Invalidation.product(event.getProductId()));
+    }
+}
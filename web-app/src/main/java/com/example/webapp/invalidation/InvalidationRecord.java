@@ -0,0 +1,40 @@
+package com.example.webapp.invalidation;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+// Mapped so the schema exists wherever ddl-auto builds it; JdbcInvalidationBus reads and writes it with plain JDBC
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "cache_invalidations", indexes = {
+    @Index(name = "idx_cache_invalidations_created_at", columnList = "created_at")
+})
+public class InvalidationRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Instance that made the write
+    @Column(nullable = false, length = 36)
+    private String origin;
+
+    @Column(nullable = false, length = 16)
+    private String topic;
+
+    @Column(name = "cache_key")
+    private String key;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,202 @@
+package com.example.webapp.invalidation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Invalidation bus over the shared database. Published invalidations are
+ * coalesced and inserted into {@code cache_invalidations} in one batch per
+ * tick; each tick then reads the rows other instances added since the last
+ * one. Peers therefore see a write within two poll intervals.
+ * <p>
+ * Identity values can commit out of order, so a gap below rows already read
+ * is re-read for up to {@code gap-grace} before it is taken to be a rolled back
+ * insert. Rows are deleted after {@code retention}; an instance that could not
+ * poll for that long may have missed some and drops all of its caches instead.
+ */
+@Slf4j
+public class JdbcInvalidationBus implements InvalidationBus {
+
+    private static final int MAX_ROWS_PER_POLL = 1000;
+    // Past this many unsent invalidations, peers are told to drop everything instead
+    private static final int MAX_PENDING = 10_000;
+    private static final String INSERT =
+            "insert into cache_invalidations (origin, topic, cache_key, created_at) values (?, ?, ?, ?)";
+    private static final String SELECT =
+            "select id, origin, topic, cache_key from cache_invalidations where id > ? order by id limit " + MAX_ROWS_PER_POLL;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Consumer<Invalidation> receiver;
+    private final Duration pollInterval;
+    private final Duration gapGrace;
+    private final Duration retention;
+    private final String origin = UUID.randomUUID().toString();
+    private final Set<Invalidation> pending = new LinkedHashSet<>();
+    private final Counter published;
+    private final Counter received;
+    private ScheduledExecutorService poller;
+
+    // Poller state: every id up to the cursor has been read, plus the ids read above it
+    private long cursor = -1;
+    private final TreeSet<Long> readAboveCursor = new TreeSet<>();
+    private long gapSince;
+    private long lastPoll;
+    private long lastPrune;
+
+    public JdbcInvalidationBus(JdbcTemplate jdbcTemplate, Consumer<Invalidation> receiver, MeterRegistry meterRegistry,
+                               Duration pollInterval, Duration gapGrace, Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.receiver = receiver;
+        this.pollInterval = pollInterval;
+        this.gapGrace = gapGrace;
+        this.retention = retention;
+        this.published = Counter.builder("cache.invalidations")
+                .description("Cache invalidations exchanged with other instances")
+                .tag("direction", "published")
+                .register(meterRegistry);
+        this.received = Counter.builder("cache.invalidations")
+                .description("Cache invalidations exchanged with other instances")
+                .tag("direction", "received")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void publish(Invalidation invalidation) {
+        synchronized (pending) {
+            if (pending.contains(Invalidation.all())) {
+                return;
+            }
+            if (pending.size() >= MAX_PENDING) {
+                pending.clear();
+                invalidation = Invalidation.all();
+            }
+            pending.add(invalidation);
+        }
+    }
+
+    // Starts once the schema is in place, whether from ddl-auto or migrations
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-invalidation-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(() -> {
+            try {
+                tick();
+            } catch (RuntimeException e) {
+                log.warn("Cache invalidation poll failed", e);
+            }
+        }, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (poller != null) {
+            poller.shutdown();
+            poller.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Could not send {} cache invalidations on shutdown", pending.size(), e);
+        }
+    }
+
+    // Sends pending invalidations, then reads and delivers the other instances' new ones
+    synchronized void tick() {
+        flush();
+        poll();
+        long now = System.nanoTime();
+        if (now - lastPrune > retention.toNanos() / 4) {
+            jdbcTemplate.update("delete from cache_invalidations where created_at < ?",
+                    Timestamp.valueOf(LocalDateTime.now().minus(retention)));
+            lastPrune = now;
+        }
+    }
+
+    String origin() {
+        return origin;
+    }
+
+    private void flush() {
+        List<Invalidation> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pending);
+            pending.clear();
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), (statement, invalidation) -> {
+                statement.setString(1, origin);
+                statement.setString(2, invalidation.getTopic().name());
+                statement.setString(3, invalidation.getKey());
+                statement.setTimestamp(4, now);
+            });
+        } catch (RuntimeException e) {
+            batch.forEach(this::publish);
+            throw e;
+        }
+        published.increment(batch.size());
+    }
+
+    private void poll() {
+        long now = System.nanoTime();
+        if (cursor < 0) {
+            // Earlier writes predate anything this instance has cached
+            Long max = jdbcTemplate.queryForObject("select max(id) from cache_invalidations", Long.class);
+            cursor = max == null ? 0 : max;
+            lastPoll = now;
+            return;
+        }
+        List<Object[]> rows = jdbcTemplate.query(SELECT, (resultSet, rowNum) -> new Object[]{
+                resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3), resultSet.getString(4)
+        }, cursor);
+        if (now - lastPoll > retention.toNanos()) {
+            log.warn("Cache invalidations not polled for over {}, dropping all cached data", retention);
+            receiver.accept(Invalidation.all());
+        }
+        lastPoll = now;
+        for (Object[] row : rows) {
+            if (readAboveCursor.add((Long) row[0]) && !origin.equals(row[1])) {
+                received.increment();
+                receiver.accept(new Invalidation(Invalidation.Topic.valueOf((String) row[2]), (String) row[3]));
+            }
+        }
+        while (readAboveCursor.remove(cursor + 1)) {
+            cursor++;
+        }
+        if (readAboveCursor.isEmpty()) {
+            gapSince = 0;
+        } else if (gapSince == 0) {
+            gapSince = now;
+        } else if (now - gapSince > gapGrace.toNanos()) {
+            cursor = readAboveCursor.last();
+            readAboveCursor.clear();
+            gapSince = 0;
+        }
+    }
+}
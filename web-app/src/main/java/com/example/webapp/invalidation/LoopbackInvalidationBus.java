@@ -0,0 +1,22 @@
+package com.example.webapp.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * Delivers every invalidation straight back to this instance, as if a peer
+ * had published it. Selected with {@code app.invalidation.bus=loopback} for
+ * tests and single-instance runs.
+ */
+public class LoopbackInvalidationBus implements InvalidationBus {
+
+    private final Consumer<Invalidation> receiver;
+
+    public LoopbackInvalidationBus(Consumer<Invalidation> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public void publish(Invalidation invalidation) {
+        receiver.accept(invalidation);
+    }
+}
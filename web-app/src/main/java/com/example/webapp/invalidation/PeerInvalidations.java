@@ -0,0 +1,53 @@
+package com.example.webapp.invalidation;
+
+import com.example.product.entity.Product;
+import com.example.product.repository.ProductRepository;
+import com.example.webapp.event.PeerInvalidationEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.function.Consumer;
+
+/**
+ * Receives invalidations from other instances and republishes them locally as
+ * {@link PeerInvalidationEvent}s. A product is re-read once here, so every
+ * cache that listens applies the same committed row.
+ */
+@Component
+public class PeerInvalidations implements Consumer<Invalidation> {
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Autowired
+    public PeerInvalidations(ProductRepository productRepository, EntityManager entityManager,
+                             ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public void accept(Invalidation invalidation) {
+        Product current = null;
+        if (invalidation.getTopic() == Invalidation.Topic.PRODUCT) {
+            current = readOnlyTransaction.execute(status -> productRepository.findById(invalidation.getKey())
+                    .map(product -> {
+                        entityManager.detach(product);
+                        return product;
+                    })
+                    .orElse(null));
+        }
+        eventPublisher.publishEvent(new PeerInvalidationEvent(invalidation, current));
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.webapp.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.data.domain.Slice;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Added to every repository proxy. Records the rows each query method returns
+ * as {@code repository.rows} and logs calls slower than the threshold. Call
+ * latency itself is Spring Data's {@code spring.data.repository.invocations}.
+ * Streams are not counted: their rows are read after the method returns.
+ */
+@Slf4j
+public class RepositoryMetricsInterceptor implements MethodInterceptor {
+
+    public static final String ROWS_METRIC = "repository.rows";
+
+    private final String repository;
+    private final MeterRegistry registry;
+    private final long slowThresholdNanos;
+    // One summary per method, so the hot path skips the registry lookup
+    private final Map<Method, DistributionSummary> rowSummaries = new ConcurrentHashMap<>();
+
+    public RepositoryMetricsInterceptor(String repository, MeterRegistry registry, Duration slowThreshold) {
+        this.repository = repository;
+        this.registry = registry;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        Object result = null;
+        boolean failed = true;
+        try {
+            result = invocation.proceed();
+            failed = false;
+            return result;
+        } finally {
+            // Failed calls are timed too; a query that times out is the slowest of all
+            long elapsed = System.nanoTime() - start;
+            int rows = failed ? -1 : rows(result);
+            if (rows >= 0) {
+                rowSummaries.computeIfAbsent(invocation.getMethod(), this::rowSummary).record(rows);
+            }
+            if (elapsed > slowThresholdNanos) {
+                log.warn("Slow repository call {}.{} took {} ms{}", repository, invocation.getMethod().getName(),
+                        elapsed / 1_000_000, failed ? " and failed" : rows >= 0 ? " and returned " + rows + " rows" : "");
+            }
+        }
+    }
+
+    private DistributionSummary rowSummary(Method method) {
+        return DistributionSummary.builder(ROWS_METRIC)
+                .description("Rows returned by repository query methods")
+                .baseUnit("rows")
+                .tag("repository", repository)
+                .tag("method", method.getName())
+                .register(registry);
+    }
+
+    private static int rows(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.webapp.reactive;
+
+import com.example.api.dto.ProductDto;
+import com.example.product.entity.Product;
+import com.example.product.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+/**
+ * Non-blocking facade over {@link ProductRepository}. JDBC is still blocking
+ * underneath, so every call is confined to a small scheduler sized to the
+ * connection pool; subscribers never block, and request threads are released
+ * while the query runs. Full listings are read lazily as keyset pages, one page
+ * ahead of demand, so a slow consumer holds at most two pages in memory.
+ * <p>
+ * Streams emit on the parallel scheduler, so JDBC threads only run queries.
+ * Emitting never blocks: Spring MVC queues each element and writes it to the
+ * socket on its async task executor ({@code spring.task.execution}), where a
+ * slow client holds a thread instead.
+ */
+@Component
+public class ReactiveProductRepository {
+
+    private final ProductRepository productRepository;
+    private final Scheduler jdbcScheduler;
+    private final int pageSize;
+
+    @Autowired
+    public ReactiveProductRepository(ProductRepository productRepository,
+                                     @Value("${app.reactive.jdbc-threads:${spring.datasource.hikari.maximum-pool-size:10}}") int jdbcThreads,
+                                     @Value("${app.reactive.page-size:500}") int pageSize) {
+        this.productRepository = productRepository;
+        this.jdbcScheduler = Schedulers.newBoundedElastic(jdbcThreads, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "reactive-jdbc");
+        this.pageSize = pageSize;
+    }
+
+    @PreDestroy
+    void dispose() {
+        jdbcScheduler.dispose();
+    }
+
+    // Runs blocking repository or service work off the caller's thread; a null result completes empty
+    public <T> Mono<T> call(Callable<T> work) {
+        return Mono.fromCallable(work).subscribeOn(jdbcScheduler);
+    }
+
+    public Mono<Product> findById(String id) {
+        return call(() -> productRepository.findById(id).orElse(null));
+    }
+
+    // Pages are read as DTO projections, so listings never materialize managed entities
+    public Mono<List<ProductDto>> findPage(String category, String after, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        return call(() -> {
+            if (category == null) {
+                return after == null
+                        ? productRepository.findDtoPage(page)
+                        : productRepository.findDtoPageAfter(after, page);
+            }
+            return after == null
+                    ? productRepository.findDtoPageByCategory(category, page)
+                    : productRepository.findDtoPageByCategoryAfter(category, after, page);
+        });
+    }
+
+    // Every product (optionally in one category) ordered by id; the next page is only fetched on demand
+    public Flux<ProductDto> findAll(String category) {
+        return findPage(category, null, pageSize)
+                .expand(page -> page.size() < pageSize
+                        ? Mono.empty()
+                        : findPage(category, page.get(page.size() - 1).getId(), pageSize))
+                .publishOn(Schedulers.parallel(), 1)
+                .flatMapIterable(Function.identity(), 1);
+    }
+}
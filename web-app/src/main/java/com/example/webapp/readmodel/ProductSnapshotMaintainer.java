@@ -0,0 +1,143 @@
+package com.example.webapp.readmodel;
+
+import com.example.product.entity.Product;
+import com.example.product.repository.ProductRepository;
+import com.example.product.snapshot.ProductSnapshot;
+import com.example.webapp.event.PeerInvalidationEvent;
+import com.example.webapp.event.ProductChangedEvent;
+import com.example.webapp.event.ProductFieldsChangedEvent;
+import com.example.webapp.invalidation.Invalidation;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Keeps {@link ProductSnapshot} in step with the products table: a full build
+ * once the application is ready, one patch per committed change, here or on a
+ * peer, and a full rebuild every {@code app.read-model.refresh-interval} as a
+ * backstop. Until the first build completes reads go to the database.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.read-model.mode", havingValue = "snapshot")
+public class ProductSnapshotMaintainer {
+
+    private final ProductSnapshot snapshot;
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    // Single-statement updates carry no row image, so the row is read back after the writer's commit
+    private final TransactionTemplate rereadTransaction;
+    private final Duration refreshInterval;
+    private final ScheduledExecutorService builder;
+
+    @Autowired
+    public ProductSnapshotMaintainer(ProductSnapshot snapshot, ProductRepository productRepository,
+                                     EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.read-model.refresh-interval:10m}") Duration refreshInterval) {
+        this.snapshot = snapshot;
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.rereadTransaction = new TransactionTemplate(transactionManager);
+        this.rereadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.rereadTransaction.setReadOnly(true);
+        this.refreshInterval = refreshInterval;
+        this.builder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("product.snapshot.size", snapshot, ProductSnapshot::size)
+                .description("Products held by the read snapshot")
+                .register(meterRegistry);
+        Gauge.builder("product.snapshot.off_heap", snapshot, ProductSnapshot::offHeapBytes)
+                .description("Direct memory held by the read snapshot")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        builder.execute(this::rebuild);
+        if (!refreshInterval.isZero()) {
+            builder.scheduleWithFixedDelay(this::rebuild, refreshInterval.toMillis(), refreshInterval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        builder.shutdownNow();
+    }
+
+    public void rebuild() {
+        long start = System.nanoTime();
+        // Writes are captured from before the query opens, so one committed meanwhile is not lost
+        try (ProductSnapshot.Rebuild rebuild = snapshot.beginRebuild()) {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Product> products = productRepository.streamAll()) {
+                    rebuild.build(products.peek(entityManager::detach));
+                }
+            });
+            log.info("Built product snapshot of {} products ({} KB off heap) in {} ms", snapshot.size(),
+                    snapshot.offHeapBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Product snapshot rebuild failed", e);
+        }
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() == ProductChangedEvent.Type.DELETED) {
+            snapshot.remove(event.getProductId());
+        } else if (event.getCurrent() != null) {
+            snapshot.put(event.getCurrent());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductFieldsChanged(ProductFieldsChangedEvent event) {
+        Optional<Product> product = rereadTransaction.execute(status -> productRepository.findById(event.getProductId()));
+        if (product.isPresent()) {
+            snapshot.put(product.get());
+        } else {
+            snapshot.remove(event.getProductId());
+        }
+    }
+
+    @EventListener
+    public void onPeerInvalidation(PeerInvalidationEvent event) {
+        Invalidation invalidation = event.getInvalidation();
+        if (invalidation.getTopic() == Invalidation.Topic.ALL) {
+            builder.execute(this::rebuild);
+        } else if (invalidation.getTopic() == Invalidation.Topic.PRODUCT) {
+            if (event.getCurrent() == null) {
+                snapshot.remove(invalidation.getKey());
+            } else {
+                snapshot.put(event.getCurrent());
+            }
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.example.webapp.search;
+
+import com.example.product.entity.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over product name, category and description.
+ * The term dictionary is sorted so prefix matches are a range scan. Terms are
+ * also grouped by first letter and length, so fuzzy matching only compares the
+ * token with terms that share its first letter and are within the allowed edit
+ * distance in length, and gives up after a fixed number of those.
+ * <p>
+ * Every query token must match (exactly, by prefix or fuzzily); hits are
+ * ranked by field weight times inverse document frequency. Reads are
+ * lock-free; writes are serialized. A rebuild fills a fresh index while
+ * searches keep using the current one, then swaps it in.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float CATEGORY_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final float PREFIX_FACTOR = 0.6f;
+    private static final float FUZZY_FACTOR = 0.4f;
+    private static final int MAX_EXPANSIONS = 64;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    // Edit distances computed per token at most, however large the dictionary grows
+    private static final int MAX_FUZZY_CANDIDATES = 1024;
+
+    private static final class State {
+        // term -> (product id -> field weight)
+        final ConcurrentSkipListMap<String, ConcurrentMap<String, Float>> postings = new ConcurrentSkipListMap<>();
+        // product id -> its terms, so an update or delete can retract old postings
+        final ConcurrentMap<String, Map<String, Float>> documents = new ConcurrentHashMap<>();
+        // first character and length -> terms, the only candidates for a fuzzy match
+        final ConcurrentMap<Long, Set<String>> termsByShape = new ConcurrentHashMap<>();
+
+        void index(Product product) {
+            remove(product.getId());
+            Map<String, Float> terms = new HashMap<>();
+            addTerms(terms, product.getName(), NAME_WEIGHT);
+            addTerms(terms, product.getCategory(), CATEGORY_WEIGHT);
+            addTerms(terms, product.getDescription(), DESCRIPTION_WEIGHT);
+            documents.put(product.getId(), terms);
+            terms.forEach((term, weight) -> {
+                postings.computeIfAbsent(term, key -> new ConcurrentHashMap<>()).put(product.getId(), weight);
+                termsByShape.computeIfAbsent(shape(term.charAt(0), term.length()), key -> new ConcurrentSkipListSet<>())
+                        .add(term);
+            });
+        }
+
+        void remove(String id) {
+            Map<String, Float> terms = documents.remove(id);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms.keySet()) {
+                postings.computeIfPresent(term, (key, products) -> {
+                    products.remove(id);
+                    return products.isEmpty() ? null : products;
+                });
+                if (!postings.containsKey(term)) {
+                    termsByShape.computeIfPresent(shape(term.charAt(0), term.length()), (key, shaped) -> {
+                        shaped.remove(term);
+                        return shaped.isEmpty() ? null : shaped;
+                    });
+                }
+            }
+        }
+    }
+
+    // Held from beginRebuild until the rebuild is closed
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile State state = new State();
+    // Writes made while a rebuild reads the table, replayed onto the rebuilt index
+    private List<Consumer<ProductSearchIndex>> pendingWrites;
+
+    public synchronized void index(Product product) {
+        if (pendingWrites != null) {
+            pendingWrites.add(index -> index.index(product));
+        }
+        state.index(product);
+    }
+
+    public synchronized void remove(String id) {
+        if (pendingWrites != null) {
+            pendingWrites.add(index -> index.remove(id));
+        }
+        state.remove(id);
+    }
+
+    public int size() {
+        return state.documents.size();
+    }
+
+    /**
+     * Starts capturing writes for a rebuild. Call it before the query that
+     * reads the products, so a write committed meanwhile is replayed onto the
+     * new index rather than lost or overwritten by a stale row, then pass the
+     * products to {@link Rebuild#build}. Rebuilds run one at a time.
+     */
+    public Rebuild beginRebuild() {
+        rebuildLock.lock();
+        synchronized (this) {
+            pendingWrites = new ArrayList<>();
+        }
+        return new Rebuild();
+    }
+
+    public final class Rebuild implements AutoCloseable {
+
+        private boolean closed;
+
+        private Rebuild() {
+        }
+
+        // Searches keep using the current index until the new one is complete
+        public void build(Stream<Product> products) {
+            if (closed) {
+                throw new IllegalStateException("Rebuild is closed");
+            }
+            State next = new State();
+            products.forEach(next::index);
+            synchronized (ProductSearchIndex.this) {
+                List<Consumer<ProductSearchIndex>> writes = pendingWrites;
+                pendingWrites = null;
+                state = next;
+                writes.forEach(write -> write.accept(ProductSearchIndex.this));
+            }
+        }
+
+        // Stops capturing writes, whether or not the build completed
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            synchronized (ProductSearchIndex.this) {
+                pendingWrites = null;
+            }
+            rebuildLock.unlock();
+        }
+    }
+
+    // Product ids ordered by descending relevance
+    public List<String> search(String query, int limit) {
+        Set<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        State current = state;
+        int documentCount = Math.max(current.documents.size(), 1);
+        Map<String, Float> scores = null;
+        for (String token : tokens) {
+            Map<String, Float> tokenScores = scoreToken(current, token, documentCount);
+            scores = scores == null ? tokenScores : intersect(scores, tokenScores);
+            if (scores.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+        return topHits(scores, limit);
+    }
+
+    private static Map<String, Float> scoreToken(State current, String token, int documentCount) {
+        Map<String, Float> scores = new HashMap<>();
+        ConcurrentMap<String, Float> exact = current.postings.get(token);
+        if (exact != null) {
+            accumulate(scores, exact, 1.0f, documentCount);
+        }
+        int expansions = 0;
+        for (Map.Entry<String, ConcurrentMap<String, Float>> entry
+                : current.postings.subMap(token, false, token + Character.MAX_VALUE, false).entrySet()) {
+            if (++expansions > MAX_EXPANSIONS) {
+                break;
+            }
+            accumulate(scores, entry.getValue(), PREFIX_FACTOR, documentCount);
+        }
+        if (token.length() >= MIN_FUZZY_LENGTH) {
+            scoreFuzzy(current, scores, token, documentCount);
+        }
+        return scores;
+    }
+
+    // Closest lengths first, so the candidate limit drops the least likely terms
+    private static void scoreFuzzy(State current, Map<String, Float> scores, String token, int documentCount) {
+        int maxEdits = token.length() >= 8 ? 2 : 1;
+        int expansions = 0;
+        int scanned = 0;
+        for (int offset = 0; offset <= maxEdits; offset++) {
+            for (int length : offset == 0 ? new int[]{token.length()}
+                    : new int[]{token.length() - offset, token.length() + offset}) {
+                Set<String> candidates = current.termsByShape.get(shape(token.charAt(0), length));
+                if (candidates == null) {
+                    continue;
+                }
+                for (String term : candidates) {
+                    if (++scanned > MAX_FUZZY_CANDIDATES) {
+                        return;
+                    }
+                    if (term.equals(token) || term.startsWith(token) || editDistance(token, term, maxEdits) > maxEdits) {
+                        continue;
+                    }
+                    ConcurrentMap<String, Float> products = current.postings.get(term);
+                    if (products == null) {
+                        continue;
+                    }
+                    if (++expansions > MAX_EXPANSIONS) {
+                        return;
+                    }
+                    accumulate(scores, products, FUZZY_FACTOR, documentCount);
+                }
+            }
+        }
+    }
+
+    private static long shape(char first, int length) {
+        return ((long) first << 32) | length;
+    }
+
+    // Keeps the best match per product for this token
+    private static void accumulate(Map<String, Float> scores, Map<String, Float> products, float factor, int documentCount) {
+        float idf = (float) Math.log(1.0 + (double) documentCount / products.size());
+        products.forEach((id, weight) -> scores.merge(id, weight * idf * factor, Math::max));
+    }
+
+    private static Map<String, Float> intersect(Map<String, Float> left, Map<String, Float> right) {
+        Map<String, Float> smaller = left.size() <= right.size() ? left : right;
+        Map<String, Float> larger = smaller == left ? right : left;
+        Map<String, Float> result = new HashMap<>();
+        smaller.forEach((id, score) -> {
+            Float other = larger.get(id);
+            if (other != null) {
+                result.put(id, score + other);
+            }
+        });
+        return result;
+    }
+
+    private static List<String> topHits(Map<String, Float> scores, int limit) {
+        Comparator<Map.Entry<String, Float>> byScore = Map.Entry.comparingByValue();
+        PriorityQueue<Map.Entry<String, Float>> top = new PriorityQueue<>(limit + 1, byScore);
+        for (Map.Entry<String, Float> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<String> ids = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ids.add(top.poll().getKey());
+        }
+        Collections.reverse(ids);
+        return ids;
+    }
+
+    private static void addTerms(Map<String, Float> terms, String text, float weight) {
+        for (String token : tokenize(text)) {
+            terms.merge(token, weight, Math::max);
+        }
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Levenshtein distance, giving up early once every cell in a row exceeds the limit
+    static int editDistance(String a, String b, int limit) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
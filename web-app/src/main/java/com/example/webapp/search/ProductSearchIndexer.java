@@ -0,0 +1,79 @@
+package com.example.webapp.search;
+
+import com.example.product.entity.Product;
+import com.example.product.repository.ProductRepository;
+import com.example.webapp.event.PeerInvalidationEvent;
+import com.example.webapp.event.ProductChangedEvent;
+import com.example.webapp.invalidation.Invalidation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.stream.Stream;
+
+/**
+ * Keeps {@link ProductSearchIndex} in step with the products table: a full
+ * build at startup and on a peer's invalidate-all, then one incremental
+ * update per committed change.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndexer {
+
+    private final ProductSearchIndex searchIndex;
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Autowired
+    public ProductSearchIndexer(ProductSearchIndex searchIndex, ProductRepository productRepository,
+                                EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.searchIndex = searchIndex;
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        // Writes are captured from before the query opens, so none is lost or overwritten by a stale row
+        try (ProductSearchIndex.Rebuild rebuild = searchIndex.beginRebuild()) {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Product> products = productRepository.streamAll()) {
+                    rebuild.build(products.peek(entityManager::detach));
+                }
+            });
+        }
+        log.info("Indexed {} products for search in {} ms", searchIndex.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() == ProductChangedEvent.Type.DELETED) {
+            searchIndex.remove(event.getProductId());
+        } else if (event.getCurrent() != null) {
+            searchIndex.index(event.getCurrent());
+        }
+    }
+
+    @EventListener
+    public void onPeerInvalidation(PeerInvalidationEvent event) {
+        Invalidation invalidation = event.getInvalidation();
+        if (invalidation.getTopic() == Invalidation.Topic.ALL) {
+            rebuild();
+        } else if (invalidation.getTopic() == Invalidation.Topic.PRODUCT) {
+            if (event.getCurrent() == null) {
+                searchIndex.remove(invalidation.getKey());
+            } else {
+                searchIndex.index(event.getCurrent());
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.webapp.service;
+
+/**
+ * The database refused a hot product's pending stock delta, typically because
+ * its stock was changed behind the counter's back. The counter keeps the delta
+ * and the product stays hot until the delta can be written.
+ */
+public class HotStockConflictException extends IllegalStateException {
+
+    public HotStockConflictException(String productId, long delta) {
+        super("Database stock of product " + productId + " cannot absorb pending hot stock delta " + delta);
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.webapp.service;
+
+import com.example.api.dto.ProductBatchOperation;
+import com.example.api.dto.ProductBatchResult;
+import com.example.api.dto.ProductDto;
+import com.example.common.id.IdGenerator;
+import com.example.product.entity.Product;
+import com.example.product.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies product upserts and deletes in chunks, one transaction per chunk.
+ * Inserts, updates and deletes are flushed together so Hibernate can group them
+ * into JDBC batches. A failing chunk is retried item by item so a single bad
+ * row only fails itself.
+ */
+@Service
+public class ProductBatchService {
+
+    private final ProductRepository productRepository;
+    private final ProductStockService productStockService;
+    private final IdGenerator idGenerator;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader operationReader;
+    private final ObjectWriter resultWriter;
+    private final int chunkSize;
+
+    @Autowired
+    public ProductBatchService(ProductRepository productRepository,
+                               ProductStockService productStockService,
+                               IdGenerator idGenerator,
+                               EntityManager entityManager,
+                               Validator validator,
+                               PlatformTransactionManager transactionManager,
+                               ObjectMapper objectMapper,
+                               @Value("${app.batch.chunk-size:500}") int chunkSize) {
+        this.productRepository = productRepository;
+        this.productStockService = productStockService;
+        this.idGenerator = idGenerator;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.operationReader = objectMapper.readerFor(ProductBatchOperation.class);
+        this.resultWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.chunkSize = chunkSize;
+    }
+
+    public List<ProductBatchResult> apply(List<ProductBatchOperation> operations, Function<ProductDto, Product> toEntity) {
+        List<ProductBatchResult> results = new ArrayList<>(operations.size());
+        for (int offset = 0; offset < operations.size(); offset += chunkSize) {
+            List<ProductBatchOperation> chunk = operations.subList(offset, Math.min(offset + chunkSize, operations.size()));
+            results.addAll(applyChunk(chunk, offset, toEntity));
+        }
+        return results;
+    }
+
+    // Reads NDJSON operations and writes NDJSON results as each chunk commits
+    public void apply(InputStream in, OutputStream out, Function<ProductDto, Product> toEntity) throws IOException {
+        try (MappingIterator<ProductBatchOperation> operations = operationReader.readValues(in);
+             JsonGenerator generator = resultWriter.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            List<ProductBatchOperation> chunk = new ArrayList<>(chunkSize);
+            int offset = 0;
+            while (operations.hasNextValue()) {
+                chunk.add(operations.nextValue());
+                if (chunk.size() == chunkSize) {
+                    writeResults(generator, applyChunk(chunk, offset, toEntity));
+                    offset += chunk.size();
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeResults(generator, applyChunk(chunk, offset, toEntity));
+            }
+            generator.flush();
+        }
+    }
+
+    private void writeResults(JsonGenerator generator, List<ProductBatchResult> results) throws IOException {
+        for (ProductBatchResult result : results) {
+            resultWriter.writeValue(generator, result);
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+    }
+
+    private List<ProductBatchResult> applyChunk(List<ProductBatchOperation> chunk, int offset,
+                                                Function<ProductDto, Product> toEntity) {
+        try {
+            return transactionTemplate.execute(status -> write(chunk, offset, toEntity));
+        } catch (RuntimeException chunkFailure) {
+            entityManager.clear();
+            List<ProductBatchResult> results = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                List<ProductBatchOperation> single = Collections.singletonList(chunk.get(i));
+                int index = offset + i;
+                try {
+                    results.addAll(transactionTemplate.execute(status -> write(single, index, toEntity)));
+                } catch (RuntimeException itemFailure) {
+                    entityManager.clear();
+                    results.add(failed(index, targetId(chunk.get(i)), itemFailure.getMessage()));
+                }
+            }
+            return results;
+        }
+    }
+
+    private List<ProductBatchResult> write(List<ProductBatchOperation> chunk, int offset,
+                                           Function<ProductDto, Product> toEntity) {
+        List<String> ids = new ArrayList<>(chunk.size());
+        for (ProductBatchOperation operation : chunk) {
+            String id = targetId(operation);
+            if (id != null) {
+                ids.add(id);
+                productStockService.demote(id);
+            }
+        }
+        // One SELECT per chunk to tell inserts from updates
+        Map<String, Product> existing = new HashMap<>();
+        for (Product product : productRepository.findAllById(ids)) {
+            existing.put(product.getId(), product);
+        }
+
+        List<ProductBatchResult> results = new ArrayList<>(chunk.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < chunk.size(); i++) {
+            ProductBatchOperation operation = chunk.get(i);
+            int index = offset + i;
+            String id = targetId(operation);
+            if (operation.getAction() == ProductBatchOperation.Action.DELETE) {
+                Product product = id == null ? null : existing.remove(id);
+                if (product == null) {
+                    results.add(result(index, id, ProductBatchResult.Status.NOT_FOUND));
+                } else {
+                    entityManager.remove(product);
+                    results.add(result(index, id, ProductBatchResult.Status.DELETED));
+                }
+                continue;
+            }
+            String invalid = validate(operation);
+            if (invalid != null) {
+                results.add(failed(index, id, invalid));
+                continue;
+            }
+            Product incoming = toEntity.apply(operation.getProduct());
+            Product current = id == null ? null : existing.get(id);
+            if (current != null) {
+                current.setName(incoming.getName());
+                current.setDescription(incoming.getDescription());
+                current.setPrice(incoming.getPrice());
+                current.setStockQuantity(incoming.getStockQuantity());
+                current.setCategory(incoming.getCategory());
+                current.setUpdatedAt(now);
+                results.add(result(index, id, ProductBatchResult.Status.UPDATED));
+            } else {
+                incoming.setId(id != null ? id : idGenerator.newId());
+                incoming.setCreatedAt(now);
+                incoming.setUpdatedAt(now);
+                entityManager.persist(incoming);
+                existing.put(incoming.getId(), incoming);
+                results.add(result(index, incoming.getId(), ProductBatchResult.Status.CREATED));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return results;
+    }
+
+    // The same constraints as a single create or update, reported instead of thrown
+    private String validate(ProductBatchOperation operation) {
+        if (operation.getAction() == null) {
+            return "action is required";
+        }
+        ProductDto product = operation.getProduct();
+        if (product == null) {
+            return "product is required for UPSERT";
+        }
+        Set<ConstraintViolation<ProductDto>> violations = validator.validate(product);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static String targetId(ProductBatchOperation operation) {
+        if (operation.getAction() == ProductBatchOperation.Action.UPSERT && operation.getProduct() != null) {
+            return operation.getProduct().getId();
+        }
+        return operation.getId();
+    }
+
+    private static ProductBatchResult result(int index, String id, ProductBatchResult.Status status) {
+        return ProductBatchResult.builder().index(index).id(id).status(status).build();
+    }
+
+    private static ProductBatchResult failed(int index, String id, String error) {
+        return ProductBatchResult.builder()
+                .index(index)
+                .id(id)
+                .status(ProductBatchResult.Status.FAILED)
+                .error(Objects.requireNonNullElse(error, "failed"))
+                .build();
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.webapp.service;
+
+import com.example.product.entity.Product;
+import com.example.product.repository.ProductRepository;
+import com.example.webapp.event.ProductFieldsChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Atomic stock reservations. By default every change is a single conditional
+ * UPDATE that refuses to take stock below zero. Products promoted to hot mode are
+ * served from an in-memory {@link StripedStockCounter} instead, and their net
+ * change is written behind on a fixed interval. Hot mode assumes a single
+ * instance owns the product's stock; direct stock writes demote it first.
+ * Write-behind commits in its own transaction, so a caller that demotes and
+ * then rolls back cannot take already acknowledged reservations with it.
+ * Every delta that reaches the database publishes a {@link ProductFieldsChangedEvent}.
+ * <p>
+ * A delta the database refuses (its stock was changed behind the counter) is
+ * never dropped: the product is marked conflicted, counted in
+ * {@code stock.hot.rejected}, refuses further reservations and cannot be
+ * demoted until a release makes the delta fit and a flush writes it.
+ */
+@Slf4j
+@Service
+public class ProductStockService {
+
+    public enum Result { OK, INSUFFICIENT_STOCK, NOT_FOUND }
+
+    private enum WriteOutcome { WRITTEN, REJECTED, FAILED }
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate writeBehindTransaction;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int stripes;
+    private final Duration flushInterval;
+    private final ConcurrentMap<String, StripedStockCounter> hotCounters = new ConcurrentHashMap<>();
+    // Hot products whose pending delta the database refused
+    private final Set<String> conflicted = ConcurrentHashMap.newKeySet();
+    // Orders write-behind against demotion so a late flush never lands after a direct stock write
+    private final Object flushLock = new Object();
+    // Database-path adjustments share it; a promotion takes it exclusively so none lands unseen
+    private final ReadWriteLock promotionLock = new ReentrantReadWriteLock();
+    private final Counter rejected;
+    private ScheduledExecutorService flusher;
+
+    @Autowired
+    public ProductStockService(ProductRepository productRepository,
+                               PlatformTransactionManager transactionManager,
+                               ApplicationEventPublisher eventPublisher,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.stock.hot.stripes:0}") int stripes,
+                               @Value("${app.stock.hot.flush-interval:200ms}") Duration flushInterval) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.writeBehindTransaction = new TransactionTemplate(transactionManager);
+        this.writeBehindTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventPublisher = eventPublisher;
+        this.stripes = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+        this.flushInterval = flushInterval;
+        this.rejected = Counter.builder("stock.hot.rejected")
+                .description("Hot stock deltas the database refused to write")
+                .register(meterRegistry);
+        Gauge.builder("stock.hot.conflicted", conflicted, Set::size)
+                .description("Hot products holding a delta the database refused")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void startFlusher() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushAll, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopFlusher() {
+        flusher.shutdown();
+        for (String id : hotCounters.keySet()) {
+            try {
+                demote(id);
+            } catch (IllegalStateException e) {
+                log.error("Hot stock of product {} could not be written back on shutdown", id, e);
+            }
+        }
+    }
+
+    public Result reserve(String id, int quantity) {
+        return adjust(id, -quantity);
+    }
+
+    public Result release(String id, int quantity) {
+        return adjust(id, quantity);
+    }
+
+    public Result adjust(String id, int delta) {
+        StripedStockCounter counter = hotCounters.get(id);
+        while (true) {
+            if (counter != null) {
+                if (delta < 0 && conflicted.contains(id)) {
+                    return Result.INSUFFICIENT_STOCK;
+                }
+                StripedStockCounter.Outcome outcome = counter.adjust(delta);
+                if (outcome != StripedStockCounter.Outcome.CLOSED) {
+                    return outcome == StripedStockCounter.Outcome.APPLIED ? Result.OK : Result.INSUFFICIENT_STOCK;
+                }
+                // Being demoted: wait until its delta is written or the counter reopened, then look again
+                synchronized (flushLock) {
+                    counter = hotCounters.get(id);
+                }
+                continue;
+            }
+            Lock lock = promotionLock.readLock();
+            lock.lock();
+            try {
+                // Promoted since the first look: its counter already holds the stock read under the row lock
+                counter = hotCounters.get(id);
+                if (counter == null) {
+                    return adjustInDatabase(id, delta);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private Result adjustInDatabase(String id, int delta) {
+        return transactionTemplate.execute(status -> {
+            if (productRepository.adjustStockQuantity(id, delta, LocalDateTime.now()) > 0) {
+                eventPublisher.publishEvent(ProductFieldsChangedEvent.stockDelta(id, delta));
+                return Result.OK;
+            }
+            return productRepository.existsById(id) ? Result.INSUFFICIENT_STOCK : Result.NOT_FOUND;
+        });
+    }
+
+    // Current in-memory stock for a hot product, ahead of the database by up to one flush interval
+    public Optional<Long> hotStock(String id) {
+        StripedStockCounter counter = hotCounters.get(id);
+        return counter == null ? Optional.empty() : Optional.of(counter.available());
+    }
+
+    /**
+     * Moves the product's stock to an in-memory counter. The stock is read with
+     * the row locked and the counter installed before that lock is released,
+     * while no database-path adjustment here is in flight, so no committed
+     * change is missing from the counter's starting stock.
+     */
+    public boolean promote(String id) {
+        if (hotCounters.containsKey(id)) {
+            return true;
+        }
+        synchronized (flushLock) {
+            Lock lock = promotionLock.writeLock();
+            lock.lock();
+            try {
+                if (hotCounters.containsKey(id)) {
+                    return true;
+                }
+                return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                    Optional<Integer> stock = productRepository.findByIdForUpdate(id).map(Product::getStockQuantity);
+                    stock.ifPresent(quantity -> hotCounters.put(id, new StripedStockCounter(quantity, stripes)));
+                    return stock.isPresent();
+                }));
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Flushes and drops the in-memory counter so the database is authoritative
+     * again. The counter is only dropped once its delta has committed; if the
+     * write fails it is reopened with the delta still pending, and this throws
+     * so the caller does not go on to overwrite the stock:
+     * {@link HotStockConflictException} when the database refused the delta.
+     */
+    public void demote(String id) {
+        if (hotCounters.isEmpty()) {
+            return;
+        }
+        synchronized (flushLock) {
+            StripedStockCounter counter = hotCounters.get(id);
+            if (counter == null) {
+                return;
+            }
+            long delta = counter.close();
+            WriteOutcome outcome = write(id, delta);
+            if (outcome != WriteOutcome.WRITTEN) {
+                counter.reopen(delta);
+                if (outcome == WriteOutcome.REJECTED) {
+                    throw new HotStockConflictException(id, delta);
+                }
+                throw new IllegalStateException("Could not write back hot stock of product " + id);
+            }
+            hotCounters.remove(id, counter);
+        }
+    }
+
+    private void flushAll() {
+        synchronized (flushLock) {
+            hotCounters.forEach((id, counter) -> {
+                long delta = counter.drainPending();
+                if (delta != 0 && write(id, delta) != WriteOutcome.WRITTEN) {
+                    counter.restorePending(delta);
+                }
+            });
+        }
+    }
+
+    private WriteOutcome write(String id, long delta) {
+        if (delta == 0) {
+            return written(id);
+        }
+        try {
+            Integer updated = writeBehindTransaction.execute(status -> {
+                int rows = productRepository.adjustStockQuantity(id, Math.toIntExact(delta), LocalDateTime.now());
+                if (rows > 0) {
+                    eventPublisher.publishEvent(ProductFieldsChangedEvent.stockDelta(id, Math.toIntExact(delta)));
+                }
+                return rows;
+            });
+            if (updated != null && updated > 0) {
+                return written(id);
+            }
+            rejected.increment();
+            if (conflicted.add(id)) {
+                log.error("Write-behind of stock delta {} for product {} was rejected; keeping it and refusing "
+                        + "reservations until it fits", delta, id);
+            }
+            return WriteOutcome.REJECTED;
+        } catch (RuntimeException e) {
+            log.warn("Write-behind of stock delta {} for product {} failed; will retry", delta, id, e);
+            return WriteOutcome.FAILED;
+        }
+    }
+
+    private WriteOutcome written(String id) {
+        if (conflicted.remove(id)) {
+            log.info("Pending hot stock of product {} was written; conflict resolved", id);
+        }
+        return WriteOutcome.WRITTEN;
+    }
+}
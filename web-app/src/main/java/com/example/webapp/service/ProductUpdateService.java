@@ -0,0 +1,86 @@
+package com.example.webapp.service;
+
+import com.example.product.entity.Product;
+import com.example.product.repository.ProductRepository;
+import com.example.webapp.event.ProductFieldsChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Product updates that avoid the merge round trip: changes are applied to the
+ * managed entity loaded once in the same transaction, and hot fields can be
+ * written with a single UPDATE statement. Stale versions raise
+ * {@link ObjectOptimisticLockingFailureException}. Single-statement writes
+ * publish a {@link ProductFieldsChangedEvent}.
+ */
+@Service
+public class ProductUpdateService {
+
+    private final ProductRepository productRepository;
+    private final ProductStockService productStockService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public ProductUpdateService(ProductRepository productRepository, ProductStockService productStockService,
+                                ApplicationEventPublisher eventPublisher) {
+        this.productRepository = productRepository;
+        this.productStockService = productStockService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional
+    public Optional<Product> update(String id, Long expectedVersion, Consumer<Product> changes) {
+        productStockService.demote(id);
+        Optional<Product> existing = productRepository.findById(id);
+        existing.ifPresent(product -> {
+            if (expectedVersion != null && !expectedVersion.equals(product.getVersion())) {
+                throw new ObjectOptimisticLockingFailureException(Product.class, id);
+            }
+            changes.accept(product);
+            product.setUpdatedAt(LocalDateTime.now());
+            // Flush inside the transaction so the bumped version is visible to the caller
+            productRepository.flush();
+        });
+        return existing;
+    }
+
+    @Transactional
+    public boolean updatePrice(String id, BigDecimal price, Long expectedVersion) {
+        boolean updated = checkUpdated(id, expectedVersion,
+                productRepository.updatePrice(id, price, LocalDateTime.now(), expectedVersion));
+        if (updated) {
+            eventPublisher.publishEvent(ProductFieldsChangedEvent.price(id, price));
+        }
+        return updated;
+    }
+
+    @Transactional
+    public boolean updateStockQuantity(String id, Integer stockQuantity, Long expectedVersion) {
+        productStockService.demote(id);
+        boolean updated = checkUpdated(id, expectedVersion,
+                productRepository.updateStockQuantity(id, stockQuantity, LocalDateTime.now(), expectedVersion));
+        if (updated) {
+            eventPublisher.publishEvent(ProductFieldsChangedEvent.stockQuantity(id, stockQuantity));
+        }
+        return updated;
+    }
+
+    // No row touched means either a missing product or, when a version was given, a stale one
+    private boolean checkUpdated(String id, Long expectedVersion, int updated) {
+        if (updated > 0) {
+            return true;
+        }
+        if (expectedVersion != null && productRepository.existsById(id)) {
+            throw new ObjectOptimisticLockingFailureException(Product.class, id);
+        }
+        return false;
+    }
+}
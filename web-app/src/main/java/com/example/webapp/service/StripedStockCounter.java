@@ -0,0 +1,152 @@
+package com.example.webapp.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory stock for one hot product, split across independently locked stripes
+ * so concurrent reservations rarely contend. Each stripe also records the net
+ * change not yet written to the database; {@link #drainPending()} hands it to the
+ * write-behind flusher. A request that does not fit in a single stripe takes all
+ * stripe locks, in order, and rebalances the remaining stock evenly.
+ */
+final class StripedStockCounter {
+
+    enum Outcome { APPLIED, INSUFFICIENT, CLOSED }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private long available;
+        private long pending;
+    }
+
+    private final Stripe[] stripes;
+    private volatile boolean closed;
+
+    StripedStockCounter(long stock, int stripeCount) {
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+            stripes[i].available = stock / stripeCount + (i < stock % stripeCount ? 1 : 0);
+        }
+    }
+
+    Outcome adjust(int delta) {
+        Stripe home = stripes[ThreadLocalRandom.current().nextInt(stripes.length)];
+        home.lock.lock();
+        try {
+            if (closed) {
+                return Outcome.CLOSED;
+            }
+            if (home.available + delta >= 0) {
+                home.available += delta;
+                home.pending += delta;
+                return Outcome.APPLIED;
+            }
+        } finally {
+            home.lock.unlock();
+        }
+        return adjustAcrossStripes(delta);
+    }
+
+    long available() {
+        long total = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                total += stripe.available;
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return total;
+    }
+
+    // Net change since the last drain; the caller must write it to the database or hand it back
+    long drainPending() {
+        long delta = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                delta += stripe.pending;
+                stripe.pending = 0;
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return delta;
+    }
+
+    void restorePending(long delta) {
+        Stripe stripe = stripes[0];
+        stripe.lock.lock();
+        try {
+            stripe.pending += delta;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    // Stops accepting changes and returns everything not yet flushed
+    long close() {
+        lockAll();
+        try {
+            closed = true;
+            long delta = 0;
+            for (Stripe stripe : stripes) {
+                delta += stripe.pending;
+                stripe.pending = 0;
+            }
+            return delta;
+        } finally {
+            unlockAll();
+        }
+    }
+
+    // Undoes close() when the delta it returned could not be written
+    void reopen(long delta) {
+        lockAll();
+        try {
+            stripes[0].pending += delta;
+            closed = false;
+        } finally {
+            unlockAll();
+        }
+    }
+
+    private Outcome adjustAcrossStripes(int delta) {
+        lockAll();
+        try {
+            if (closed) {
+                return Outcome.CLOSED;
+            }
+            long total = 0;
+            for (Stripe stripe : stripes) {
+                total += stripe.available;
+            }
+            long remaining = total + delta;
+            if (remaining < 0) {
+                return Outcome.INSUFFICIENT;
+            }
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i].available = remaining / stripes.length + (i < remaining % stripes.length ? 1 : 0);
+            }
+            stripes[0].pending += delta;
+            return Outcome.APPLIED;
+        } finally {
+            unlockAll();
+        }
+    }
+
+    private void lockAll() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            stripes[i].lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.webapp.startup;
+
+import com.example.common.id.IdGenerator;
+import com.example.product.entity.Product;
+import com.example.product.repository.ProductRepository;
+import com.example.user.credential.CredentialService;
+import com.example.user.entity.User;
+import com.example.user.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Seeds sample products and users once the application is ready, rather than
+ * in controller constructors during context refresh. With
+ * {@code app.sample-data.async=true} seeding runs on its own thread, so it no
+ * longer delays the first request being served.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.sample-data.enabled", havingValue = "true", matchIfMissing = true)
+public class SampleDataSeeder {
+
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final IdGenerator idGenerator;
+    private final CredentialService credentialService;
+    private final boolean async;
+
+    @Autowired
+    public SampleDataSeeder(ProductRepository productRepository, UserRepository userRepository, IdGenerator idGenerator,
+                            CredentialService credentialService, @Value("${app.sample-data.async:false}") boolean async) {
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.idGenerator = idGenerator;
+        this.credentialService = credentialService;
+        this.async = async;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (async) {
+            Thread thread = new Thread(this::seed, "sample-data-seeder");
+            thread.setDaemon(true);
+            thread.start();
+        } else {
+            seed();
+        }
+    }
+
+    void seed() {
+        long start = System.nanoTime();
+        try {
+            seedProducts();
+            seedUsers();
+            log.info("Sample data seeded in {} ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Seeding sample data failed", e);
+        }
+    }
+
+    // Only into an empty catalog
+    private void seedProducts() {
+        if (productRepository.count() > 0) {
+            return;
+        }
+        productRepository.save(product("Laptop", "High-performance laptop", "999.99", 50));
+        productRepository.save(product("Smartphone", "Latest model smartphone", "599.99", 100));
+    }
+
+    // Sample users get an unusable random password, hashed like any other
+    private void seedUsers() {
+        if (!userRepository.existsByUsername("user1")) {
+            userRepository.save(user("user1", "John", "Doe"));
+        }
+        if (!userRepository.existsByUsername("user2")) {
+            userRepository.save(user("user2", "Jane", "Smith"));
+        }
+    }
+
+    private Product product(String name, String description, String price, int stockQuantity) {
+        return Product.builder()
+                .id(idGenerator.newId())
+                .name(name)
+                .description(description)
+                .price(new BigDecimal(price))
+                .stockQuantity(stockQuantity)
+                .category("Electronics")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private User user(String username, String firstName, String lastName) {
+        return User.builder()
+                .id(idGenerator.newId())
+                .username(username)
+                .email(username + "@example.com")
+                .password(credentialService.hash(UUID.randomUUID().toString()).join())
+                .firstName(firstName)
+                .lastName(lastName)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
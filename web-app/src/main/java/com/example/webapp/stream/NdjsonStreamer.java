@@ -0,0 +1,71 @@
+package com.example.webapp.stream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes the rows of a forward-only JPA stream as newline-delimited JSON.
+ * Each entity is detached once mapped so the persistence context stays empty
+ * and memory stays flat regardless of the number of rows.
+ */
+@Component
+public class NdjsonStreamer {
+
+    private static final int FLUSH_INTERVAL = 500;
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final EntityManager entityManager;
+    private final ObjectWriter writer;
+
+    @Autowired
+    public NdjsonStreamer(PlatformTransactionManager transactionManager,
+                          EntityManager entityManager,
+                          ObjectMapper objectMapper) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.entityManager = entityManager;
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public <T> StreamingResponseBody stream(Supplier<Stream<T>> source, Function<T, ?> mapper) {
+        return out -> readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<T> rows = source.get();
+                 JsonGenerator generator = writer.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(new SerializedString("\n"));
+                int written = 0;
+                Iterator<T> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    T row = iterator.next();
+                    writer.writeValue(generator, mapper.apply(row));
+                    entityManager.detach(row);
+                    if (++written % FLUSH_INTERVAL == 0) {
+                        generator.flush();
+                    }
+                }
+                if (written > 0) {
+                    generator.writeRaw('\n');
+                }
+                generator.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.webapp.throttle;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Caps requests in flight with a limit that adapts to latency (additive
+ * increase, multiplicative decrease). A request slower than the latency
+ * threshold cuts the limit by the backoff ratio, at most once per threshold, so
+ * a burst of slow responses to the same overload counts once; a fast request
+ * raises it by one while at least half the limit is in use. Both counters are
+ * updated with compare-and-set.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final LongSupplier clock;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // Earliest clock reading at which a slow response may cut the limit again
+    private final AtomicLong nextBackoffNanos;
+    // The limit is fractional so repeated backoff stays smooth; stored as double bits
+    private final AtomicLong limitBits;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold) {
+        this(initialLimit, minLimit, maxLimit, latencyThreshold, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold, LongSupplier clock) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.clock = clock;
+        this.nextBackoffNanos = new AtomicLong(clock.getAsLong());
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(Math.max(minLimit, Math.min(initialLimit, maxLimit))));
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Called once for every successful tryAcquire, unless release() is
+    public void release(long latencyNanos) {
+        int current = inFlight.getAndDecrement();
+        if (latencyNanos > latencyThresholdNanos) {
+            backOff();
+            return;
+        }
+        while (true) {
+            long bits = limitBits.get();
+            double limit = Double.longBitsToDouble(bits);
+            if (current * 2 < limit) {
+                return;
+            }
+            double next = Math.min(maxLimit, limit + 1);
+            if (next == limit || limitBits.compareAndSet(bits, Double.doubleToLongBits(next))) {
+                return;
+            }
+        }
+    }
+
+    private void backOff() {
+        long now = clock.getAsLong();
+        long allowed = nextBackoffNanos.get();
+        // Only the first slow response of a window cuts the limit
+        if (now - allowed < 0 || !nextBackoffNanos.compareAndSet(allowed, now + latencyThresholdNanos)) {
+            return;
+        }
+        while (true) {
+            long bits = limitBits.get();
+            double limit = Double.longBitsToDouble(bits);
+            double next = Math.max(minLimit, limit * BACKOFF_RATIO);
+            if (next == limit || limitBits.compareAndSet(bits, Double.doubleToLongBits(next))) {
+                return;
+            }
+        }
+    }
+
+    // Frees the slot without a latency sample, for requests whose duration says nothing about load
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int limit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
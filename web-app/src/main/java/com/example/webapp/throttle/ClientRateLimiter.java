@@ -0,0 +1,55 @@
+package com.example.webapp.throttle;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client token buckets. Each bucket is a single {@link AtomicLong} holding
+ * the time at which the bucket would be full again (the generic cell rate
+ * algorithm), so taking a token is one compare-and-set with no lock. A client
+ * may burst up to {@code burst} requests and then sustain
+ * {@code requestsPerSecond}. Idle clients are evicted.
+ */
+public class ClientRateLimiter {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final LongSupplier clock;
+    private final Cache<String, AtomicLong> buckets;
+
+    public ClientRateLimiter(double requestsPerSecond, int burst, long maxClients) {
+        this(requestsPerSecond, burst, maxClients, System::nanoTime);
+    }
+
+    ClientRateLimiter(double requestsPerSecond, int burst, long maxClients, LongSupplier clock) {
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        this.toleranceNanos = intervalNanos * Math.max(burst, 1);
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos(toleranceNanos).plusMinutes(1))
+                .build();
+    }
+
+    // Zero when a token was taken, otherwise how long until the next one is available
+    public Duration tryAcquire(String client) {
+        long now = clock.getAsLong();
+        AtomicLong fullAt = buckets.get(client, key -> new AtomicLong(now));
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long ahead = next - now - toleranceNanos;
+            if (ahead > 0) {
+                return Duration.ofNanos(ahead);
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return Duration.ZERO;
+            }
+        }
+    }
+}
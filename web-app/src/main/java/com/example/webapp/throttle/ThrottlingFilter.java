@@ -0,0 +1,112 @@
+package com.example.webapp.throttle;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Guards the API in the security filter chain. A client that has used up its
+ * token bucket gets 429 with Retry-After; when the adaptive concurrency limit
+ * is reached the request is shed with 503 before it touches the database.
+ * Decisions are counted in {@code http.server.throttle}, and the current limit
+ * and requests in flight are gauges.
+ * <p>
+ * Async requests (event streams, NDJSON, downloads, password checks) give up
+ * their concurrency slot once the request thread returns, without a latency
+ * sample: they can stay open for minutes, which says nothing about load and
+ * would otherwise shrink the limit and starve ordinary requests.
+ */
+public class ThrottlingFilter extends OncePerRequestFilter {
+
+    static final String DECISION_METRIC = "http.server.throttle";
+
+    private final ClientRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    // Only honoured when a trusted proxy sets it; otherwise clients are told apart by address
+    private final String clientHeader;
+    private final Counter allowed;
+    private final Counter rateLimited;
+    private final Counter shed;
+
+    public ThrottlingFilter(ClientRateLimiter rateLimiter, AdaptiveConcurrencyLimiter concurrencyLimiter,
+                            String clientHeader, MeterRegistry registry) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.clientHeader = clientHeader;
+        this.allowed = decisionCounter(registry, "allowed");
+        this.rateLimited = decisionCounter(registry, "rate_limited");
+        this.shed = decisionCounter(registry, "shed");
+        Gauge.builder("http.server.concurrency.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::limit)
+                .description("Adaptive limit on API requests in flight")
+                .register(registry);
+        Gauge.builder("http.server.concurrency.in_flight", concurrencyLimiter, AdaptiveConcurrencyLimiter::inFlight)
+                .description("API requests in flight")
+                .register(registry);
+    }
+
+    private static Counter decisionCounter(MeterRegistry registry, String decision) {
+        return Counter.builder(DECISION_METRIC)
+                .description("Admission decisions for API requests")
+                .tag("decision", decision)
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Duration wait = rateLimiter.tryAcquire(clientKey(request));
+        if (!wait.isZero()) {
+            rateLimited.increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, wait);
+            return;
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            shed.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, Duration.ofSeconds(1));
+            return;
+        }
+        allowed.increment();
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                concurrencyLimiter.release();
+            } else {
+                concurrencyLimiter.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        if (StringUtils.hasText(clientHeader)) {
+            String client = request.getHeader(clientHeader);
+            if (StringUtils.hasText(client)) {
+                return client;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, Duration retryAfter) {
+        long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+    }
+}
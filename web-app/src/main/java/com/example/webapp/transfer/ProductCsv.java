@@ -0,0 +1,186 @@
+package com.example.webapp.transfer;
+
+import com.example.api.dto.ProductDto;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * RFC 4180 CSV for products. An empty field reads as null and a quoted empty
+ * field as an empty string, so exports read back unchanged. Imports match
+ * columns by header name and ignore unknown ones.
+ */
+final class ProductCsv {
+
+    static final List<String> COLUMNS = List.of(
+            "id", "name", "description", "price", "stockQuantity", "category", "createdAt", "updatedAt", "version");
+
+    private ProductCsv() {
+    }
+
+    static void writeHeader(Writer out) throws IOException {
+        out.write(String.join(",", COLUMNS));
+        out.write("\r\n");
+    }
+
+    static void write(Writer out, ProductDto product) throws IOException {
+        writeField(out, product.getId());
+        out.write(',');
+        writeField(out, product.getName());
+        out.write(',');
+        writeField(out, product.getDescription());
+        out.write(',');
+        writeField(out, product.getPrice() == null ? null : product.getPrice().toPlainString());
+        out.write(',');
+        writeField(out, product.getStockQuantity() == null ? null : product.getStockQuantity().toString());
+        out.write(',');
+        writeField(out, product.getCategory());
+        out.write(',');
+        writeField(out, product.getCreatedAt() == null ? null : product.getCreatedAt().toString());
+        out.write(',');
+        writeField(out, product.getUpdatedAt() == null ? null : product.getUpdatedAt().toString());
+        out.write(',');
+        writeField(out, product.getVersion() == null ? null : product.getVersion().toString());
+        out.write("\r\n");
+    }
+
+    private static void writeField(Writer out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (!value.isEmpty() && value.chars().noneMatch(c -> c == ',' || c == '"' || c == '\r' || c == '\n')) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    // Reads records one at a time; quoted fields may span lines
+    static final class RecordReader {
+
+        private final Reader in;
+        private int next = -2;
+
+        RecordReader(Reader in) {
+            this.in = in;
+        }
+
+        // Null at end of input
+        List<String> read() throws IOException {
+            int c = peek();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                c = take();
+                if (c == '"' && field.length() == 0 && !quoted) {
+                    quoted = true;
+                    readQuoted(field);
+                } else if (c == ',') {
+                    fields.add(value(field, quoted));
+                    field.setLength(0);
+                    quoted = false;
+                } else if (c == '\r' || c == '\n' || c == -1) {
+                    if (c == '\r' && peek() == '\n') {
+                        take();
+                    }
+                    fields.add(value(field, quoted));
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+            }
+        }
+
+        private void readQuoted(StringBuilder field) throws IOException {
+            while (true) {
+                int c = take();
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field");
+                }
+                if (c == '"') {
+                    if (peek() != '"') {
+                        return;
+                    }
+                    take();
+                }
+                field.append((char) c);
+            }
+        }
+
+        private static String value(StringBuilder field, boolean quoted) {
+            return field.length() == 0 && !quoted ? null : field.toString();
+        }
+
+        private int peek() throws IOException {
+            if (next == -2) {
+                next = in.read();
+            }
+            return next;
+        }
+
+        private int take() throws IOException {
+            int c = peek();
+            next = -2;
+            return c;
+        }
+    }
+
+    // Maps a record onto a product using the column positions from the header
+    static ProductDto toProduct(Map<String, Integer> header, List<String> record) {
+        return ProductDto.builder()
+                .id(field(header, record, "id"))
+                .name(field(header, record, "name"))
+                .description(field(header, record, "description"))
+                .price(parse(header, record, "price", BigDecimal::new))
+                .stockQuantity(parse(header, record, "stockQuantity", Integer::valueOf))
+                .category(field(header, record, "category"))
+                .createdAt(parse(header, record, "createdAt", LocalDateTime::parse))
+                .updatedAt(parse(header, record, "updatedAt", LocalDateTime::parse))
+                .build();
+    }
+
+    static Map<String, Integer> header(List<String> record) {
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < record.size(); i++) {
+            if (record.get(i) != null) {
+                positions.put(record.get(i).trim(), i);
+            }
+        }
+        if (!positions.containsKey("name")) {
+            throw new IllegalArgumentException("CSV header must name the columns, including 'name'");
+        }
+        return positions;
+    }
+
+    private static String field(Map<String, Integer> header, List<String> record, String column) {
+        Integer position = header.get(column);
+        return position == null || position >= record.size() ? null : record.get(position);
+    }
+
+    private static <T> T parse(Map<String, Integer> header, List<String> record, String column,
+                               Function<String, T> parser) {
+        String value = field(header, record, column);
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return parser.apply(value.trim());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("invalid " + column + " '" + value + "'");
+        }
+    }
+}
@@ -0,0 +1,514 @@
+package com.example.webapp.transfer;
+
+import com.example.api.dto.ProductBatchOperation;
+import com.example.api.dto.ProductBatchResult;
+import com.example.api.dto.ProductDto;
+import com.example.api.dto.ProductTransferJobDto;
+import com.example.api.dto.ProductTransferJobDto.Format;
+import com.example.api.dto.ProductTransferJobDto.Status;
+import com.example.api.dto.ProductTransferJobDto.Type;
+import com.example.common.id.IdGenerator;
+import com.example.product.entity.Product;
+import com.example.product.mapper.ProductMapper;
+import com.example.product.repository.ProductRepository;
+import com.example.webapp.service.ProductBatchService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Background catalog exports and imports, staged as files in
+ * {@code app.transfer.directory} so neither holds the catalog in memory nor a
+ * request thread while it runs. Exports stream the products table through a
+ * buffered file channel and become visible under their final name only once
+ * complete. Imports are uploaded to a staging file first, then read back
+ * record by record and upserted in chunks by {@link ProductBatchService}, with
+ * up to {@code import-parallelism} chunks committing at once. A bad record
+ * fails only itself. Jobs are kept in memory until deleted.
+ */
+@Slf4j
+@Service
+public class ProductTransferJobs {
+
+    public enum Removal { REMOVED, RUNNING, NOT_FOUND }
+
+    private static final ProductMapper MAPPER = ProductMapper.INSTANCE;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_ERRORS = 20;
+    private static final int MAX_QUEUED_JOBS = 32;
+    private static final int PROGRESS_INTERVAL = 1000;
+
+    private final ProductRepository productRepository;
+    private final ProductBatchService productBatchService;
+    private final IdGenerator idGenerator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter productWriter;
+    private final ObjectReader productReader;
+    private final Path directory;
+    private final int concurrentJobs;
+    private final int importParallelism;
+    private final int chunkSize;
+    private final ConcurrentMap<String, Job> jobs = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor jobExecutor;
+    private ExecutorService chunkExecutor;
+
+    @Autowired
+    public ProductTransferJobs(ProductRepository productRepository,
+                               ProductBatchService productBatchService,
+                               IdGenerator idGenerator,
+                               EntityManager entityManager,
+                               PlatformTransactionManager transactionManager,
+                               ObjectMapper objectMapper,
+                               @Value("${app.transfer.directory:}") String directory,
+                               @Value("${app.transfer.concurrent-jobs:2}") int concurrentJobs,
+                               @Value("${app.transfer.import-parallelism:4}") int importParallelism,
+                               @Value("${app.transfer.chunk-size:1000}") int chunkSize) throws IOException {
+        this.productRepository = productRepository;
+        this.productBatchService = productBatchService;
+        this.idGenerator = idGenerator;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.productWriter = objectMapper.writerFor(ProductDto.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.productReader = objectMapper.readerFor(ProductDto.class);
+        this.directory = directory.isEmpty() ? Files.createTempDirectory("product-transfers") : Paths.get(directory);
+        this.concurrentJobs = concurrentJobs;
+        this.importParallelism = importParallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        Files.createDirectories(directory);
+        jobExecutor = new ThreadPoolExecutor(concurrentJobs, concurrentJobs, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(MAX_QUEUED_JOBS), daemonThreads("product-transfer"));
+        chunkExecutor = Executors.newFixedThreadPool(importParallelism, daemonThreads("product-import"));
+    }
+
+    @PreDestroy
+    void stop() {
+        jobExecutor.shutdownNow();
+        chunkExecutor.shutdownNow();
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public ProductTransferJobDto startExport(Format format) {
+        Job job = register(Type.EXPORT, format);
+        submit(job, () -> export(job));
+        return job.toDto();
+    }
+
+    // Copies the upload to a staging file on the calling thread; parsing and writing happen in the background
+    public ProductTransferJobDto startImport(Format format, InputStream upload) throws IOException {
+        Job job = register(Type.IMPORT, format);
+        try (ReadableByteChannel source = Channels.newChannel(upload);
+             FileChannel target = FileChannel.open(job.file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long position = 0;
+            long copied;
+            while ((copied = target.transferFrom(source, position, BUFFER_SIZE * 16L)) > 0) {
+                position += copied;
+            }
+            job.totalBytes = position;
+        } catch (IOException | RuntimeException e) {
+            discard(job);
+            throw e;
+        }
+        submit(job, () -> {
+            try {
+                importFile(job);
+            } finally {
+                Files.deleteIfExists(job.file);
+            }
+        });
+        return job.toDto();
+    }
+
+    public Optional<ProductTransferJobDto> find(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(Job::toDto);
+    }
+
+    public List<ProductTransferJobDto> list() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing((Job job) -> job.submittedAt))
+                .map(Job::toDto)
+                .collect(Collectors.toList());
+    }
+
+    // The file of a completed export
+    public Optional<Path> exportFile(String id) {
+        Job job = jobs.get(id);
+        if (job == null || job.type != Type.EXPORT || job.status != Status.COMPLETED) {
+            return Optional.empty();
+        }
+        return Optional.of(job.file);
+    }
+
+    public Removal remove(String id) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            return Removal.NOT_FOUND;
+        }
+        if (job.status == Status.QUEUED || job.status == Status.RUNNING) {
+            return Removal.RUNNING;
+        }
+        discard(job);
+        return Removal.REMOVED;
+    }
+
+    private Job register(Type type, Format format) {
+        String id = idGenerator.newId();
+        String extension = format == Format.CSV ? ".csv" : ".ndjson";
+        Job job = new Job(id, type, format, directory.resolve(id + "-" + type.name().toLowerCase() + extension));
+        jobs.put(id, job);
+        return job;
+    }
+
+    private void discard(Job job) {
+        jobs.remove(job.id);
+        try {
+            Files.deleteIfExists(job.file);
+        } catch (IOException e) {
+            log.warn("Could not delete transfer file {}", job.file, e);
+        }
+    }
+
+    private void submit(Job job, JobBody body) {
+        try {
+            jobExecutor.execute(() -> run(job, body));
+        } catch (RejectedExecutionException e) {
+            discard(job);
+            throw e;
+        }
+    }
+
+    private void run(Job job, JobBody body) {
+        job.started();
+        try {
+            body.run();
+            job.finished(Status.COMPLETED);
+            log.info("Product {} job {} completed: {} records in {} ms", job.type, job.id, job.processed.sum(),
+                    TimeUnit.NANOSECONDS.toMillis(job.endNanos - job.startNanos));
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            Throwable cause = e instanceof UncheckedIOException ? e.getCause() : e;
+            job.error(String.valueOf(cause.getMessage()));
+            job.finished(Status.FAILED);
+            log.warn("Product {} job {} failed", job.type, job.id, cause);
+        }
+    }
+
+    private void export(Job job) throws IOException {
+        job.totalRows = productRepository.count();
+        Path part = job.file.resolveSibling(job.file.getFileName() + ".part");
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE)) {
+            if (job.format == Format.CSV) {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                ProductCsv.writeHeader(writer);
+                exportRows(job, channel, product -> ProductCsv.write(writer, product));
+                writer.flush();
+            } else {
+                try (JsonGenerator generator = productWriter.getFactory().createGenerator(out)) {
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    generator.setRootValueSeparator(new SerializedString("\n"));
+                    exportRows(job, channel, product -> productWriter.writeValue(generator, product));
+                    if (job.processed.sum() > 0) {
+                        generator.writeRaw('\n');
+                    }
+                }
+            }
+            out.flush();
+            channel.force(false);
+            job.bytes.set(channel.size());
+        }
+        Files.move(part, job.file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void exportRows(Job job, FileChannel channel, RowWriter writer) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Product> rows = productRepository.streamAll()) {
+                Iterator<Product> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    Product row = iterator.next();
+                    writer.write(MAPPER.toDto(row));
+                    entityManager.detach(row);
+                    job.processed.increment();
+                    if (job.processed.sum() % PROGRESS_INTERVAL == 0) {
+                        job.bytes.set(channel.position());
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void importFile(Job job) throws IOException, InterruptedException {
+        // Bounds how far parsing runs ahead of the chunks being written
+        Semaphore inFlight = new Semaphore(importParallelism * 2);
+        try (FileChannel channel = FileChannel.open(job.file, StandardOpenOption.READ);
+             BufferedReader reader = new BufferedReader(
+                     new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            RecordSource source = job.format == Format.CSV ? csvSource(reader) : ndjsonSource(reader);
+            List<ProductBatchOperation> chunk = new ArrayList<>(chunkSize);
+            List<Long> recordNumbers = new ArrayList<>(chunkSize);
+            long record = 0;
+            while (true) {
+                ProductDto product;
+                try {
+                    product = source.next();
+                } catch (IllegalArgumentException | IOException e) {
+                    job.processed.increment();
+                    job.failed.increment();
+                    job.error("record " + (record + 1) + ": " + e.getMessage());
+                    record++;
+                    continue;
+                }
+                if (product == null) {
+                    break;
+                }
+                record++;
+                job.processed.increment();
+                chunk.add(ProductBatchOperation.builder().action(ProductBatchOperation.Action.UPSERT).product(product).build());
+                recordNumbers.add(record);
+                if (chunk.size() == chunkSize) {
+                    submitChunk(job, chunk, recordNumbers, inFlight);
+                    chunk = new ArrayList<>(chunkSize);
+                    recordNumbers = new ArrayList<>(chunkSize);
+                    job.bytes.set(channel.position());
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submitChunk(job, chunk, recordNumbers, inFlight);
+            }
+            inFlight.acquire(importParallelism * 2);
+            job.bytes.set(channel.size());
+        }
+    }
+
+    private void submitChunk(Job job, List<ProductBatchOperation> chunk, List<Long> recordNumbers,
+                             Semaphore inFlight) throws InterruptedException {
+        inFlight.acquire();
+        try {
+            chunkExecutor.execute(() -> {
+                try {
+                    for (ProductBatchResult result : productBatchService.apply(chunk, MAPPER::toEntity)) {
+                        if (result.getStatus() == ProductBatchResult.Status.CREATED) {
+                            job.created.increment();
+                        } else if (result.getStatus() == ProductBatchResult.Status.UPDATED) {
+                            job.updated.increment();
+                        } else {
+                            job.failed.increment();
+                            job.error("record " + recordNumbers.get(result.getIndex()) + ": " + result.getError());
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    job.failed.add(chunk.size());
+                    job.error("records " + recordNumbers.get(0) + "-" + recordNumbers.get(recordNumbers.size() - 1)
+                            + ": " + e.getMessage());
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private RecordSource ndjsonSource(BufferedReader reader) {
+        return () -> {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            try {
+                return productReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException(e.getOriginalMessage());
+            }
+        };
+    }
+
+    private static RecordSource csvSource(BufferedReader reader) throws IOException {
+        ProductCsv.RecordReader records = new ProductCsv.RecordReader(reader);
+        List<String> first = records.read();
+        if (first == null) {
+            return () -> null;
+        }
+        Map<String, Integer> header = ProductCsv.header(first);
+        return () -> {
+            List<String> record;
+            do {
+                record = records.read();
+                if (record == null) {
+                    return null;
+                }
+            } while (record.size() == 1 && record.get(0) == null);
+            return ProductCsv.toProduct(header, record);
+        };
+    }
+
+    @FunctionalInterface
+    private interface JobBody {
+        void run() throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ProductDto product) throws IOException;
+    }
+
+    // Next product, null at the end; a malformed record throws IllegalArgumentException and is skipped
+    @FunctionalInterface
+    private interface RecordSource {
+        ProductDto next() throws IOException;
+    }
+
+    private static final class Job {
+
+        final String id;
+        final Type type;
+        final Format format;
+        final Path file;
+        final LocalDateTime submittedAt = LocalDateTime.now();
+        final LongAdder processed = new LongAdder();
+        final LongAdder created = new LongAdder();
+        final LongAdder updated = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final AtomicLong bytes = new AtomicLong();
+        final List<String> errors = new ArrayList<>();
+        volatile Status status = Status.QUEUED;
+        volatile Long totalRows;
+        volatile Long totalBytes;
+        volatile LocalDateTime startedAt;
+        volatile LocalDateTime finishedAt;
+        volatile long startNanos;
+        volatile long endNanos;
+
+        Job(String id, Type type, Format format, Path file) {
+            this.id = id;
+            this.type = type;
+            this.format = format;
+            this.file = file;
+        }
+
+        void started() {
+            startNanos = System.nanoTime();
+            startedAt = LocalDateTime.now();
+            status = Status.RUNNING;
+        }
+
+        void finished(Status outcome) {
+            endNanos = System.nanoTime();
+            finishedAt = LocalDateTime.now();
+            status = outcome;
+        }
+
+        void error(String message) {
+            synchronized (errors) {
+                if (errors.size() < MAX_ERRORS) {
+                    errors.add(message);
+                }
+            }
+        }
+
+        ProductTransferJobDto toDto() {
+            Status current = status;
+            long elapsed = current == Status.QUEUED ? 0
+                    : (current == Status.RUNNING ? System.nanoTime() : endNanos) - startNanos;
+            long rows = processed.sum();
+            List<String> errorsSoFar;
+            synchronized (errors) {
+                errorsSoFar = errors.isEmpty() ? null : new ArrayList<>(errors);
+            }
+            return ProductTransferJobDto.builder()
+                    .id(id)
+                    .type(type)
+                    .format(format)
+                    .status(current)
+                    .processed(rows)
+                    .created(created.sum())
+                    .updated(updated.sum())
+                    .failed(failed.sum())
+                    .totalRows(totalRows)
+                    .bytes(bytes.get())
+                    .totalBytes(totalBytes)
+                    .rowsPerSecond(elapsed > 0 ? rows * 1e9 / elapsed : 0)
+                    .submittedAt(submittedAt)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .errors(errorsSoFar)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+-- Ids are VARBINARY: 16 bytes per UUID (see CompactIdType)
+
+create table products (
+    id             varbinary(255) not null,
+    name           varchar(255)   not null,
+    description    varchar(255),
+    price          numeric(19, 2) not null,
+    stock_quantity integer        not null,
+    category       varchar(255),
+    created_at     timestamp,
+    updated_at     timestamp,
+    version        bigint         not null default 0,
+    constraint pk_products primary key (id)
+);
+
+-- Leads with category, so it serves category lookups as well as keyset pages within a category
+create index idx_products_category_id on products (category, id);
+create index idx_products_name on products (name);
+
+create table users (
+    id         varbinary(255) not null,
+    username   varchar(255)   not null,
+    email      varchar(255)   not null,
+    password   varchar(255)   not null,
+    first_name varchar(255),
+    last_name  varchar(255),
+    created_at timestamp,
+    updated_at timestamp,
+    constraint pk_users primary key (id),
+    constraint uk_users_username unique (username),
+    constraint uk_users_email unique (email)
+);
@@ -0,0 +1,12 @@
+-- Cache invalidations exchanged between instances (see JdbcInvalidationBus); rows are pruned after a retention period
+
+create table cache_invalidations (
+    id         bigint generated by default as identity,
+    origin     varchar(36)  not null,
+    topic      varchar(16)  not null,
+    cache_key  varchar(255),
+    created_at timestamp    not null,
+    constraint pk_cache_invalidations primary key (id)
+);
+
+create index idx_cache_invalidations_created_at on cache_invalidations (created_at);
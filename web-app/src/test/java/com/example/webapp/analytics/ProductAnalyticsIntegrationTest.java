@@ -0,0 +1,113 @@
+package com.example.webapp.analytics;
+
+import com.example.api.dto.CategoryAggregateDto;
+import com.example.api.dto.LowStockReportDto;
+import com.example.api.dto.PriceHistogramDto;
+import com.example.product.entity.Product;
+import com.example.product.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Tiny partitions so even a few hundred rows are split into many concurrently scanned ranges
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:analytics;DB_CLOSE_DELAY=-1",
+        "app.analytics.parallelism=3",
+        "app.analytics.min-partition-rows=10",
+        "app.sample-data.enabled=false"
+})
+@AutoConfigureMockMvc
+class ProductAnalyticsIntegrationTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ProductRangeScanner scanner;
+    @Autowired
+    private ProductAnalytics analytics;
+
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        productRepository.deleteAll();
+        products.clear();
+        Random random = new Random(42);
+        for (int i = 0; i < 300; i++) {
+            // Random UUIDs cover the whole key space; a few ids are not UUIDs at all
+            String id = i % 50 == 0 ? "legacy-" + i : UUID.randomUUID().toString();
+            products.add(Product.builder()
+                    .id(id)
+                    .name("Product " + i)
+                    .price(BigDecimal.valueOf(random.nextInt(10_000), 2))
+                    .stockQuantity(random.nextInt(20))
+                    .category("Category " + (i % 3))
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        productRepository.saveAll(products);
+    }
+
+    @Test
+    void testRangesCoverEveryRowExactlyOnce() {
+        assertTrue(scanner.boundaries().size() > 1);
+
+        List<CategoryAggregateDto> categories = analytics.categories();
+        assertEquals(3, categories.size());
+        assertEquals(products.size(), categories.stream().mapToLong(CategoryAggregateDto::getProductCount).sum());
+        assertEquals(products.stream().mapToLong(Product::getStockQuantity).sum(),
+                categories.stream().mapToLong(CategoryAggregateDto::getTotalStock).sum());
+
+        CategoryAggregateDto first = categories.get(0);
+        assertEquals("Category 0", first.getCategory());
+        BigDecimal expectedValue = products.stream()
+                .filter(product -> product.getCategory().equals("Category 0"))
+                .map(product -> product.getPrice().multiply(BigDecimal.valueOf(product.getStockQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(0, expectedValue.compareTo(first.getStockValue()));
+    }
+
+    @Test
+    void testHistogramAndLowStockMatchTheRows() {
+        PriceHistogramDto histogram = analytics.priceHistogram(new BigDecimal("25"), null);
+        assertEquals(products.size(), histogram.getProductCount());
+        assertEquals(4, histogram.getBuckets().size());
+        PriceHistogramDto.Bucket lowest = histogram.getBuckets().get(0);
+        assertEquals(products.stream().filter(product -> product.getPrice().compareTo(new BigDecimal("25")) < 0).count(),
+                lowest.getProductCount());
+
+        LowStockReportDto lowStock = analytics.lowStock(2, 10);
+        long expected = products.stream().filter(product -> product.getStockQuantity() <= 2).count();
+        assertEquals(expected, lowStock.getProductCount());
+        assertEquals(Math.min(10, expected), lowStock.getProducts().size());
+        assertEquals(0, lowStock.getProducts().get(0).getStockQuantity());
+    }
+
+    @Test
+    void testEndpointsRejectInvalidParameters() throws Exception {
+        mockMvc.perform(get("/api/products/analytics/price-histogram").param("bucketWidth", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/products/analytics/price-histogram").param("category", "Category 1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.category").value("Category 1"))
+                .andExpect(jsonPath("$.productCount").value(100));
+        mockMvc.perform(get("/api/products/analytics/low-stock").param("threshold", "-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productCount").value(0));
+    }
+}
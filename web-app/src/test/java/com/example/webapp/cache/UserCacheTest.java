@@ -0,0 +1,39 @@
+package com.example.webapp.cache;
+
+import com.example.api.dto.UserDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UserCacheTest {
+
+    @Test
+    void testLoadRacingAnInvalidationIsNotCached() {
+        UserCache cache = new UserCache(100, Duration.ofMinutes(5));
+        UserDto before = UserDto.builder().id("1").username("alice").email("alice@example.com").build();
+        AtomicInteger loads = new AtomicInteger();
+
+        // The update commits and invalidates while the old row is being read
+        cache.findById("1", id -> {
+            loads.incrementAndGet();
+            cache.invalidate(id);
+            return Optional.of(before);
+        });
+        cache.findById("1", id -> {
+            loads.incrementAndGet();
+            return Optional.of(before);
+        });
+        assertEquals(2, loads.get());
+
+        cache.findById("1", id -> {
+            loads.incrementAndGet();
+            return Optional.of(before);
+        });
+        assertEquals(2, loads.get());
+        assertEquals("1", cache.findByUsername("alice", username -> Optional.empty()).orElseThrow().getId());
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.webapp.category;
+
+import com.example.api.dto.CategoryAggregateDto;
+import com.example.product.entity.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryAggregatesTest {
+
+    private static Product product(String id, String category, String price, int stock) {
+        return Product.builder().id(id).category(category).price(new BigDecimal(price)).stockQuantity(stock).build();
+    }
+
+    @Test
+    void testMinAndMaxSurviveRemoval() {
+        CategoryAggregates aggregates = new CategoryAggregates();
+        aggregates.put(product("1", "Books", "5.00", 1));
+        aggregates.put(product("2", "Books", "20.00", 2));
+        aggregates.put(product("3", "Books", "11.00", 3));
+
+        aggregates.remove("2");
+        CategoryAggregateDto books = aggregates.get("Books").orElseThrow();
+        assertEquals(2, books.getProductCount());
+        assertEquals(4, books.getTotalStock());
+        assertEquals(new BigDecimal("5.00"), books.getMinPrice());
+        assertEquals(new BigDecimal("11.00"), books.getMaxPrice());
+        assertEquals(new BigDecimal("8.00"), books.getAvgPrice());
+    }
+
+    @Test
+    void testRecategorizeAndFieldUpdates() {
+        CategoryAggregates aggregates = new CategoryAggregates();
+        aggregates.put(product("1", "Books", "5.00", 1));
+        aggregates.put(product("1", "Games", "5.00", 1));
+
+        assertTrue(aggregates.get("Books").isEmpty());
+        aggregates.updatePrice("1", new BigDecimal("7.00"));
+        aggregates.adjustStockQuantity("1", 4);
+        CategoryAggregateDto games = aggregates.get("Games").orElseThrow();
+        assertEquals(5, games.getTotalStock());
+        assertEquals(new BigDecimal("7.00"), games.getMaxPrice());
+        assertEquals("Games", aggregates.categoryOf("1").orElseThrow());
+    }
+
+    @Test
+    void testRebuildKeepsServingAndReplaysWritesMadeMeanwhile() {
+        CategoryAggregates aggregates = new CategoryAggregates();
+        aggregates.put(product("1", "Books", "5.00", 1));
+        aggregates.put(product("2", "Books", "20.00", 2));
+
+        try (CategoryAggregates.Rebuild rebuild = aggregates.beginRebuild()) {
+            // Committed while the rebuild query runs, which still sees the old rows
+            aggregates.remove("2");
+            aggregates.put(product("3", "Games", "9.00", 4));
+            aggregates.adjustStockQuantity("3", -1);
+            aggregates.updatePrice("1", new BigDecimal("6.00"));
+            assertEquals(1, aggregates.get("Books").orElseThrow().getProductCount());
+            rebuild.build(Stream.of(product("1", "Books", "5.00", 1), product("2", "Books", "20.00", 2)));
+        }
+        CategoryAggregateDto books = aggregates.get("Books").orElseThrow();
+        assertEquals(1, books.getProductCount());
+        assertEquals(new BigDecimal("6.00"), books.getMaxPrice());
+        assertEquals(3, aggregates.get("Games").orElseThrow().getTotalStock());
+        assertEquals(2, aggregates.size());
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.webapp.changelog;
+
+import com.example.api.dto.ProductChangeDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductChangeLogTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @TempDir
+    Path directory;
+
+    private ProductChangeLog open(long segmentBytes) throws IOException {
+        ProductChangeLog changeLog = new ProductChangeLog(directory, segmentBytes, 10, false, objectMapper);
+        changeLog.start();
+        return changeLog;
+    }
+
+    private static void appendAndAwait(ProductChangeLog changeLog, int count) throws InterruptedException {
+        long target = changeLog.endOffset() + count;
+        for (int i = 0; i < count; i++) {
+            changeLog.append(ProductChangeDto.builder()
+                    .type(ProductChangeDto.Type.UPDATED).productId("p" + i).stockDelta(i).build());
+        }
+        for (int i = 0; i < 500 && changeLog.endOffset() < target; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(target, changeLog.endOffset());
+    }
+
+    private List<ProductChangeDto> read(ProductChangeLog changeLog, long from, long to) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        changeLog.copyTo(from, to, out);
+        List<ProductChangeDto> changes = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                changes.add(objectMapper.readValue(line, ProductChangeDto.class));
+            }
+        }
+        return changes;
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void testReadsFromAnyOffsetAcrossSegments() throws Exception {
+        ProductChangeLog changeLog = open(1024);
+        appendAndAwait(changeLog, 1000);
+        assertTrue(segmentCount() > 1);
+
+        List<ProductChangeDto> changes = read(changeLog, 700, 705);
+        assertEquals(Arrays.asList(700L, 701L, 702L, 703L, 704L),
+                changes.stream().map(ProductChangeDto::getOffset).collect(Collectors.toList()));
+        assertEquals("p700", changes.get(0).getProductId());
+        assertEquals(300, read(changeLog, 700, Long.MAX_VALUE).size());
+        assertTrue(read(changeLog, 1000, 2000).isEmpty());
+        changeLog.stop();
+    }
+
+    @Test
+    void testFullQueueDropsInsteadOfBlockingAndLogsAGap() throws Exception {
+        // Not started, so nothing drains the queue
+        ProductChangeLog changeLog = new ProductChangeLog(directory, 1 << 20, 10, false, objectMapper);
+        for (int i = 0; i < 65_536; i++) {
+            changeLog.append(ProductChangeDto.builder()
+                    .type(ProductChangeDto.Type.UPDATED).productId("p" + i).stockDelta(1).build());
+        }
+        assertEquals(0, changeLog.dropped());
+        changeLog.append(ProductChangeDto.builder().type(ProductChangeDto.Type.DELETED).productId("lost").build());
+        changeLog.append(ProductChangeDto.builder().type(ProductChangeDto.Type.DELETED).productId("lost").build());
+        assertEquals(2, changeLog.dropped());
+
+        changeLog.start();
+        for (int i = 0; i < 500 && changeLog.endOffset() < 65_537; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(65_537, changeLog.endOffset());
+        List<ProductChangeDto> gaps = read(changeLog, 0, Long.MAX_VALUE).stream()
+                .filter(change -> change.getType() == ProductChangeDto.Type.GAP)
+                .collect(Collectors.toList());
+        assertEquals(1, gaps.size());
+        assertEquals(2L, gaps.get(0).getDropped());
+        // Closes the batch that was queued ahead of the drops
+        assertEquals(10, gaps.get(0).getOffset());
+
+        // Nothing further is dropped, so no further gap
+        appendAndAwait(changeLog, 5);
+        assertTrue(read(changeLog, 65_537, Long.MAX_VALUE).stream()
+                .noneMatch(change -> change.getType() == ProductChangeDto.Type.GAP));
+        changeLog.stop();
+    }
+
+    @Test
+    void testReopenDropsTornTailAndContinuesOffsets() throws Exception {
+        ProductChangeLog changeLog = open(1 << 20);
+        appendAndAwait(changeLog, 3);
+        changeLog.stop();
+        // A crash in the middle of writing a fourth record
+        try (Stream<Path> files = Files.list(directory);
+             FileChannel channel = FileChannel.open(files.findFirst().orElseThrow(), StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 40, 0, 0}));
+        }
+
+        ProductChangeLog reopened = open(1 << 20);
+        assertEquals(3, reopened.endOffset());
+        appendAndAwait(reopened, 1);
+        List<ProductChangeDto> changes = read(reopened, 0, Long.MAX_VALUE);
+        assertEquals(4, changes.size());
+        assertEquals(3, changes.get(3).getOffset());
+        reopened.stop();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.webapp.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Lazy initialization must not drop beans that only act on events, such as the change publisher feeding search
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:faststart;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("fast-start")
+@AutoConfigureMockMvc
+class FastStartProfileIntegrationTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testWritesReachSearchUnderLazyInitialization() throws Exception {
+        mockMvc.perform(post("/api/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Standing Desk\",\"price\":300.00,\"stockQuantity\":2,\"category\":\"Office\"}"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/products/search").param("q", "standing"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Standing Desk"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.webapp.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// The migrations must produce the schema the entities expect, or ddl-auto=validate fails the context
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:prodprofile;DB_CLOSE_DELAY=-1", "app.changelog.directory=",
+        "app.transfer.directory="})
+@ActiveProfiles("prod")
+@AutoConfigureMockMvc
+class ProductionProfileIntegrationTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testMigrationsCreateTheIndexedSchema() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "select index_name from information_schema.indexes where table_name in ('PRODUCTS', 'USERS')", String.class);
+        for (String index : new String[]{"IDX_PRODUCTS_CATEGORY_ID", "IDX_PRODUCTS_NAME", "UK_USERS_USERNAME", "UK_USERS_EMAIL"}) {
+            assertTrue(indexes.stream().anyMatch(name -> name.startsWith(index)), index + " missing from " + indexes);
+        }
+    }
+
+    @Test
+    void testProductsRoundTripOnMigratedSchema() throws Exception {
+        String created = mockMvc.perform(post("/api/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Lamp\",\"price\":25.00,\"stockQuantity\":3,\"category\":\"Home\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String id = created.replaceAll(".*\"id\":\"([^\"]+)\".*", "$1");
+
+        mockMvc.perform(get("/api/products/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Lamp"));
+        mockMvc.perform(get("/api/products/category/{category}", "Home"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(id));
+    }
+}
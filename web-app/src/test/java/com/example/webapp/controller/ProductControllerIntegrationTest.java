@@ -1,7 +1,13 @@
 package com.example.webapp.controller;
 
+import com.example.api.dto.ProductDto;
 import com.example.product.entity.Product;
 import com.example.product.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,12 +15,27 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.hamcrest.Matchers.startsWith;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
@@ -24,12 +45,17 @@ class ProductControllerIntegrationTest {
     private MockMvc mockMvc;
     @Autowired
     private ProductRepository productRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private String productId;
 
     @BeforeEach
     void setup() {
         productRepository.deleteAll();
+        productId = UUID.randomUUID().toString();
         Product product = Product.builder()
-                .id(UUID.randomUUID().toString())
+                .id(productId)
                 .name("TestProduct")
                 .description("A test product")
                 .price(new BigDecimal("10.00"))
@@ -47,4 +73,361 @@ class ProductControllerIntegrationTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$[0].name").value("TestProduct"));
     }
+
+    @Test
+    void testHandlerAndRepositoryMetricsAreExposed() throws Exception {
+        mockMvc.perform(get("/api/products")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/metrics/http.server.requests").param("tag", "uri:/api/products"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics/spring.data.repository.invocations")
+                        .param("tag", "repository:ProductRepository").param("tag", "method:findDtoPage"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics/repository.rows")
+                        .param("tag", "repository:ProductRepository").param("tag", "method:findDtoPage"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.baseUnit").value("rows"))
+                .andExpect(jsonPath("$.measurements[?(@.statistic == 'COUNT')]").isNotEmpty());
+    }
+
+    @Test
+    void testChangeFeedReturnsChangesSinceOffset() throws Exception {
+        long since = Long.parseLong(mockMvc.perform(get("/api/products/changes").param("since", "0"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("X-Next-Offset"));
+        mockMvc.perform(put("/api/products/{id}/price", productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"price\":12.50}"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/products/{id}", productId))
+                .andExpect(status().isNoContent());
+
+        // Earlier changes (the setup's delete and insert) may still be arriving, so look at this product's last two
+        List<String> changes = Collections.emptyList();
+        for (int attempt = 0; attempt < 100 && (changes.isEmpty() || !changes.get(changes.size() - 1).contains("DELETED")); attempt++) {
+            Thread.sleep(20);
+            MvcResult result = mockMvc.perform(get("/api/products/changes").param("since", String.valueOf(since)))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            String feed = mockMvc.perform(asyncDispatch(result)).andReturn().getResponse().getContentAsString();
+            changes = Arrays.stream(feed.split("\n")).filter(line -> line.contains(productId)).collect(Collectors.toList());
+        }
+        assertTrue(changes.size() >= 2, changes.toString());
+        String updated = changes.get(changes.size() - 2);
+        String deleted = changes.get(changes.size() - 1);
+        assertTrue(updated.contains("\"type\":\"UPDATED\"") && updated.contains("\"price\":12.5"), updated);
+        assertTrue(deleted.contains("\"type\":\"DELETED\""), deleted);
+    }
+
+    @Test
+    void testGetAllProductsPagesByCursor() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            productRepository.save(Product.builder()
+                    .id(UUID.randomUUID().toString())
+                    .name("Extra" + i)
+                    .price(new BigDecimal("1.00"))
+                    .stockQuantity(1)
+                    .category("Test")
+                    .build());
+        }
+
+        MvcResult firstPage = mockMvc.perform(get("/api/products").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(header().exists(ProductController.NEXT_CURSOR_HEADER))
+                .andReturn();
+        String cursor = firstPage.getResponse().getHeader(ProductController.NEXT_CURSOR_HEADER);
+
+        mockMvc.perform(get("/api/products").param("limit", "2").param("after", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().doesNotExist(ProductController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void testStreamProductsByCategory() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/products/category/Test/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("\"name\":\"TestProduct\"")));
+    }
+
+    @Test
+    void testApplyBatch() throws Exception {
+        String batch = "["
+                + "{\"action\":\"UPSERT\",\"product\":{\"name\":\"New\",\"price\":2.50,\"stockQuantity\":3}},"
+                + "{\"action\":\"UPSERT\",\"product\":{\"id\":\"" + productId + "\",\"name\":\"Renamed\",\"price\":10.00,\"stockQuantity\":5}},"
+                + "{\"action\":\"UPSERT\",\"product\":{\"name\":\"NoPrice\"}},"
+                + "{\"action\":\"DELETE\",\"id\":\"missing\"},"
+                + "{\"action\":\"UPSERT\",\"product\":{\"name\":\" \",\"price\":-1,\"stockQuantity\":-2}},"
+                + "{\"action\":\"UPSERT\",\"product\":{\"name\":\"SoldOut\",\"price\":1.00,\"stockQuantity\":0}}"
+                + "]";
+
+        mockMvc.perform(post("/api/products/batch").contentType(MediaType.APPLICATION_JSON).content(batch))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(6)))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[1].status").value("UPDATED"))
+                .andExpect(jsonPath("$[2].status").value("FAILED"))
+                .andExpect(jsonPath("$[3].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$[4].status").value("FAILED"))
+                .andExpect(jsonPath("$[4].error").value("Price must be positive; Product name is required; "
+                        + "Stock quantity must not be negative"))
+                .andExpect(jsonPath("$[5].status").value("CREATED"));
+
+        mockMvc.perform(get("/api/products/{id}", productId))
+                .andExpect(jsonPath("$.name").value("Renamed"));
+    }
+
+    @Test
+    void testApplyBatchStream() throws Exception {
+        String batch = "{\"action\":\"DELETE\",\"id\":\"" + productId + "\"}\n"
+                + "{\"action\":\"UPSERT\",\"product\":{\"name\":\"Streamed\",\"price\":1.00,\"stockQuantity\":1}}\n";
+
+        mockMvc.perform(post("/api/products/batch").contentType(MediaType.APPLICATION_NDJSON).content(batch))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"status\":\"DELETED\"")))
+                .andExpect(content().string(containsString("\"status\":\"CREATED\"")));
+    }
+
+    @Test
+    void testPatchProductChecksVersion() throws Exception {
+        mockMvc.perform(patch("/api/products/{id}", productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"price\":12.50,\"version\":0}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("TestProduct"))
+                .andExpect(jsonPath("$.price").value(12.50))
+                .andExpect(jsonPath("$.version").value(1));
+
+        mockMvc.perform(patch("/api/products/{id}", productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"stockQuantity\":1,\"version\":0}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testUpdateStockQuantityInSingleStatement() throws Exception {
+        mockMvc.perform(put("/api/products/{id}/stock", productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"stockQuantity\":42}"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/products/{id}", productId))
+                .andExpect(jsonPath("$.stockQuantity").value(42))
+                .andExpect(jsonPath("$.version").value(1));
+
+        mockMvc.perform(put("/api/products/{id}/price", "missing")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"price\":1.00}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testReserveStockStopsAtZero() throws Exception {
+        mockMvc.perform(post("/api/products/{id}/stock/reserve", productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\":5}"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(post("/api/products/{id}/stock/reserve", productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\":1}"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(post("/api/products/{id}/stock/release", productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\":2}"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/products/{id}", productId))
+                .andExpect(jsonPath("$.stockQuantity").value(2));
+    }
+
+    @Test
+    void testHotStockIsWrittenBehindOnDemote() throws Exception {
+        mockMvc.perform(put("/api/products/{id}/stock/hot", productId))
+                .andExpect(status().isNoContent());
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(post("/api/products/{id}/stock/reserve", productId)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"quantity\":1}"))
+                    .andExpect(status().isNoContent());
+        }
+        mockMvc.perform(post("/api/products/{id}/stock/reserve", productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\":1}"))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(delete("/api/products/{id}/stock/hot", productId))
+                .andExpect(status().isNoContent());
+        assertEquals(0, productRepository.findById(productId).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void testHotStockSurvivesARejectedUpdate() throws Exception {
+        mockMvc.perform(put("/api/products/{id}/stock/hot", productId))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(post("/api/products/{id}/stock/reserve", productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\":2}"))
+                .andExpect(status().isNoContent());
+
+        // Demotes the product, then fails its version check and rolls back
+        mockMvc.perform(put("/api/products/{id}", productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Stale\",\"price\":10.00,\"stockQuantity\":9,\"version\":99}"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(put("/api/products/{id}/stock", productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"stockQuantity\":9,\"version\":99}"))
+                .andExpect(status().isConflict());
+
+        assertEquals(3, productRepository.findById(productId).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void testRejectedWriteBehindKeepsTheDeltaAndBlocksDemotion() throws Exception {
+        mockMvc.perform(put("/api/products/{id}/stock/hot", productId))
+                .andExpect(status().isNoContent());
+        // Another instance sells most of the stock behind the counter's back
+        Product product = productRepository.findById(productId).orElseThrow();
+        product.setStockQuantity(1);
+        productRepository.save(product);
+        double rejectedBefore = meterRegistry.counter("stock.hot.rejected").count();
+
+        mockMvc.perform(post("/api/products/{id}/stock/reserve", productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\":4}"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/products/{id}/stock/hot", productId))
+                .andExpect(status().isConflict());
+        assertTrue(meterRegistry.counter("stock.hot.rejected").count() > rejectedBefore);
+        assertEquals(1, productRepository.findById(productId).orElseThrow().getStockQuantity());
+
+        // Still hot with the delta kept, and no more reservations until it fits
+        mockMvc.perform(get("/api/products/{id}", productId))
+                .andExpect(jsonPath("$.stockQuantity").value(1));
+        mockMvc.perform(post("/api/products/{id}/stock/reserve", productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\":1}"))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(post("/api/products/{id}/stock/release", productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\":3}"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/products/{id}/stock/hot", productId))
+                .andExpect(status().isNoContent());
+        assertEquals(0, productRepository.findById(productId).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void testSearchProducts() throws Exception {
+        productRepository.save(Product.builder()
+                .id(UUID.randomUUID().toString())
+                .name("Wireless Keyboard")
+                .description("Compact keyboard for tablets")
+                .price(new BigDecimal("49.00"))
+                .stockQuantity(3)
+                .category("Accessories")
+                .build());
+
+        mockMvc.perform(get("/api/products/search").param("q", "keybord"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("Wireless Keyboard"));
+        mockMvc.perform(get("/api/products/search").param("q", "wire access"))
+                .andExpect(jsonPath("$[0].name").value("Wireless Keyboard"));
+        mockMvc.perform(get("/api/products/search").param("q", "testproduct"))
+                .andExpect(jsonPath("$[0].id").value(productId));
+    }
+
+    @Test
+    void testCategoryListingAndAggregatesFollowSingleStatementUpdates() throws Exception {
+        mockMvc.perform(get("/api/products/category/{category}", "Test"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].price").value(10.00));
+
+        mockMvc.perform(put("/api/products/{id}/price", productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"price\":12.50}"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(post("/api/products/{id}/stock/reserve", productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\":2}"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/products/category/{category}", "Test"))
+                .andExpect(jsonPath("$[0].price").value(12.50))
+                .andExpect(jsonPath("$[0].stockQuantity").value(3));
+        mockMvc.perform(get("/api/products/category/{category}/aggregates", "Test"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productCount").value(1))
+                .andExpect(jsonPath("$.totalStock").value(3))
+                .andExpect(jsonPath("$.minPrice").value(12.50))
+                .andExpect(jsonPath("$.avgPrice").value(12.50));
+
+        mockMvc.perform(delete("/api/products/{id}", productId))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/products/category/{category}/aggregates", "Test"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/products/category/{category}", "Test"))
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void testConditionalGetsAnswerNotModifiedUntilAWrite() throws Exception {
+        String etag = mockMvc.perform(get("/api/products/{id}", productId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", containsString("no-cache")))
+                .andExpect(header().string("ETag", startsWith("W/\"")))
+                .andExpect(header().string("Vary", containsString("Accept")))
+                .andReturn().getResponse().getHeader("ETag");
+        String listEtag = mockMvc.perform(get("/api/products"))
+                .andExpect(header().string("Vary", containsString("Accept")))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/products/{id}", productId).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("Vary", containsString("Accept")))
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/products").header("If-None-Match", listEtag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(put("/api/products/{id}/price", productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"price\":11.00}"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/products/{id}", productId).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.price").value(11.00));
+        mockMvc.perform(get("/api/products").header("If-None-Match", listEtag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testBinaryFormatsAreNegotiated() throws Exception {
+        mockMvc.perform(get("/api/products/{id}", productId))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+
+        MediaType smile = MediaType.parseMediaType("application/x-jackson-smile");
+        ObjectMapper[] mappers = {
+            CBORMapper.builder().addModule(new JavaTimeModule()).build(),
+            SmileMapper.builder().addModule(new JavaTimeModule()).build()
+        };
+        MediaType[] mediaTypes = {MediaType.APPLICATION_CBOR, smile};
+        for (int i = 0; i < mappers.length; i++) {
+            byte[] body = mockMvc.perform(get("/api/products/{id}", productId).accept(mediaTypes[i]))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(mediaTypes[i]))
+                    .andReturn().getResponse().getContentAsByteArray();
+            ProductDto product = mappers[i].readValue(body, ProductDto.class);
+            assertEquals("TestProduct", product.getName());
+            assertEquals(0, new BigDecimal("10.00").compareTo(product.getPrice()));
+        }
+    }
 }
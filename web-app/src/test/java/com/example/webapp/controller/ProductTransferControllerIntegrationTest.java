@@ -0,0 +1,93 @@
+package com.example.webapp.controller;
+
+import com.example.product.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductTransferControllerIntegrationTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void testCsvImportReportsCreatedAndFailedRecords() throws Exception {
+        String csv = "name,price,stockQuantity,category\r\n"
+                + "Import Lamp,25.50,3,Import\r\n"
+                + "\"Import Chair, oak\",80,1,Import\r\n"
+                + "Import Broken,not-a-price,1,Import\r\n";
+        String id = startJob(post("/api/products/jobs/import").contentType("text/csv").content(csv));
+
+        Map<?, ?> job = awaitFinished(id);
+        assertEquals("COMPLETED", job.get("status"));
+        assertEquals(3, job.get("processed"));
+        assertEquals(2, job.get("created"));
+        assertEquals(1, job.get("failed"));
+        assertTrue(job.get("errors").toString().contains("record 3"));
+        assertTrue(productRepository.findByCategory("Import").stream()
+                .anyMatch(product -> product.getName().equals("Import Chair, oak")));
+    }
+
+    @Test
+    void testExportIsDownloadableOnceComplete() throws Exception {
+        String importId = startJob(post("/api/products/jobs/import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"name\":\"Export Kettle\",\"price\":40.00,\"stockQuantity\":7,\"category\":\"Export\"}\n"));
+        assertEquals("COMPLETED", awaitFinished(importId).get("status"));
+
+        String id = startJob(post("/api/products/jobs/export").param("format", "NDJSON"));
+        Map<?, ?> job = awaitFinished(id);
+        assertEquals("COMPLETED", job.get("status"));
+        assertEquals(((Number) job.get("totalRows")).longValue(), ((Number) job.get("processed")).longValue());
+
+        mockMvc.perform(get("/api/products/jobs/{id}/file", id))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("\"name\":\"Export Kettle\"")));
+
+        mockMvc.perform(delete("/api/products/jobs/{id}", id)).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/products/jobs/{id}/file", id)).andExpect(status().isNotFound());
+    }
+
+    private String startJob(RequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request)
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andReturn().getResponse().getContentAsString();
+        return (String) objectMapper.readValue(body, Map.class).get("id");
+    }
+
+    private Map<?, ?> awaitFinished(String id) throws Exception {
+        for (int attempt = 0; attempt < 200; attempt++) {
+            String body = mockMvc.perform(get("/api/products/jobs/{id}", id))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            Map<?, ?> job = objectMapper.readValue(body, Map.class);
+            if (job.get("status").equals("COMPLETED") || job.get("status").equals("FAILED")) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Job " + id + " did not finish");
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.webapp.controller;
+
+import com.example.product.entity.Product;
+import com.example.product.repository.ProductRepository;
+import com.example.webapp.reactive.ReactiveProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "app.reactive.page-size=2")
+@AutoConfigureMockMvc
+class ReactiveProductControllerIntegrationTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ReactiveProductRepository reactiveProductRepository;
+
+    private String productId;
+
+    @BeforeEach
+    void setup() {
+        productRepository.deleteAll();
+        for (int i = 0; i < 5; i++) {
+            Product product = productRepository.save(Product.builder()
+                    .id(UUID.randomUUID().toString())
+                    .name("Reactive" + i)
+                    .price(new BigDecimal("3.00"))
+                    .stockQuantity(i)
+                    .category("Test")
+                    .build());
+            productId = product.getId();
+        }
+    }
+
+    @Test
+    void testGetProductById() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/reactive/products/{id}", productId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(productId));
+        MvcResult missing = mockMvc.perform(get("/api/reactive/products/{id}", "missing")).andReturn();
+        mockMvc.perform(asyncDispatch(missing))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testStreamReadsEveryPage() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/reactive/products/stream").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+        String body = result.getResponse().getContentAsString();
+        assertEquals(5, body.lines().filter(line -> line.contains("\"name\":\"Reactive")).count());
+    }
+
+    @Test
+    void testStreamsEmitOffTheJdbcThreads() {
+        List<String> threads = reactiveProductRepository.findAll(null)
+                .map(product -> Thread.currentThread().getName())
+                .collectList()
+                .block();
+
+        assertEquals(5, threads.size());
+        assertTrue(threads.stream().allMatch(thread -> thread.startsWith("parallel-")), threads.toString());
+    }
+
+    @Test
+    void testCreateProduct() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/reactive/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Created\",\"price\":1.00,\"stockQuantity\":1,\"category\":\"Test\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.name").value("Created"));
+        assertEquals(6, productRepository.count());
+    }
+
+    private ResultActions performAsync(RequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+
+    @Test
+    void testFieldAndStockUpdates() throws Exception {
+        performAsync(patch("/api/reactive/products/{id}", productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Patched\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Patched"))
+                .andExpect(jsonPath("$.stockQuantity").value(4));
+        performAsync(put("/api/reactive/products/{id}/price", productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"price\":4.50}"))
+                .andExpect(status().isNoContent());
+        performAsync(post("/api/reactive/products/{id}/stock/reserve", productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\":3}"))
+                .andExpect(status().isNoContent());
+        performAsync(post("/api/reactive/products/{id}/stock/reserve", productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\":3}"))
+                .andExpect(status().isConflict());
+
+        Product product = productRepository.findById(productId).orElseThrow();
+        assertEquals("Patched", product.getName());
+        assertEquals(new BigDecimal("4.50"), product.getPrice());
+        assertEquals(1, product.getStockQuantity());
+    }
+
+    @Test
+    void testSearchAggregatesAndBatch() throws Exception {
+        performAsync(post("/api/reactive/products/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"action\":\"UPSERT\",\"product\":{\"name\":\"Reactive Kettle\","
+                                + "\"price\":7.00,\"stockQuantity\":2,\"category\":\"Kitchen\"}}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("CREATED"));
+
+        performAsync(get("/api/reactive/products/search").param("q", "ketle"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Reactive Kettle"));
+        performAsync(get("/api/reactive/products/category/{category}/aggregates", "Kitchen"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productCount").value(1))
+                .andExpect(jsonPath("$.totalStock").value(2));
+    }
+}
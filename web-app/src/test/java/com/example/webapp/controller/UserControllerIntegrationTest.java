@@ -0,0 +1,208 @@
+package com.example.webapp.controller;
+
+import com.example.api.dto.UserCredentials;
+import com.example.api.dto.UserDto;
+import com.example.user.entity.User;
+import com.example.user.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserControllerIntegrationTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+
+    // Create, update and verify answer once the password is hashed, off the request thread
+    private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult result = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+
+    private ResultActions verify(String login, String password) throws Exception {
+        return performAsync(post("/api/users/verify")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new UserCredentials(login, password))));
+    }
+
+    private String createUser(String username, String email) throws Exception {
+        UserDto user = UserDto.builder()
+                .username(username)
+                .email(email)
+                .password("Secret123")
+                .firstName("Test")
+                .build();
+        String body = performAsync(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(user)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, UserDto.class).getId();
+    }
+
+    @Test
+    void testCreateAndGetUser() throws Exception {
+        String id = createUser("alice", "alice@example.com");
+
+        mockMvc.perform(get("/api/users/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("alice"))
+                .andExpect(jsonPath("$.password").doesNotExist());
+        mockMvc.perform(get("/api/users/email/{email}", "alice@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id));
+    }
+
+    @Test
+    void testUpdateInvalidatesCachedUser() throws Exception {
+        String id = createUser("erin", "erin@example.com");
+        mockMvc.perform(get("/api/users/username/{username}", "erin"))
+                .andExpect(status().isOk());
+
+        UserDto renamed = UserDto.builder().username("erin2").email("erin@example.com").build();
+        performAsync(put("/api/users/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(renamed)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/users/username/{username}", "erin"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/users/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("erin2"));
+    }
+
+    @Test
+    void testDuplicateUsernameAndEmailAreRejected() throws Exception {
+        String id = createUser("bob", "bob@example.com");
+        createUser("carol", "carol@example.com");
+
+        UserDto duplicate = UserDto.builder().username("bob").email("other@example.com").password("Secret123").build();
+        performAsync(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(duplicate)))
+                .andExpect(status().isConflict());
+
+        UserDto takesCarolsEmail = UserDto.builder().username("bob").email("carol@example.com").build();
+        performAsync(put("/api/users/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(takesCarolsEmail)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testDeleteUser() throws Exception {
+        String id = createUser("dave", "dave@example.com");
+
+        mockMvc.perform(delete("/api/users/{id}", id))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/users/{id}", id))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testUserListEtagMovesOnCreate() throws Exception {
+        String etag = mockMvc.perform(get("/api/users"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/users").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        String id = createUser("frank", "frank@example.com");
+        mockMvc.perform(get("/api/users").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+
+        String userEtag = mockMvc.perform(get("/api/users/{id}", id))
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/users/{id}", id).header("If-None-Match", userEtag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testPasswordIsStoredHashedAndVerifies() throws Exception {
+        String id = createUser("grace", "grace@example.com");
+
+        String stored = userRepository.findById(id).orElseThrow().getPassword();
+        assertNotEquals("Secret123", stored);
+        assertTrue(stored.startsWith("$2"));
+
+        verify("grace", "Secret123").andExpect(status().isNoContent());
+        verify("grace@example.com", "Secret123").andExpect(status().isNoContent());
+        verify("grace", "Secret124").andExpect(status().isUnauthorized());
+        verify("nobody", "Secret123").andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testPasswordChangeIsHashed() throws Exception {
+        String id = createUser("heidi", "heidi@example.com");
+
+        UserDto changed = UserDto.builder().username("heidi").email("heidi@example.com").password("Changed456").build();
+        performAsync(put("/api/users/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(changed)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.password").doesNotExist());
+
+        verify("heidi", "Secret123").andExpect(status().isUnauthorized());
+        verify("heidi", "Changed456").andExpect(status().isNoContent());
+    }
+
+    @Test
+    void testPlaintextPasswordIsRehashedOnVerify() throws Exception {
+        String id = UUID.randomUUID().toString();
+        userRepository.save(User.builder()
+                .id(id)
+                .username("ivan")
+                .email("ivan@example.com")
+                .password("Legacy123")
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        verify("ivan", "Legacy12").andExpect(status().isUnauthorized());
+        assertEquals("Legacy123", userRepository.findById(id).orElseThrow().getPassword());
+        verify("ivan", "Legacy123").andExpect(status().isNoContent());
+
+        // The rehash is queued behind the check
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (userRepository.findById(id).orElseThrow().getPassword().equals("Legacy123")
+                && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(userRepository.findById(id).orElseThrow().getPassword().startsWith("$2"));
+        verify("ivan", "Legacy123").andExpect(status().isNoContent());
+    }
+
+    @Test
+    void testSampleUsersAreStoredHashed() {
+        assertTrue(userRepository.findByUsername("user1").orElseThrow().getPassword().startsWith("$2"));
+        assertTrue(userRepository.findByUsername("user2").orElseThrow().getPassword().startsWith("$2"));
+    }
+}
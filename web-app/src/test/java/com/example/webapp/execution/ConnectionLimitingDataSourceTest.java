@@ -0,0 +1,41 @@
+package com.example.webapp.execution;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionLimitingDataSourceTest {
+
+    private static ConnectionLimitingDataSource dataSource(int permits) {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:permits");
+        return new ConnectionLimitingDataSource(h2, permits, Duration.ofMillis(50));
+    }
+
+    @Test
+    void testPermitIsReturnedOnceWhenConnectionCloses() throws Exception {
+        ConnectionLimitingDataSource dataSource = dataSource(1);
+        Connection connection = dataSource.getConnection();
+        assertEquals(0, dataSource.availablePermits());
+
+        connection.close();
+        connection.close();
+        assertEquals(1, dataSource.availablePermits());
+    }
+
+    @Test
+    void testBorrowFailsFastWhenPermitsAreExhausted() throws Exception {
+        ConnectionLimitingDataSource dataSource = dataSource(1);
+        try (Connection ignored = dataSource.getConnection()) {
+            assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            assertTrue(connection.isValid(1));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.webapp.invalidation;
+
+import com.example.common.id.CompactIds;
+import com.example.product.entity.Product;
+import com.example.product.repository.ProductRepository;
+import com.example.user.entity.User;
+import com.example.user.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// The scheduled poll is pushed out of the way; ticks are driven by the tests
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:invalidation;DB_CLOSE_DELAY=-1",
+        "app.invalidation.bus=database",
+        "app.invalidation.poll-interval=1h",
+        "app.sample-data.enabled=false"
+})
+@AutoConfigureMockMvc
+class JdbcInvalidationBusIntegrationTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private InvalidationBus invalidationBus;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private JdbcInvalidationBus local;
+    private JdbcInvalidationBus peer;
+    private final List<Invalidation> receivedByPeer = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        local = (JdbcInvalidationBus) invalidationBus;
+        peer = new JdbcInvalidationBus(jdbcTemplate, receivedByPeer::add, new SimpleMeterRegistry(),
+                Duration.ofHours(1), Duration.ofHours(1), Duration.ofMinutes(10));
+        local.tick();
+        peer.tick();
+    }
+
+    @Test
+    void testPeerWritesReachThisInstance() throws Exception {
+        String productId = UUID.randomUUID().toString();
+        productRepository.save(Product.builder()
+                .id(productId)
+                .name("Kettle")
+                .price(new BigDecimal("30.00"))
+                .stockQuantity(4)
+                .category("Peer")
+                .createdAt(LocalDateTime.now())
+                .build());
+        User user = userRepository.save(User.builder()
+                .id(UUID.randomUUID().toString())
+                .username("peer-user")
+                .email("peer@example.com")
+                .password("secret")
+                .firstName("Before")
+                .build());
+        mockMvc.perform(get("/api/products/category/{category}", "Peer"))
+                .andExpect(jsonPath("$[0].name").value("Kettle"));
+        mockMvc.perform(get("/api/users/{id}", user.getId()))
+                .andExpect(jsonPath("$.firstName").value("Before"));
+
+        // Written by another instance: nothing local hears about it
+        jdbcTemplate.update("update products set name = 'Teapot', version = version + 1 where id = ?",
+                (Object) CompactIds.encode(productId));
+        user.setFirstName("After");
+        userRepository.save(user);
+        mockMvc.perform(get("/api/products/category/{category}", "Peer"))
+                .andExpect(jsonPath("$[0].name").value("Kettle"));
+        mockMvc.perform(get("/api/users/{id}", user.getId()))
+                .andExpect(jsonPath("$.firstName").value("Before"));
+
+        peer.publish(Invalidation.product(productId));
+        peer.publish(Invalidation.user(user.getId()));
+        peer.tick();
+        local.tick();
+
+        mockMvc.perform(get("/api/products/category/{category}", "Peer"))
+                .andExpect(jsonPath("$[0].name").value("Teapot"));
+        mockMvc.perform(get("/api/users/{id}", user.getId()))
+                .andExpect(jsonPath("$.firstName").value("After"));
+        mockMvc.perform(get("/api/products/search").param("q", "teapot"))
+                .andExpect(jsonPath("$[0].id").value(productId));
+    }
+
+    @Test
+    void testLocalWritesArePublishedOnce() {
+        String productId = UUID.randomUUID().toString();
+        Product product = productRepository.save(Product.builder()
+                .id(productId)
+                .name("Mug")
+                .price(new BigDecimal("5.00"))
+                .stockQuantity(1)
+                .createdAt(LocalDateTime.now())
+                .build());
+        product.setStockQuantity(2);
+        productRepository.save(product);
+        local.tick();
+        peer.tick();
+        assertEquals(List.of(Invalidation.product(productId)), receivedByPeer);
+        peer.tick();
+        assertEquals(1, receivedByPeer.size());
+    }
+
+    @Test
+    void testLateCommitsBelowTheCursorAreStillDelivered() {
+        long max = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from cache_invalidations", Long.class);
+        String insert = "insert into cache_invalidations (id, origin, topic, cache_key, created_at) "
+                + "values (?, 'elsewhere', 'USER', ?, current_timestamp)";
+        jdbcTemplate.update(insert, max + 1000, "second");
+        peer.tick();
+        assertEquals(List.of(Invalidation.user("second")), receivedByPeer);
+
+        // An insert that took its id earlier but committed later
+        jdbcTemplate.update(insert, max + 999, "first");
+        peer.tick();
+        peer.tick();
+        assertEquals(List.of(Invalidation.user("second"), Invalidation.user("first")), receivedByPeer);
+
+        // The explicit ids did not move the identity sequence, so later instances must not start above them
+        jdbcTemplate.update("delete from cache_invalidations where origin = 'elsewhere'");
+    }
+}
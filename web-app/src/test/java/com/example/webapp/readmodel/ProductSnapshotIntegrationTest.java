@@ -0,0 +1,180 @@
+package com.example.webapp.readmodel;
+
+import com.example.api.dto.ProductDto;
+import com.example.product.entity.Product;
+import com.example.product.mapper.ProductMapper;
+import com.example.product.repository.ProductRepository;
+import com.example.product.snapshot.ProductSnapshot;
+import com.example.product.snapshot.ProductView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:snapshot;DB_CLOSE_DELAY=-1",
+        "app.read-model.mode=snapshot",
+        "app.read-model.refresh-interval=0",
+        "app.sample-data.enabled=false"
+})
+@AutoConfigureMockMvc
+class ProductSnapshotIntegrationTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ProductSnapshot snapshot;
+    @Autowired
+    private ProductSnapshotMaintainer maintainer;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        productRepository.deleteAll();
+        products.clear();
+        for (int i = 0; i < 40; i++) {
+            products.add(Product.builder()
+                    .id(i % 10 == 0 ? "legacy-" + i : UUID.randomUUID().toString())
+                    .name(i % 7 == 0 ? "Prodüct \"" + i + "\" 🚀" : "Product " + i)
+                    .description(i % 3 == 0 ? null : "Line one\nline two " + i)
+                    .price(i % 5 == 0 ? new BigDecimal("12.5") : BigDecimal.valueOf(i * 1013L, 2))
+                    .stockQuantity(i)
+                    .category(i % 4 == 0 ? null : "Category " + (i % 3))
+                    .createdAt(LocalDateTime.of(2024, 2, 29, 23, 59, 59).plusNanos(i * 10_000_000L + i * 1000L))
+                    .updatedAt(i % 2 == 0 ? null : LocalDateTime.of(1999, 12, 31, 0, 0).plusSeconds(i))
+                    .build());
+        }
+        productRepository.saveAll(products);
+        maintainer.rebuild();
+    }
+
+    // Bytes, as written to a response, so both sides go through the same generator
+    private String json(Object value) throws Exception {
+        return new String(objectMapper.writeValueAsBytes(value), StandardCharsets.UTF_8);
+    }
+
+    private String databaseJson(String id) throws Exception {
+        return json(ProductMapper.INSTANCE.toDto(productRepository.findById(id).orElseThrow()));
+    }
+
+    @Test
+    void testSnapshotJsonMatchesDatabaseJson() throws Exception {
+        assertTrue(snapshot.ready());
+        assertEquals(products.size(), snapshot.size());
+        for (Product product : products) {
+            String body = mockMvc.perform(get("/api/products/{id}", product.getId()))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+            assertEquals(databaseJson(product.getId()), body);
+        }
+    }
+
+    @Test
+    void testPagesMatchDatabaseOrder() throws Exception {
+        List<ProductDto> expected = productRepository.findDtoPage(PageRequest.of(0, products.size()));
+        List<String> pages = new ArrayList<>();
+        String after = null;
+        do {
+            MvcResult result = mockMvc.perform(after == null
+                            ? get("/api/products").param("limit", "7")
+                            : get("/api/products").param("limit", "7").param("after", after))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            pages.add(result.getResponse().getContentAsString(StandardCharsets.UTF_8));
+            after = result.getResponse().getHeader("X-Next-Cursor");
+        } while (after != null);
+
+        List<String> expectedPages = new ArrayList<>();
+        for (int from = 0; from < expected.size(); from += 7) {
+            expectedPages.add(json(expected.subList(from, Math.min(from + 7, expected.size()))));
+        }
+        if (expected.size() % 7 == 0) {
+            expectedPages.add("[]");
+        }
+        assertEquals(expectedPages, pages);
+    }
+
+    @Test
+    void testWritesPatchTheSnapshot() throws Exception {
+        String id = products.get(1).getId();
+        mockMvc.perform(put("/api/products/{id}/price", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"price\": 99.99}"))
+                .andExpect(status().isNoContent());
+        assertEquals(9999, snapshot.find(id).priceCents());
+        mockMvc.perform(get("/api/products/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(content().json(databaseJson(id), true));
+
+        mockMvc.perform(put("/api/products/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Renamed\", \"price\": 1.00, \"stockQuantity\": 3, \"category\": \"New\"}"))
+                .andExpect(status().isOk());
+        ProductView renamed = snapshot.find(id);
+        assertEquals("Renamed", renamed.name());
+        assertEquals("New", renamed.category());
+        assertEquals(productRepository.findById(id).orElseThrow().getVersion(), renamed.version());
+
+        mockMvc.perform(delete("/api/products/{id}", id))
+                .andExpect(status().isNoContent());
+        assertNull(snapshot.find(id));
+        assertEquals(products.size() - 1, snapshot.size());
+        mockMvc.perform(get("/api/products/{id}", id))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testStaleCopiesAreIgnored() {
+        Product stale = products.get(2);
+        long version = snapshot.find(stale.getId()).version();
+        snapshot.put(renamed(stale, "Newer", version + 1));
+        snapshot.put(renamed(stale, "Older", version));
+        assertEquals("Newer", snapshot.find(stale.getId()).name());
+    }
+
+    private static Product renamed(Product product, String name, long version) {
+        return Product.builder()
+                .id(product.getId())
+                .name(name)
+                .price(product.getPrice())
+                .stockQuantity(product.getStockQuantity())
+                .version(version)
+                .build();
+    }
+
+    @Test
+    void testBinaryFormatsFallBackToTheDto() throws Exception {
+        String id = products.get(3).getId();
+        byte[] body = mockMvc.perform(get("/api/products/{id}", id).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        ProductDto product = CBORMapper.builder().addModule(new JavaTimeModule()).build().readValue(body, ProductDto.class);
+        assertEquals(ProductMapper.INSTANCE.toDto(productRepository.findById(id).orElseThrow()), product);
+    }
+}
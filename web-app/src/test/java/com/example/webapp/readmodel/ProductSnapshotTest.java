@@ -0,0 +1,132 @@
+package com.example.webapp.readmodel;
+
+import com.example.common.id.CompactIds;
+import com.example.product.entity.Product;
+import com.example.product.snapshot.ProductSnapshot;
+import com.example.product.snapshot.ProductView;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSnapshotTest {
+
+    private static final Comparator<String> ID_ORDER =
+            (left, right) -> Arrays.compareUnsigned(CompactIds.encode(left), CompactIds.encode(right));
+
+    private final Random random = new Random(7);
+    private final Map<String, Product> expected = new TreeMap<>(ID_ORDER);
+
+    private Product product(String id, long version) {
+        return Product.builder()
+                .id(id)
+                .name("Product " + id)
+                .price(BigDecimal.valueOf(random.nextInt(100_000), 2))
+                .stockQuantity(random.nextInt(100))
+                .category("Category " + random.nextInt(5))
+                .version(version)
+                .build();
+    }
+
+    private String newId() {
+        return random.nextInt(20) == 0 ? "legacy-" + random.nextInt() : UUID.randomUUID().toString();
+    }
+
+    private void assertMatches(ProductSnapshot snapshot) {
+        assertEquals(expected.size(), snapshot.size());
+        List<String> ids = new ArrayList<>();
+        String after = null;
+        List<ProductView> page;
+        do {
+            page = snapshot.page(after, 97);
+            page.forEach(view -> ids.add(view.id()));
+            after = page.isEmpty() ? null : page.get(page.size() - 1).id();
+        } while (page.size() == 97);
+        assertEquals(new ArrayList<>(expected.keySet()), ids);
+        for (Product product : expected.values()) {
+            ProductView view = snapshot.find(product.getId());
+            assertEquals(product.getName(), view.name());
+            assertEquals(product.getPrice().unscaledValue().longValue(), view.priceCents());
+            assertEquals(product.getStockQuantity(), view.stockQuantity());
+            assertEquals(product.getCategory(), view.category());
+            assertEquals(product.getVersion(), view.version());
+        }
+    }
+
+    @Test
+    void testOverlayAndCompactionAgreeWithTheWrites() {
+        for (int i = 0; i < 2000; i++) {
+            Product product = product(newId(), 0);
+            expected.put(product.getId(), product);
+        }
+        ProductSnapshot snapshot = new ProductSnapshot();
+        assertFalse(snapshot.ready());
+        snapshot.rebuild(new ArrayList<>(expected.values()).stream());
+        assertTrue(snapshot.ready());
+        assertMatches(snapshot);
+
+        // Several rounds, the later ones past the compaction threshold
+        for (int round = 0; round < 4; round++) {
+            List<String> ids = new ArrayList<>(expected.keySet());
+            for (int i = 0; i < 300; i++) {
+                Product product = product(newId(), 0);
+                expected.put(product.getId(), product);
+                snapshot.put(product);
+            }
+            for (int i = 0; i < 300; i++) {
+                Product current = expected.get(ids.get(random.nextInt(ids.size())));
+                if (current != null) {
+                    Product updated = product(current.getId(), current.getVersion() + 1);
+                    expected.put(updated.getId(), updated);
+                    snapshot.put(updated);
+                }
+            }
+            for (int i = 0; i < 150; i++) {
+                String id = ids.get(random.nextInt(ids.size()));
+                expected.remove(id);
+                snapshot.remove(id);
+            }
+            assertMatches(snapshot);
+        }
+        assertNull(snapshot.find("missing"));
+        assertEquals(expected.keySet().stream().skip(10).limit(5).collect(Collectors.toList()),
+                snapshot.page(expected.keySet().stream().skip(9).findFirst().orElseThrow(), 5).stream()
+                        .map(ProductView::id).collect(Collectors.toList()));
+    }
+
+    @Test
+    void testWriteBeforeTheRebuildQueryOpensIsKept() {
+        ProductSnapshot snapshot = new ProductSnapshot();
+        snapshot.rebuild(List.of(product("a", 0)).stream());
+
+        try (ProductSnapshot.Rebuild rebuild = snapshot.beginRebuild()) {
+            // Committed after the rebuild began but before its query saw the table
+            snapshot.put(product("b", 0));
+            rebuild.build(List.of(product("a", 0)).stream());
+        }
+        assertNotNull(snapshot.find("b"));
+        assertEquals(2, snapshot.size());
+
+        // Closed without building: later writes apply directly and a new rebuild can start
+        snapshot.beginRebuild().close();
+        snapshot.put(product("c", 0));
+        snapshot.rebuild(List.of(product("a", 0), product("b", 0), product("c", 0)).stream());
+        assertEquals(3, snapshot.size());
+    }
+
+    @Test
+    void testRebuildRejectsUnorderedProducts() {
+        List<Product> products = List.of(product("b", 0), product("a", 0));
+        assertThrows(IllegalArgumentException.class, () -> new ProductSnapshot().rebuild(products.stream()));
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.webapp.search;
+
+import com.example.product.entity.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    private static Product product(String id, String name, String category, String description) {
+        return Product.builder().id(id).name(name).category(category).description(description).build();
+    }
+
+    @Test
+    void testNameMatchesRankAboveDescriptionMatches() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(product("1", "Phone case", "Accessories", "Fits every laptop bag"));
+        index.index(product("2", "Laptop", "Electronics", "High-performance laptop"));
+
+        assertEquals(List.of("2", "1"), index.search("laptop", 10));
+    }
+
+    @Test
+    void testPrefixAndFuzzyMatching() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(product("1", "Smartphone", "Electronics", null));
+
+        assertEquals(List.of("1"), index.search("smart", 10));
+        assertEquals(List.of("1"), index.search("smartfone", 10));
+        assertEquals(List.of("1"), index.search("electronic smartphone", 10));
+        assertTrue(index.search("smartphone kitchen", 10).isEmpty());
+    }
+
+    @Test
+    void testUpdateAndRemoveRetractOldTerms() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(product("1", "Laptop", null, null));
+        index.index(product("1", "Tablet", null, null));
+
+        assertTrue(index.search("laptop", 10).isEmpty());
+        assertEquals(List.of("1"), index.search("tablet", 10));
+
+        index.remove("1");
+        assertTrue(index.search("tablet", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void testFuzzyMatchingAcrossLengthsAndAfterRemoval() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(product("1", "Keyboard", null, null));
+        index.index(product("2", "Kettle", null, null));
+
+        assertEquals(List.of("1"), index.search("keybord", 10));
+        assertEquals(List.of("1"), index.search("keyyboardd", 10));
+        assertEquals(List.of("2"), index.search("ketle", 10));
+
+        index.remove("1");
+        assertTrue(index.search("keybord", 10).isEmpty());
+    }
+
+    @Test
+    void testEditDistanceStopsAtLimit() {
+        assertEquals(1, ProductSearchIndex.editDistance("keybord", "keyboard", 2));
+        assertEquals(3, ProductSearchIndex.editDistance("abc", "xyz", 2));
+    }
+
+    @Test
+    void testRebuildKeepsServingAndReplaysWritesMadeMeanwhile() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(product("1", "Laptop", null, null));
+        index.index(product("2", "Kettle", null, null));
+
+        try (ProductSearchIndex.Rebuild rebuild = index.beginRebuild()) {
+            // Committed while the rebuild query runs, which still sees the old rows
+            index.index(product("1", "Tablet", null, null));
+            index.remove("2");
+            assertEquals(List.of("1"), index.search("tablet", 10));
+            rebuild.build(List.of(product("1", "Laptop", null, null), product("2", "Kettle", null, null)).stream());
+        }
+        assertEquals(List.of("1"), index.search("tablet", 10));
+        assertTrue(index.search("laptop", 10).isEmpty());
+        assertTrue(index.search("kettle", 10).isEmpty());
+        assertEquals(1, index.size());
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.webapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedStockCounterTest {
+    @Test
+    void testConcurrentReservationsNeverOversell() throws Exception {
+        StripedStockCounter counter = new StripedStockCounter(1000, 8);
+        AtomicInteger reserved = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        for (int i = 0; i < 5000; i++) {
+            executor.execute(() -> {
+                if (counter.adjust(-1) == StripedStockCounter.Outcome.APPLIED) {
+                    reserved.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1000, reserved.get());
+        assertEquals(0, counter.available());
+        assertEquals(-1000, counter.drainPending());
+        assertEquals(0, counter.drainPending());
+    }
+
+    @Test
+    void testLargeReservationSpansStripes() {
+        StripedStockCounter counter = new StripedStockCounter(10, 4);
+
+        assertEquals(StripedStockCounter.Outcome.APPLIED, counter.adjust(-9));
+        assertEquals(StripedStockCounter.Outcome.INSUFFICIENT, counter.adjust(-2));
+        assertEquals(1, counter.available());
+    }
+
+    @Test
+    void testClosedCounterRejectsChangesAndReturnsPending() {
+        StripedStockCounter counter = new StripedStockCounter(10, 2);
+        counter.adjust(-3);
+        counter.adjust(1);
+
+        assertEquals(-2, counter.close());
+        assertEquals(StripedStockCounter.Outcome.CLOSED, counter.adjust(-1));
+    }
+
+    @Test
+    void testReopenKeepsTheUnwrittenDelta() {
+        StripedStockCounter counter = new StripedStockCounter(10, 4);
+        counter.adjust(-3);
+
+        long delta = counter.close();
+        assertEquals(-3, delta);
+        assertEquals(StripedStockCounter.Outcome.CLOSED, counter.adjust(-1));
+
+        counter.reopen(delta);
+        assertEquals(StripedStockCounter.Outcome.APPLIED, counter.adjust(-1));
+        assertEquals(6, counter.available());
+        assertEquals(-4, counter.drainPending());
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.webapp.throttle;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofSeconds(1).toNanos();
+
+    @Test
+    void testRejectsAtLimitAndAdmitsAfterRelease() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, Duration.ofMillis(100));
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.inFlight());
+
+        limiter.release(FAST);
+        assertEquals(1, limiter.inFlight());
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void testSlowResponsesShrinkLimitAndFastOnesGrowIt() {
+        AtomicLong clock = new AtomicLong();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 5, 40, Duration.ofMillis(100), clock::get);
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limiter.tryAcquire());
+            clock.addAndGet(SLOW);
+            limiter.release(SLOW);
+        }
+        assertEquals(5, limiter.limit());
+
+        // Growth needs the limit to be in use
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            limiter.release(FAST);
+            limiter.release(FAST);
+            limiter.release(FAST);
+        }
+        assertTrue(limiter.limit() > 5);
+        assertTrue(limiter.limit() <= 40);
+
+        // An idle service does not inflate its limit
+        int limit = limiter.limit();
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.release(FAST);
+        }
+        assertEquals(limit, limiter.limit());
+    }
+
+    @Test
+    void testReleaseWithoutSampleKeepsTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, Duration.ofMillis(100));
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        limiter.release();
+        limiter.release();
+        assertEquals(0, limiter.inFlight());
+        assertEquals(2, limiter.limit());
+    }
+
+    @Test
+    void testConcurrentSlowResponsesBackOffOncePerWindow() throws Exception {
+        AtomicLong clock = new AtomicLong();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 5, 40, Duration.ofMillis(100), clock::get);
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+
+        // Twenty requests stuck behind the same overload all finish slow together
+        clock.addAndGet(SLOW);
+        ExecutorService executor = Executors.newFixedThreadPool(20);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < 20; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                limiter.release(SLOW);
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(0, limiter.inFlight());
+        assertEquals(18, limiter.limit());
+
+        // Still inside the window
+        assertTrue(limiter.tryAcquire());
+        clock.addAndGet(Duration.ofMillis(50).toNanos());
+        limiter.release(SLOW);
+        assertEquals(18, limiter.limit());
+
+        assertTrue(limiter.tryAcquire());
+        clock.addAndGet(Duration.ofMillis(50).toNanos());
+        limiter.release(SLOW);
+        assertEquals(16, limiter.limit());
+    }
+}
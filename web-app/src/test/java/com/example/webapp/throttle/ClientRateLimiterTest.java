@@ -0,0 +1,41 @@
+package com.example.webapp.throttle;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientRateLimiterTest {
+
+    @Test
+    void testBurstThenSustainedRate() {
+        AtomicLong clock = new AtomicLong();
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 3, 100, clock::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Duration.ZERO, limiter.tryAcquire("a"));
+        }
+        Duration wait = limiter.tryAcquire("a");
+        assertEquals(Duration.ofMillis(100), wait);
+        // Other clients have their own bucket
+        assertEquals(Duration.ZERO, limiter.tryAcquire("b"));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(Duration.ZERO, limiter.tryAcquire("a"));
+        assertFalse(limiter.tryAcquire("a").isZero());
+    }
+
+    @Test
+    void testIdleClientRefillsOnlyUpToBurst() {
+        AtomicLong clock = new AtomicLong();
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 2, 100, clock::get);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertTrue(limiter.tryAcquire("a").isZero());
+        assertTrue(limiter.tryAcquire("a").isZero());
+        assertFalse(limiter.tryAcquire("a").isZero());
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.webapp.throttle;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:throttle;DB_CLOSE_DELAY=-1",
+        "app.throttle.rate-limit.requests-per-second=0.1",
+        "app.throttle.rate-limit.burst=2",
+        "app.throttle.rate-limit.client-header=X-Client-Id"
+})
+@AutoConfigureMockMvc
+class ThrottlingFilterIntegrationTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testClientOverItsRateIsRejectedWithRetryAfter() throws Exception {
+        mockMvc.perform(get("/api/products").header("X-Client-Id", "greedy")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/products").header("X-Client-Id", "greedy")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/products").header("X-Client-Id", "greedy"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+
+        // Other clients and non-API paths are unaffected
+        mockMvc.perform(get("/api/products").header("X-Client-Id", "polite")).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/health").header("X-Client-Id", "greedy")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/metrics/http.server.throttle").param("tag", "decision:rate_limited"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[0].value").value(1.0));
+    }
+
+    @Test
+    void testAsyncRequestsGiveUpTheirSlotWhenTheThreadReturns() throws Exception {
+        mockMvc.perform(get("/api/products/stream").header("X-Client-Id", "streamer"))
+                .andExpect(request().asyncStarted());
+
+        // The stream is still open, but no longer counts against the limit
+        mockMvc.perform(get("/actuator/metrics/http.server.concurrency.in_flight"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[0].value").value(0.0));
+    }
+}